@@ -0,0 +1,47 @@
+// Login storm vs. regular API traffic (k6: https://k6.io)
+//
+//   k6 run -e BASE_URL=http://localhost:8080 -e USER=admin -e PASS=admin123 bench/login-storm.js
+//
+// "storm" hammers /auth/login, "api" keeps calling a cheap authenticated endpoint
+// with a token obtained once in setup(). Compare http_req_duration{scenario:api}
+// p99 with hms.password.* and executor_* metrics on :8081/actuator/prometheus,
+// once with the offloaded encoder and once with hms.password.threads set to the
+// core count (close to the old behaviour). 503s from the storm are expected
+// when the hashing queue is full.
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const CREDENTIALS = JSON.stringify({ username: __ENV.USER || 'admin', password: __ENV.PASS || 'admin123' });
+const JSON_HEADERS = { 'Content-Type': 'application/json' };
+
+export const options = {
+  scenarios: {
+    storm: { executor: 'constant-arrival-rate', exec: 'login', rate: 200, timeUnit: '1s',
+             duration: '2m', preAllocatedVUs: 200, maxVUs: 400 },
+    api:   { executor: 'constant-arrival-rate', exec: 'api', rate: 50, timeUnit: '1s',
+             duration: '2m', preAllocatedVUs: 20, maxVUs: 50 },
+  },
+  thresholds: {
+    'http_req_duration{scenario:api}': ['p(99)<250'],
+    'http_req_duration{scenario:storm}': ['p(99)<5000'],
+  },
+  summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+export function setup() {
+  const res = http.post(`${BASE_URL}/auth/login`, CREDENTIALS, { headers: JSON_HEADERS });
+  return { token: res.json('token') };
+}
+
+export function login() {
+  const res = http.post(`${BASE_URL}/auth/login`, CREDENTIALS, { headers: JSON_HEADERS });
+  check(res, { 'login ok or shed': (r) => r.status === 200 || r.status === 503 });
+}
+
+export function api(data) {
+  const res = http.get(`${BASE_URL}/api/doctors`, {
+    headers: { Authorization: `Bearer ${data.token}` },
+  });
+  check(res, { 'api ok': (r) => r.status === 200 || r.status === 304 });
+}
@@ -0,0 +1,13 @@
+package com.hms.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+/**
+ * @Async work runs on Boot's applicationTaskExecutor, which switches to
+ * virtual threads together with Tomcat when spring.threads.virtual.enabled=true.
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+}
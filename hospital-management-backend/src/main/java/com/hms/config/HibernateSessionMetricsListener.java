@@ -0,0 +1,61 @@
+package com.hms.config;
+
+import org.hibernate.SessionEventListener;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+
+/**
+ * Per-session Hibernate counters. With open-in-view a session spans one web
+ * request, so these summaries read as "statements / cache hits per request".
+ * Hibernate instantiates this class itself (hibernate.session.events.auto),
+ * so it records into the global registry that Spring Boot also publishes to.
+ */
+public class HibernateSessionMetricsListener implements SessionEventListener {
+
+    private static final DistributionSummary STATEMENTS = DistributionSummary
+            .builder("hms.hibernate.session.statements")
+            .description("JDBC statements executed per Hibernate session")
+            .publishPercentileHistogram()
+            .register(Metrics.globalRegistry);
+
+    private static final DistributionSummary CACHE_HITS = DistributionSummary
+            .builder("hms.hibernate.session.cache.hits")
+            .description("Second-level cache hits per Hibernate session")
+            .register(Metrics.globalRegistry);
+
+    private static final DistributionSummary CACHE_MISSES = DistributionSummary
+            .builder("hms.hibernate.session.cache.misses")
+            .description("Second-level cache misses per Hibernate session")
+            .register(Metrics.globalRegistry);
+
+    private int statements;
+    private int cacheHits;
+    private int cacheMisses;
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        statements++;
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        statements++;
+    }
+
+    @Override
+    public void cacheGetEnd(boolean hit) {
+        if (hit) {
+            cacheHits++;
+        } else {
+            cacheMisses++;
+        }
+    }
+
+    @Override
+    public void end() {
+        STATEMENTS.record(statements);
+        CACHE_HITS.record(cacheHits);
+        CACHE_MISSES.record(cacheMisses);
+    }
+}
@@ -2,6 +2,8 @@ package com.hms.config;
 
 import java.io.IOException;
 import java.util.List; // ✅ ADDED
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.lang.NonNull;
@@ -13,8 +15,13 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.hms.entity.Role;
 import com.hms.util.JwtUtil;
 
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -29,6 +36,27 @@ public class JwtRequestFilter extends OncePerRequestFilter {
     @Autowired
     private JwtUtil jwtUtil;
 
+    private final Timer filterTimer;
+    private final Counter claimLookups;
+    private final Counter dbLookups;
+
+    public JwtRequestFilter(MeterRegistry meterRegistry) {
+        // Times token parsing + user lookup only, not the rest of the filter chain
+        this.filterTimer = Timer.builder("hms.jwt.filter")
+                .description("Time spent authenticating the bearer token")
+                .register(meterRegistry);
+        // source=claim: authorities from the "rm" bitmask, no user query;
+        // source=db: legacy token without the claim, loaded through UserDetailsService
+        this.claimLookups = Counter.builder("hms.jwt.user.lookups")
+                .tag("source", "claim")
+                .description("Authenticated requests by where the authorities came from")
+                .register(meterRegistry);
+        this.dbLookups = Counter.builder("hms.jwt.user.lookups")
+                .tag("source", "db")
+                .description("Authenticated requests by where the authorities came from")
+                .register(meterRegistry);
+    }
+
     @Override
     protected void doFilterInternal(
             @NonNull HttpServletRequest request,
@@ -36,22 +64,26 @@ public class JwtRequestFilter extends OncePerRequestFilter {
             @NonNull FilterChain filterChain)
             throws ServletException, IOException {
 
+        long start = System.nanoTime();
         final String authorizationHeader = request.getHeader("Authorization");
 
         String username = null;
-        String jwt = null;
+        Integer roleMask = null;
 
         System.out.println("🔐 JWT Filter - Processing request: " + request.getRequestURI());
 
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
+            String jwt = authorizationHeader.substring(7);
             try {
-                username = jwtUtil.extractUsername(jwt);
-                List<String> roles = jwtUtil.extractRoles(jwt); // ✅ ADDED
+                // One parse: signature and expiry are verified here, a bad token throws
+                Claims claims = jwtUtil.extractClaim(jwt, Function.identity());
+                username = claims.getSubject();
+                roleMask = claims.get(JwtUtil.ROLE_MASK_CLAIM, Integer.class); // ✅ ADDED
                 System.out.println("🔐 JWT Filter - Extracted username: " + username);
-                System.out.println("🔐 JWT Filter - Extracted roles: " + roles);
+                System.out.println("🔐 JWT Filter - Extracted roles: " + claims.get("roles", List.class));
             } catch (Exception e) {
                 System.err.println("❌ JWT Filter - Cannot parse JWT token: " + e.getMessage());
+                filterTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
                 filterChain.doFilter(request, response);
                 return;
             }
@@ -59,22 +91,30 @@ public class JwtRequestFilter extends OncePerRequestFilter {
 
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
             try {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-                if (jwtUtil.validateToken(jwt, userDetails.getUsername())) {
-                    UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken =
-                            new UsernamePasswordAuthenticationToken(
-                                    userDetails, null, userDetails.getAuthorities());
-                    usernamePasswordAuthenticationToken
-                            .setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(usernamePasswordAuthenticationToken);
-                    System.out.println("✅ JWT Filter - Authenticated: " + username);
+                UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken;
+                if (roleMask != null) {
+                    // ✅ ADDED: Authorities straight from the token, no user query per request.
+                    // Role changes therefore apply from the next login (token lifetime 10h).
+                    usernamePasswordAuthenticationToken = new UsernamePasswordAuthenticationToken(
+                            username, null, Role.authoritiesOf(roleMask));
+                    claimLookups.increment();
+                } else {
+                    UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+                    usernamePasswordAuthenticationToken = new UsernamePasswordAuthenticationToken(
+                            userDetails, null, userDetails.getAuthorities());
+                    dbLookups.increment();
                 }
+                usernamePasswordAuthenticationToken
+                        .setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(usernamePasswordAuthenticationToken);
+                System.out.println("✅ JWT Filter - Authenticated: " + username);
             } catch (Exception e) {
                 System.err.println("❌ JWT Filter - Error: " + e.getMessage());
                 SecurityContextHolder.clearContext();
             }
         }
 
+        filterTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         filterChain.doFilter(request, response);
     }
 }
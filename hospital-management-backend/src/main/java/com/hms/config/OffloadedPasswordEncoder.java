@@ -0,0 +1,117 @@
+package com.hms.config;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.hms.exception.ServiceBusyException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+
+/**
+ * Runs BCrypt encode/matches on a small dedicated pool instead of the request thread.
+ * A login storm can then use at most {@code threads} cores; everything beyond
+ * {@code queueCapacity} waiting hashes is rejected with ServiceBusyException (503)
+ * instead of piling up and starving unrelated requests.
+ *
+ * Metrics: executor_* {name=hms.password} (queue depth, active, completed),
+ * hms.password.hash{op} (CPU time per hash), hms.password.wait{op} (queue wait),
+ * hms.password.rejected{op}.
+ */
+public class OffloadedPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final Duration maxWait;
+
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Timer encodeWait;
+    private final Timer matchesWait;
+    private final Counter encodeRejected;
+    private final Counter matchesRejected;
+
+    public OffloadedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity,
+                                    Duration maxWait, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.maxWait = maxWait;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("hms-password-", 0).daemon(true).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        new ExecutorServiceMetrics(executor, "hms.password", Tags.empty()).bindTo(registry);
+        this.encodeTimer = Timer.builder("hms.password.hash").tag("op", "encode").register(registry);
+        this.matchesTimer = Timer.builder("hms.password.hash").tag("op", "matches").register(registry);
+        this.encodeWait = Timer.builder("hms.password.wait").tag("op", "encode").register(registry);
+        this.matchesWait = Timer.builder("hms.password.wait").tag("op", "matches").register(registry);
+        this.encodeRejected = Counter.builder("hms.password.rejected").tag("op", "encode").register(registry);
+        this.matchesRejected = Counter.builder("hms.password.rejected").tag("op", "matches").register(registry);
+
+        System.out.println("🔑 Password hashing offloaded to " + threads + " threads, queue " + queueCapacity);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> delegate.encode(rawPassword), encodeTimer, encodeWait, encodeRejected);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> delegate.matches(rawPassword, encodedPassword), matchesTimer, matchesWait, matchesRejected);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T submit(Callable<T> work, Timer hashTimer, Timer waitTimer, Counter rejected) {
+        long queuedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                waitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                return hashTimer.recordCallable(work);
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ServiceBusyException("Too many concurrent sign-ins, please retry", 1);
+        }
+
+        try {
+            return future.get(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            throw new ServiceBusyException("Password check timed out, please retry", 1);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while hashing password");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,14 @@
+package com.hms.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * @Scheduled jobs (outbox dispatch, availability stream flushes) run on Boot's
+ * taskScheduler, so a job never overlaps with itself. Jobs must stay short and
+ * hand slow work to their own pools; nightly batch jobs go to MaintenanceJobRunner.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
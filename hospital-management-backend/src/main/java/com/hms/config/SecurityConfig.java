@@ -1,7 +1,9 @@
 package com.hms.config;
 
+import java.time.Duration;
 import java.util.Arrays;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -19,6 +21,8 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
@@ -40,7 +44,11 @@ public class SecurityConfig {
                 // ===== Authentication endpoints =====
                 .requestMatchers("/auth/login", "/auth/register").permitAll()
 
+                // ===== Metrics (management port is bound to 127.0.0.1) =====
+                .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll()
+
                 // ===== Patient APIs =====
+                .requestMatchers(HttpMethod.POST, "/api/patients/import").hasAuthority("ROLE_ADMIN")
                 .requestMatchers(HttpMethod.POST, "/patients").hasAnyAuthority("ROLE_ADMIN", "ROLE_DOCTOR", "ROLE_PATIENT")
                 .requestMatchers(HttpMethod.GET, "/patients", "/patients/**")
                     .hasAnyAuthority("ROLE_ADMIN", "ROLE_DOCTOR", "ROLE_PATIENT")
@@ -61,6 +69,7 @@ public class SecurityConfig {
                     .hasAuthority("ROLE_ADMIN")
 
                 // ===== Appointment APIs =====
+                .requestMatchers(HttpMethod.POST, "/api/appointments/reschedule").hasAuthority("ROLE_ADMIN")
                 .requestMatchers("/api/appointments/**")
                     .hasAnyAuthority("ROLE_ADMIN", "ROLE_DOCTOR", "ROLE_PATIENT")
 
@@ -68,6 +77,9 @@ public class SecurityConfig {
                 .requestMatchers("/api/schedules/**")
                     .hasAnyAuthority("ROLE_ADMIN", "ROLE_DOCTOR", "ROLE_PATIENT")
 
+                // ===== Reports =====
+                .requestMatchers("/api/reports/**").hasAuthority("ROLE_ADMIN")
+
                 // ===== Profile APIs =====
                 .requestMatchers("/api/patient-profile/**")
                     .hasAnyAuthority("ROLE_ADMIN", "ROLE_DOCTOR", "ROLE_PATIENT")
@@ -83,10 +95,13 @@ public class SecurityConfig {
         return http.build();
     }
 
-    // JWT Password encoder
+    // JWT Password encoder - BCrypt runs on a bounded pool, not on request threads
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry,
+                                           @Value("${hms.password.threads:2}") int threads,
+                                           @Value("${hms.password.queue-capacity:64}") int queueCapacity,
+                                           @Value("${hms.password.max-wait:5s}") Duration maxWait) {
+        return new OffloadedPasswordEncoder(new BCryptPasswordEncoder(), threads, queueCapacity, maxWait, meterRegistry);
     }
 
     // Authentication manager
@@ -101,8 +116,8 @@ public class SecurityConfig {
         CorsConfiguration configuration = new CorsConfiguration();
         configuration.setAllowedOrigins(Arrays.asList("http://localhost:3000")); // frontend origin
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
-        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "Accept"));
-        configuration.setExposedHeaders(Arrays.asList("Authorization"));
+        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "Accept", "If-None-Match", "If-Modified-Since"));
+        configuration.setExposedHeaders(Arrays.asList("Authorization", "ETag", "Last-Modified"));
         configuration.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -0,0 +1,96 @@
+package com.hms.config;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Streams jdk.VirtualThreadPinned JFR events while virtual threads are enabled
+ * and reports where a virtual thread held on to its carrier (native frames,
+ * class initialisation, driver code, ...). Each event is logged with its top
+ * frames and counted under hms.virtual.pinned, tagged with the first
+ * application frame so hot spots show up in the metrics.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor {
+
+    private static final int LOGGED_FRAMES = 8;
+
+    private final MeterRegistry meterRegistry;
+    private final Duration threshold;
+    private RecordingStream recordingStream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry,
+                                       @Value("${hms.virtual-threads.pinning-threshold:20ms}") Duration threshold) {
+        this.meterRegistry = meterRegistry;
+        this.threshold = threshold;
+    }
+
+    @PostConstruct
+    public void start() {
+        recordingStream = new RecordingStream();
+        recordingStream.enable("jdk.VirtualThreadPinned").withThreshold(threshold).withStackTrace();
+        recordingStream.onEvent("jdk.VirtualThreadPinned", this::onPinned);
+        recordingStream.startAsync();
+        System.out.println("🧵 Virtual thread pinning monitor started (threshold " + threshold.toMillis() + "ms)");
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (recordingStream != null) {
+            recordingStream.close();
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        List<RecordedFrame> frames = event.getStackTrace() != null
+                ? event.getStackTrace().getFrames()
+                : List.of();
+
+        String site = frames.stream()
+                .filter(frame -> frame.getMethod() != null
+                        && frame.getMethod().getType().getName().startsWith("com.hms."))
+                .findFirst()
+                .or(() -> frames.stream().filter(frame -> frame.getMethod() != null).findFirst())
+                .map(VirtualThreadPinningMonitor::describe)
+                .orElse("unknown");
+
+        Counter.builder("hms.virtual.pinned")
+                .description("Virtual thread pinned events above the configured threshold")
+                .tag("site", site)
+                .register(meterRegistry)
+                .increment();
+        Timer.builder("hms.virtual.pinned.duration")
+                .description("Time virtual threads spent pinned to their carrier")
+                .register(meterRegistry)
+                .record(event.getDuration());
+
+        StringBuilder message = new StringBuilder("⚠️ Virtual thread pinned for ")
+                .append(event.getDuration().toMillis()).append("ms at ").append(site);
+        frames.stream().limit(LOGGED_FRAMES)
+                .forEach(frame -> message.append("\n    at ").append(describe(frame)));
+        System.err.println(message);
+    }
+
+    private static String describe(RecordedFrame frame) {
+        if (frame.getMethod() == null) {
+            return "unknown";
+        }
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                + ":" + frame.getLineNumber();
+    }
+}
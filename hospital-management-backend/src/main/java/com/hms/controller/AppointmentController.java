@@ -1,9 +1,12 @@
 package com.hms.controller;
 
+import java.time.LocalDate;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -16,10 +19,17 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.hms.dto.AppointmentResponseDTO;
+import com.hms.dto.PageResultDTO;
 import com.hms.entity.Appointment;
+import com.hms.dto.RescheduleReportDTO;
+import com.hms.dto.RescheduleRequestDTO;
+import com.hms.dto.WaitingRoomDTO;
 import com.hms.service.AppointmentService;
+import com.hms.service.BulkRescheduleService;
+import com.hms.service.WaitingRoomService;
 
 @RestController
 @RequestMapping("/api/appointments")
@@ -29,6 +39,12 @@ public class AppointmentController {
     @Autowired
     private AppointmentService appointmentService;
 
+    @Autowired
+    private WaitingRoomService waitingRoomService;
+
+    @Autowired
+    private BulkRescheduleService bulkRescheduleService;
+
     @PostMapping
     public ResponseEntity<?> createAppointment(
             @RequestBody Appointment appointment,
@@ -67,6 +83,31 @@ public class AppointmentController {
         }
     }
 
+    /**
+     * Archived history (past hms.archive.horizon-days), by appointment date range and page,
+     * for anything older than the archived slice the list endpoints include.
+     * Admins see everyone's, doctors and patients their own.
+     */
+    @GetMapping("/archived")
+    public ResponseEntity<?> getArchivedAppointments(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            Authentication authentication) {
+        if (page < 0 || size < 1 || size > 100) {
+            return ResponseEntity.badRequest().body("page must be >= 0 and size between 1 and 100");
+        }
+        try {
+            PageResultDTO<AppointmentResponseDTO> result =
+                    appointmentService.getArchivedAppointments(from, to, page, size, authentication.getName());
+            return ResponseEntity.ok(result);
+        } catch (RuntimeException e) {
+            System.err.println("❌ Error fetching archived appointments: " + e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<?> getAppointmentById(
             @PathVariable Long id,
@@ -170,6 +211,74 @@ public class AppointmentController {
         }
     }
 
+    // ✅ ADDED: Patient has arrived; puts the appointment on the doctor's waiting-room board
+    // ✅ ADDED: Doctor leave (admin only): move the doctor's appointments in a date range to other
+    // open slots. dryRun defaults to true and returns the planned moves without applying them.
+    @PostMapping("/reschedule")
+    public ResponseEntity<?> bulkReschedule(
+            @RequestBody RescheduleRequestDTO request,
+            Authentication authentication) {
+
+        System.out.println("🔀 Bulk reschedule requested by " + authentication.getName() + " for doctor "
+                + request.getDoctorId() + " from " + request.getFromDate() + " to " + request.getToDate());
+
+        try {
+            RescheduleReportDTO report = bulkRescheduleService.reschedule(request);
+            return ResponseEntity.ok(report);
+        } catch (RuntimeException e) {
+            System.err.println("❌ Error rescheduling appointments: " + e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @PutMapping("/{id}/check-in")
+    public ResponseEntity<?> checkIn(
+            @PathVariable Long id,
+            Authentication authentication) {
+
+        String username = authentication.getName();
+        System.out.println("🪑 Checking in appointment " + id + " by user: " + username);
+
+        try {
+            AppointmentResponseDTO checkedIn = appointmentService.checkIn(id, username);
+            return ResponseEntity.ok(checkedIn);
+        } catch (RuntimeException e) {
+            System.err.println("❌ Error checking in appointment: " + e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // ✅ ADDED: Today's waiting room for a doctor, in arrival order (served from memory)
+    @GetMapping("/doctor/{doctorId}/queue")
+    public ResponseEntity<?> getWaitingRoom(
+            @PathVariable Long doctorId,
+            Authentication authentication) {
+
+        try {
+            appointmentService.checkWaitingRoomAccess(doctorId, authentication.getName());
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
+        }
+        WaitingRoomDTO waitingRoom = waitingRoomService.getWaitingRoom(doctorId);
+        return ResponseEntity.ok(waitingRoom);
+    }
+
+    // ✅ ADDED: Live waiting-room board (SSE). Sends the queue on connect, then after every
+    // check-in, completion or cancellation; replaces reloading /doctor/{doctorId}
+    @GetMapping(value = "/doctor/{doctorId}/queue/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamWaitingRoom(
+            @PathVariable Long doctorId,
+            Authentication authentication) {
+
+        try {
+            appointmentService.checkWaitingRoomAccess(doctorId, authentication.getName());
+        } catch (RuntimeException e) {
+            System.err.println("❌ Waiting room stream refused: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(waitingRoomService.subscribe(doctorId));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<?> updateAppointment(
             @PathVariable Long id,
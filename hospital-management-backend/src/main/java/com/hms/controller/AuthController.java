@@ -1,15 +1,13 @@
 package com.hms.controller;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -22,6 +20,7 @@ import com.hms.dto.JwtResponse;
 import com.hms.dto.RegistrationRequest;
 import com.hms.entity.Doctor;
 import com.hms.entity.Patient;
+import com.hms.entity.Role;
 import com.hms.entity.User;
 import com.hms.repository.DoctorRepository;
 import com.hms.repository.PatientRepository;
@@ -45,15 +44,12 @@ public class AuthController {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
-    @Autowired
-    private AuthenticationManager authenticationManager;
-
-    @Autowired
-    private UserDetailsService userDetailsService;
-
     @Autowired
     private JwtUtil jwtUtil;
 
+    // Compared against when the username doesn't exist, so both failure paths cost one BCrypt check
+    private volatile String dummyHash;
+
     @PostMapping("/register")
     public ResponseEntity<String> registerUser(@RequestBody RegistrationRequest registrationRequest) {
         System.out.println("🔐 Registration attempt for user: " + registrationRequest.getUsername());
@@ -84,6 +80,10 @@ public class AuthController {
             user.setRoles(roles);
         } else {
             user.setRoles(registrationRequest.getRoles());
+            // ✅ ADDED: roles are stored as Role bits, unknown names cannot be persisted
+            if (user.getRoleMask() == 0) {
+                return ResponseEntity.badRequest().body("Unknown role(s): " + registrationRequest.getRoles());
+            }
         }
 
         User savedUser = userRepository.save(user);
@@ -105,9 +105,7 @@ public class AuthController {
      * Auto-create patient or doctor profile based on user role
      */
     private void autoCreateProfile(User user, RegistrationRequest request) {
-        Set<String> roles = user.getRoles();
-        
-        if (roles.contains("ROLE_PATIENT")) {
+        if (user.hasRole(Role.PATIENT)) {
             // Auto-create patient profile
             Patient patient = new Patient();
             patient.setName(user.getUsername()); // Use username as default name
@@ -118,7 +116,7 @@ public class AuthController {
             patientRepository.save(patient);
             System.out.println("✅ Auto-created patient profile for: " + user.getUsername());
             
-        } else if (roles.contains("ROLE_DOCTOR")) {
+        } else if (user.hasRole(Role.DOCTOR)) {
             // Auto-create doctor profile
             Doctor doctor = new Doctor();
             doctor.setName(user.getUsername()); // Use username as default name
@@ -134,32 +132,37 @@ public class AuthController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<JwtResponse> createAuthenticationToken(@RequestBody JwtRequest authenticationRequest) throws Exception {
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        authenticationRequest.username(),
-                        authenticationRequest.password()
-                )
-        );
+    public ResponseEntity<JwtResponse> createAuthenticationToken(@RequestBody JwtRequest authenticationRequest) {
+        // ✅ Single pass: one query loads the user, roles and profile ids
+        List<Object[]> rows = userRepository.findLoginAccount(authenticationRequest.username());
 
-        final UserDetails userDetails = userDetailsService.loadUserByUsername(authenticationRequest.username());
-
-        // Generate JWT token
-        String token = jwtUtil.generateToken(userDetails);
+        if (rows.isEmpty()) {
+            passwordEncoder.matches(String.valueOf(authenticationRequest.password()), dummyHash());
+            throw new BadCredentialsException("Bad credentials");
+        }
 
-        // Collect roles for frontend
-        var roles = userDetails.getAuthorities()
-                .stream()
-                .map(a -> a.getAuthority())
-                .collect(Collectors.toList());
+        Object[] row = rows.get(0);
+        User user = (User) row[0];
+        if (authenticationRequest.password() == null
+                || !passwordEncoder.matches(authenticationRequest.password(), user.getPassword())) {
+            throw new BadCredentialsException("Bad credentials");
+        }
 
-        // ✅ FIX: Get the actual User entity to include ID
-        User user = userRepository.findByUsername(authenticationRequest.username())
-                .orElseThrow(() -> new RuntimeException("User not found after authentication"));
+        List<String> roles = new ArrayList<>(user.getRoles());
+        String token = jwtUtil.generateToken(user.getUsername(), roles, user.getRoleMask());
 
         System.out.println("✅ Login successful for user: " + user.getUsername() + " with ID: " + user.getId());
 
-        // ✅ FIX: Return complete user info including ID
-        return ResponseEntity.ok(new JwtResponse(token, user.getId(), user.getUsername(), roles));
+        JwtResponse response = new JwtResponse(token, user.getId(), user.getUsername(), roles);
+        response.setDoctorId((Long) row[1]);
+        response.setPatientId((Long) row[2]);
+        return ResponseEntity.ok(response);
+    }
+
+    private String dummyHash() {
+        if (dummyHash == null) {
+            dummyHash = passwordEncoder.encode("not-a-real-password");
+        }
+        return dummyHash;
     }
-}
\ No newline at end of file
+}
@@ -2,6 +2,7 @@ package com.hms.controller;
 
 import java.util.List;
 
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -12,10 +13,16 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import com.hms.dto.DoctorSummaryDTO;
+import com.hms.dto.PageResultDTO;
 import com.hms.entity.Doctor;
+import com.hms.service.DoctorDirectoryIndex;
 import com.hms.service.DoctorService;
+import com.hms.service.ResourceVersionService;
 
 @RestController
 @RequestMapping("/api/doctors") // ✅ FIXED: Added /api
@@ -23,9 +30,14 @@ import com.hms.service.DoctorService;
 public class DoctorController {
 
     private final DoctorService doctorService;
+    private final ResourceVersionService resourceVersionService;
+    private final DoctorDirectoryIndex doctorDirectoryIndex;
 
-    public DoctorController(DoctorService doctorService) {
+    public DoctorController(DoctorService doctorService, ResourceVersionService resourceVersionService,
+                            DoctorDirectoryIndex doctorDirectoryIndex) {
         this.doctorService = doctorService;
+        this.resourceVersionService = resourceVersionService;
+        this.doctorDirectoryIndex = doctorDirectoryIndex;
     }
 
     // ✅ ADD THIS: Get current doctor's profile
@@ -71,20 +83,54 @@ public class DoctorController {
     }
 
     @GetMapping
-    public ResponseEntity<?> getAllDoctors(Authentication authentication) {
+    public ResponseEntity<?> getAllDoctors(Authentication authentication, WebRequest webRequest) {
+        // 503 while the directory loads, before any ETag is compared or handed out
+        doctorDirectoryIndex.requireReady();
         try {
             String username = authentication.getName();
             System.out.println("📋 Fetching doctors for user: " + username);
+
+            // ✅ Conditional GET: answer 304 from the version counter without touching the DB
+            String eTag = resourceVersionService.doctorsETag();
+            if (webRequest.checkNotModified(eTag, resourceVersionService.doctorsLastModified())) {
+                return null;
+            }
             
-            List<Doctor> doctors = doctorService.getAllDoctors();
+            // ✅ Summaries straight from the directory index; full profiles via GET /{id}
+            List<DoctorSummaryDTO> doctors = doctorDirectoryIndex.all();
             System.out.println("✅ Found " + doctors.size() + " doctors");
-            return ResponseEntity.ok(doctors);
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(eTag).body(doctors);
         } catch (Exception e) {
             System.err.println("❌ Error fetching doctors: " + e.getMessage());
             return ResponseEntity.badRequest().body("Failed to load doctors: " + e.getMessage());
         }
     }
 
+    /**
+     * Paged directory search with slim summaries, e.g.
+     * /api/doctors/search?specialization=Cardiology&language=Spanish&page=0&size=20
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> searchDoctors(@RequestParam(required = false) String specialization,
+                                           @RequestParam(required = false) String department,
+                                           @RequestParam(required = false) String language,
+                                           @RequestParam(required = false) String name,
+                                           @RequestParam(defaultValue = "0") int page,
+                                           @RequestParam(defaultValue = "20") int size,
+                                           WebRequest webRequest) {
+        if (page < 0 || size < 1 || size > 100) {
+            return ResponseEntity.badRequest().body("page must be >= 0 and size between 1 and 100");
+        }
+        doctorDirectoryIndex.requireReady();
+        // Same version counter as the full directory; the ETag covers every filter combination
+        String eTag = resourceVersionService.doctorsETag();
+        if (webRequest.checkNotModified(eTag, resourceVersionService.doctorsLastModified())) {
+            return null;
+        }
+        PageResultDTO<DoctorSummaryDTO> result = doctorDirectoryIndex.search(specialization, department, language, name, page, size);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(eTag).body(result);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<?> getDoctorById(@PathVariable Long id, Authentication authentication) {
         try {
@@ -1,8 +1,10 @@
 package com.hms.controller;
 
+import java.io.InputStream;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -11,13 +13,24 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.hms.dto.CursorPageDTO;
+import com.hms.dto.DoctorPatientDTO;
+import com.hms.dto.ImportReportDTO;
+import com.hms.dto.PageResultDTO;
+import com.hms.dto.PatientSearchResultDTO;
+import com.hms.dto.PatientSummaryDTO;
 import com.hms.entity.Patient;
 import com.hms.entity.User;
 import com.hms.repository.PatientRepository;
 import com.hms.repository.UserRepository;
+import com.hms.service.DoctorService;
+import com.hms.service.PatientImportService;
+import com.hms.service.PatientSearchIndex;
 import com.hms.service.PatientService;
 
 @RestController
@@ -27,11 +40,19 @@ public class PatientController {
     private final PatientService patientService;
     private final UserRepository userRepository;
     private final PatientRepository patientRepository;
+    private final PatientImportService patientImportService;
+    private final PatientSearchIndex patientSearchIndex;
+    private final DoctorService doctorService;
 
-    public PatientController(PatientService patientService, UserRepository userRepository, PatientRepository patientRepository) {
+    public PatientController(PatientService patientService, UserRepository userRepository, PatientRepository patientRepository,
+                             PatientImportService patientImportService, PatientSearchIndex patientSearchIndex,
+                             DoctorService doctorService) {
         this.patientService = patientService;
         this.userRepository = userRepository;
         this.patientRepository = patientRepository;
+        this.patientImportService = patientImportService;
+        this.patientSearchIndex = patientSearchIndex;
+        this.doctorService = doctorService;
     }
 
     @PostMapping
@@ -86,13 +107,40 @@ public class PatientController {
         }
     }
 
+    /**
+     * Bulk import (admin only). Body is streamed: text/csv with a header row, or
+     * application/x-ndjson with one patient object per line. Re-POST with the
+     * returned jobId to resume an interrupted import.
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<?> importPatients(InputStream body,
+                                            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                            @RequestParam(required = false) String jobId,
+                                            Authentication authentication) {
+        boolean isAdmin = authentication.getAuthorities().stream()
+                .anyMatch(auth -> auth.getAuthority().equals("ROLE_ADMIN"));
+        if (!isAdmin) {
+            return ResponseEntity.status(403).body("Only admins can import patients");
+        }
+        try {
+            boolean ndjson = contentType.toLowerCase().startsWith("application/x-ndjson");
+            ImportReportDTO report = patientImportService.importPatients(body, ndjson, jobId, authentication.getName());
+            return ResponseEntity.ok(report);
+        } catch (Exception e) {
+            System.err.println("❌ Error importing patients: " + e.getMessage());
+            return ResponseEntity.badRequest().body("Failed to import patients: " + e.getMessage());
+        }
+    }
+
     @GetMapping
     public ResponseEntity<?> getAllPatients(Authentication authentication) {
         try {
             String username = authentication.getName();
             System.out.println("📋 Fetching patients for user: " + username);
             
-            List<Patient> patients = patientService.getAllPatients(username);
+            // ✅ Summary projection: the list screen only shows id, name, age and gender
+            // Doctors get the patients they have appointments with; others via /search
+            List<PatientSummaryDTO> patients = patientService.getPatientSummaries(username);
             System.out.println("✅ Found " + patients.size() + " patients");
             return ResponseEntity.ok(patients);
         } catch (Exception e) {
@@ -101,6 +149,53 @@ public class PatientController {
         }
     }
 
+    /**
+     * Search by name (prefix, typo tolerant), email or phone. Admins and doctors only.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> searchPatients(@RequestParam("q") String query,
+                                            @RequestParam(defaultValue = "0") int page,
+                                            @RequestParam(defaultValue = "20") int size,
+                                            Authentication authentication) {
+        boolean canSearch = authentication.getAuthorities().stream()
+                .anyMatch(auth -> auth.getAuthority().equals("ROLE_ADMIN") || auth.getAuthority().equals("ROLE_DOCTOR"));
+        if (!canSearch) {
+            return ResponseEntity.status(403).body("Only admins and doctors can search patients");
+        }
+        if (page < 0 || size < 1 || size > 100) {
+            return ResponseEntity.badRequest().body("page must be >= 0 and size between 1 and 100");
+        }
+        PageResultDTO<PatientSearchResultDTO> result = patientSearchIndex.search(query, page, size);
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Current doctor's patients with last visit and visit count. Keyset-paged:
+     * pass the returned nextCursor as ?after= for the next page.
+     */
+    @GetMapping("/my-patients")
+    public ResponseEntity<?> getMyPatients(@RequestParam(required = false) String after,
+                                           @RequestParam(defaultValue = "50") int size,
+                                           Authentication authentication) {
+        boolean isDoctor = authentication.getAuthorities().stream()
+                .anyMatch(auth -> auth.getAuthority().equals("ROLE_DOCTOR"));
+        if (!isDoctor) {
+            return ResponseEntity.status(403).body("Only doctors have a patient panel");
+        }
+        if (size < 1 || size > 200) {
+            return ResponseEntity.badRequest().body("size must be between 1 and 200");
+        }
+        try {
+            Long doctorId = doctorService.getCurrentDoctor(authentication.getName()).getId();
+            CursorPageDTO<DoctorPatientDTO> page = patientService.getDoctorPatients(doctorId, after, size);
+            System.out.println("✅ Doctor " + doctorId + " panel page: " + page.getContent().size() + " patients");
+            return ResponseEntity.ok(page);
+        } catch (Exception e) {
+            System.err.println("❌ Error fetching doctor's patients: " + e.getMessage());
+            return ResponseEntity.badRequest().body("Failed to load patients: " + e.getMessage());
+        }
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<?> getPatientById(@PathVariable Long id, Authentication authentication) {
         try {
@@ -0,0 +1,100 @@
+package com.hms.controller;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.hms.dto.DoctorUtilizationDTO;
+import com.hms.dto.ScheduleReconciliationDTO;
+import com.hms.dto.StatsRefreshDTO;
+import com.hms.service.DoctorStatsService;
+import com.hms.service.ScheduleReconciler;
+
+// ✅ ADDED: Management reports, read from the doctor_daily_stats rollup (admin only)
+@RestController
+@RequestMapping("/api/reports")
+@CrossOrigin(origins = "*")
+public class ReportController {
+
+    private final DoctorStatsService doctorStatsService;
+    private final ScheduleReconciler scheduleReconciler;
+
+    public ReportController(DoctorStatsService doctorStatsService, ScheduleReconciler scheduleReconciler) {
+        this.doctorStatsService = doctorStatsService;
+        this.scheduleReconciler = scheduleReconciler;
+    }
+
+    // One row per doctor and day; optional doctorId narrows to one doctor
+    @GetMapping("/doctor-utilization")
+    public ResponseEntity<?> getDailyUtilization(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long doctorId) {
+        try {
+            List<DoctorUtilizationDTO> rows = doctorStatsService.getDaily(doctorId, from, to);
+            return ResponseEntity.ok(rows);
+        } catch (RuntimeException e) {
+            System.err.println("❌ Error fetching utilization report: " + e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // One row per doctor with totals over the range
+    @GetMapping("/doctor-utilization/summary")
+    public ResponseEntity<?> getUtilizationSummary(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            List<DoctorUtilizationDTO> totals = doctorStatsService.getTotals(from, to);
+            return ResponseEntity.ok(totals);
+        } catch (RuntimeException e) {
+            System.err.println("❌ Error fetching utilization summary: " + e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Backfill or repair: recomputes the rollup for every day in range
+    @PostMapping("/doctor-utilization/refresh")
+    public ResponseEntity<?> refreshUtilization(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        System.out.println("📊 Refreshing doctor stats from " + from + " to " + to);
+        try {
+            int days = doctorStatsService.refreshRange(from, to);
+            return ResponseEntity.ok(new StatsRefreshDTO(from, to, days));
+        } catch (RuntimeException e) {
+            System.err.println("❌ Error refreshing doctor stats: " + e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // ✅ Drift between schedule booking counters and live appointments, as found by the last run
+    @GetMapping("/schedule-bookings/drift")
+    public ResponseEntity<?> getBookingDrift() {
+        ScheduleReconciliationDTO report = scheduleReconciler.getLastReport();
+        if (report == null) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.ok(report);
+    }
+
+    // Recount currentBookings / isBooked for every schedule; dryRun=true only reports the drift
+    @PostMapping("/schedule-bookings/reconcile")
+    public ResponseEntity<?> reconcileBookings(@RequestParam(defaultValue = "true") boolean dryRun) {
+        System.out.println("🔧 Reconciling schedule bookings" + (dryRun ? " (dry run)" : ""));
+        try {
+            return ResponseEntity.ok(scheduleReconciler.reconcile(dryRun));
+        } catch (RuntimeException e) {
+            System.err.println("❌ Error reconciling schedule bookings: " + e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
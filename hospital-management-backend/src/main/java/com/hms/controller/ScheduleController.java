@@ -4,6 +4,8 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -15,11 +17,15 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.hms.dto.ScheduleRequestDTO;
 import com.hms.dto.ScheduleResponseDTO;
 import com.hms.entity.DoctorSchedule;
 import com.hms.service.DoctorScheduleService;
+import com.hms.service.ResourceVersionService;
+import com.hms.service.SlotAvailabilityBroadcaster;
 
 @RestController
 @RequestMapping("/api/schedules")
@@ -29,6 +35,12 @@ public class ScheduleController {
     @Autowired
     private DoctorScheduleService scheduleService;
 
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+
+    @Autowired
+    private SlotAvailabilityBroadcaster slotAvailabilityBroadcaster;
+
     // Admin creates schedule for any doctor
     @PostMapping("/admin")
     public ResponseEntity<ScheduleResponseDTO> createScheduleByAdmin(@RequestBody ScheduleRequestDTO scheduleRequest) {
@@ -57,24 +69,39 @@ public class ScheduleController {
 
     // Get available slots for patients - ✅ FIXED: Now accepts doctorId directly
     @GetMapping("/doctor/{doctorId}/available")
-    public ResponseEntity<List<ScheduleResponseDTO>> getAvailableSchedules(@PathVariable Long doctorId) {
+    public ResponseEntity<List<ScheduleResponseDTO>> getAvailableSchedules(@PathVariable Long doctorId, WebRequest webRequest) {
         System.out.println("🔍 PATIENT REQUEST: Looking for schedules for doctor ID: " + doctorId);
+        String eTag = resourceVersionService.schedulesETag(doctorId);
+        if (webRequest.checkNotModified(eTag, resourceVersionService.schedulesLastModified(doctorId))) {
+            return null;
+        }
         List<DoctorSchedule> schedules = scheduleService.getAvailableSchedulesForDoctor(doctorId);
         List<ScheduleResponseDTO> responseDTOs = schedules.stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
         System.out.println("✅ Returning " + responseDTOs.size() + " available schedules for doctor ID: " + doctorId);
-        return ResponseEntity.ok(responseDTOs);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(eTag).body(responseDTOs);
+    }
+
+    // ✅ ADDED: Live availability (SSE). Sends the current list on connect, then again after every
+    // booking, cancellation or edit on this doctor's schedules; replaces polling the endpoint above
+    @GetMapping(value = "/doctor/{doctorId}/available/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAvailableSchedules(@PathVariable Long doctorId) {
+        return slotAvailabilityBroadcaster.subscribe(doctorId);
     }
 
     // Get all schedules for admin view - ✅ FIXED: Now accepts doctorId directly
     @GetMapping("/doctor/{doctorId}")
-    public ResponseEntity<List<ScheduleResponseDTO>> getAllSchedulesForDoctor(@PathVariable Long doctorId) {
+    public ResponseEntity<List<ScheduleResponseDTO>> getAllSchedulesForDoctor(@PathVariable Long doctorId, WebRequest webRequest) {
+        String eTag = resourceVersionService.schedulesETag(doctorId);
+        if (webRequest.checkNotModified(eTag, resourceVersionService.schedulesLastModified(doctorId))) {
+            return null;
+        }
         List<DoctorSchedule> schedules = scheduleService.getSchedulesForDoctor(doctorId);
         List<ScheduleResponseDTO> responseDTOs = schedules.stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
-        return ResponseEntity.ok(responseDTOs);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(eTag).body(responseDTOs);
     }
 
     // Get doctor's own schedules - ✅ FIXED: Now accepts doctorId directly
@@ -158,19 +185,6 @@ public class ScheduleController {
 
     // Helper method to convert Entity to Response DTO
     private ScheduleResponseDTO convertToDTO(DoctorSchedule schedule) {
-        ScheduleResponseDTO dto = new ScheduleResponseDTO();
-        dto.setId(schedule.getId());
-        dto.setDoctorId(schedule.getDoctor().getId());
-        dto.setDoctorName(schedule.getDoctor().getName());
-        dto.setSpecialization(schedule.getDoctor().getSpecialization());
-        dto.setAvailableDate(schedule.getAvailableDate());
-        dto.setStartTime(schedule.getStartTime());
-        dto.setEndTime(schedule.getEndTime());
-        dto.setIsBooked(schedule.getIsBooked());
-        dto.setCreatedBy(schedule.getCreatedBy());
-        dto.setSlotDuration(schedule.getSlotDuration());
-        dto.setMaxPatients(schedule.getMaxPatients());
-        
-        return dto;
+        return scheduleService.toResponseDTO(schedule);
     }
 }
\ No newline at end of file
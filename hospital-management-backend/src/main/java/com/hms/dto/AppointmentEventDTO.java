@@ -0,0 +1,79 @@
+package com.hms.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Payload of appointment lifecycle events (outbox_event.payload as JSON).
+ * eventId is the outbox row id; subscribers use it to ignore redeliveries.
+ */
+public class AppointmentEventDTO {
+
+    public static final String BOOKED = "APPOINTMENT_BOOKED";
+    public static final String CANCELLED = "APPOINTMENT_CANCELLED";
+    public static final String COMPLETED = "APPOINTMENT_COMPLETED";
+    public static final String PRESCRIPTION_ISSUED = "PRESCRIPTION_ISSUED";
+    public static final String RESCHEDULED = "APPOINTMENT_RESCHEDULED";
+
+    private Long eventId;
+    private String type;
+    private Long appointmentId;
+    private Long patientId;
+    private Long doctorId;
+    private Long scheduleId;
+    private Long prescriptionId;
+    private LocalDate appointmentDate;
+    private LocalTime appointmentTime;
+    private LocalDateTime occurredAt;
+
+    // ✅ ADDED: Where a RESCHEDULED appointment was before the move (null for other types)
+    private Long previousDoctorId;
+    private Long previousScheduleId;
+    private LocalDate previousAppointmentDate;
+    private LocalTime previousAppointmentTime;
+
+    public AppointmentEventDTO() {}
+
+    public Long getEventId() { return eventId; }
+    public void setEventId(Long eventId) { this.eventId = eventId; }
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+
+    public Long getAppointmentId() { return appointmentId; }
+    public void setAppointmentId(Long appointmentId) { this.appointmentId = appointmentId; }
+
+    public Long getPatientId() { return patientId; }
+    public void setPatientId(Long patientId) { this.patientId = patientId; }
+
+    public Long getDoctorId() { return doctorId; }
+    public void setDoctorId(Long doctorId) { this.doctorId = doctorId; }
+
+    public Long getScheduleId() { return scheduleId; }
+    public void setScheduleId(Long scheduleId) { this.scheduleId = scheduleId; }
+
+    public Long getPrescriptionId() { return prescriptionId; }
+    public void setPrescriptionId(Long prescriptionId) { this.prescriptionId = prescriptionId; }
+
+    public LocalDate getAppointmentDate() { return appointmentDate; }
+    public void setAppointmentDate(LocalDate appointmentDate) { this.appointmentDate = appointmentDate; }
+
+    public LocalTime getAppointmentTime() { return appointmentTime; }
+    public void setAppointmentTime(LocalTime appointmentTime) { this.appointmentTime = appointmentTime; }
+
+    public LocalDateTime getOccurredAt() { return occurredAt; }
+    public void setOccurredAt(LocalDateTime occurredAt) { this.occurredAt = occurredAt; }
+
+    public Long getPreviousDoctorId() { return previousDoctorId; }
+    public void setPreviousDoctorId(Long previousDoctorId) { this.previousDoctorId = previousDoctorId; }
+
+    public Long getPreviousScheduleId() { return previousScheduleId; }
+    public void setPreviousScheduleId(Long previousScheduleId) { this.previousScheduleId = previousScheduleId; }
+
+    public LocalDate getPreviousAppointmentDate() { return previousAppointmentDate; }
+    public void setPreviousAppointmentDate(LocalDate previousAppointmentDate) { this.previousAppointmentDate = previousAppointmentDate; }
+
+    public LocalTime getPreviousAppointmentTime() { return previousAppointmentTime; }
+    public void setPreviousAppointmentTime(LocalTime previousAppointmentTime) { this.previousAppointmentTime = previousAppointmentTime; }
+}
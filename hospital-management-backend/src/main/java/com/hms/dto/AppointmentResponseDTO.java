@@ -18,6 +18,7 @@ public class AppointmentResponseDTO {
     private String status;
     private String reason;
     private LocalDateTime createdDate;
+    private LocalDateTime checkedInAt;
 
     // Constructors
     public AppointmentResponseDTO() {}
@@ -41,6 +42,22 @@ public class AppointmentResponseDTO {
         this.createdDate = createdDate;
     }
 
+    // ✅ ADDED: Summary query form; a booked sub-slot (slotTime) narrows the window to one slotDuration
+    public AppointmentResponseDTO(Long id, Long patientId, String patientName, Long doctorId,
+                                 String doctorName, String doctorSpecialization, Long scheduleId,
+                                 LocalDate appointmentDate, LocalTime startTime, LocalTime endTime,
+                                 LocalTime slotTime, Integer slotDuration,
+                                 String status, String reason, LocalDateTime createdDate,
+                                 LocalDateTime checkedInAt) {
+        this(id, patientId, patientName, doctorId, doctorName, doctorSpecialization, scheduleId,
+             appointmentDate, startTime, endTime, status, reason, createdDate);
+        this.checkedInAt = checkedInAt;
+        if (slotTime != null && slotDuration != null && slotDuration > 0) {
+            this.startTime = slotTime;
+            this.endTime = slotTime.plusMinutes(slotDuration);
+        }
+    }
+
     // Getters and setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -81,6 +98,9 @@ public class AppointmentResponseDTO {
     public LocalDateTime getCreatedDate() { return createdDate; }
     public void setCreatedDate(LocalDateTime createdDate) { this.createdDate = createdDate; }
 
+    public LocalDateTime getCheckedInAt() { return checkedInAt; }
+    public void setCheckedInAt(LocalDateTime checkedInAt) { this.checkedInAt = checkedInAt; }
+
     @Override
     public String toString() {
         return "AppointmentResponseDTO{" +
@@ -0,0 +1,25 @@
+package com.hms.dto;
+
+/**
+ * Content of an appointment_archive row: the appointment as the API returned it,
+ * plus its prescription (with medications) if one was issued.
+ */
+public class ArchivedAppointmentDTO {
+    private AppointmentResponseDTO appointment;
+    private PrescriptionResponseDTO prescription;
+
+    // Constructors
+    public ArchivedAppointmentDTO() {}
+
+    public ArchivedAppointmentDTO(AppointmentResponseDTO appointment, PrescriptionResponseDTO prescription) {
+        this.appointment = appointment;
+        this.prescription = prescription;
+    }
+
+    // Getters and Setters
+    public AppointmentResponseDTO getAppointment() { return appointment; }
+    public void setAppointment(AppointmentResponseDTO appointment) { this.appointment = appointment; }
+
+    public PrescriptionResponseDTO getPrescription() { return prescription; }
+    public void setPrescription(PrescriptionResponseDTO prescription) { this.prescription = prescription; }
+}
@@ -0,0 +1,53 @@
+package com.hms.dto;
+
+import java.time.LocalDate;
+
+/**
+ * A patient as seen from one doctor's panel, with visit statistics for that doctor.
+ */
+public class DoctorPatientDTO {
+    private Long id;
+    private String name;
+    private int age;
+    private String gender;
+    private LocalDate lastVisitDate;   // latest COMPLETED appointment with this doctor, archived ones included
+    private long visitCount;           // COMPLETED appointments with this doctor, archived ones included
+    private long appointmentCount;     // all appointments with this doctor, archived ones included
+
+    // Constructors
+    public DoctorPatientDTO() {}
+
+    // Used by the JPQL constructor expression in PatientRepository
+    public DoctorPatientDTO(Long id, String name, int age, String gender,
+                            LocalDate lastVisitDate, Long visitCount, Long appointmentCount) {
+        this.id = id;
+        this.name = name;
+        this.age = age;
+        this.gender = gender;
+        this.lastVisitDate = lastVisitDate;
+        this.visitCount = visitCount != null ? visitCount : 0;
+        this.appointmentCount = appointmentCount != null ? appointmentCount : 0;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public int getAge() { return age; }
+    public void setAge(int age) { this.age = age; }
+
+    public String getGender() { return gender; }
+    public void setGender(String gender) { this.gender = gender; }
+
+    public LocalDate getLastVisitDate() { return lastVisitDate; }
+    public void setLastVisitDate(LocalDate lastVisitDate) { this.lastVisitDate = lastVisitDate; }
+
+    public long getVisitCount() { return visitCount; }
+    public void setVisitCount(long visitCount) { this.visitCount = visitCount; }
+
+    public long getAppointmentCount() { return appointmentCount; }
+    public void setAppointmentCount(long appointmentCount) { this.appointmentCount = appointmentCount; }
+}
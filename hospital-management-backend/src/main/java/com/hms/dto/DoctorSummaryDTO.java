@@ -0,0 +1,63 @@
+package com.hms.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Slim doctor card for directory listings; no bio, awards or qualifications text.
+ */
+public class DoctorSummaryDTO {
+    private Long id;
+    private String name;
+    private String specialization;
+    private String department;
+    private String languagesSpoken;
+    private String contact;
+    private Integer experienceYears;
+    private BigDecimal consultationFee;
+    private String officeLocation;
+
+    // Constructors
+    public DoctorSummaryDTO() {}
+
+    // Used by JPQL constructor expressions in DoctorRepository
+    public DoctorSummaryDTO(Long id, String name, String specialization, String department, String languagesSpoken,
+                            String contact, Integer experienceYears, BigDecimal consultationFee, String officeLocation) {
+        this.id = id;
+        this.name = name;
+        this.specialization = specialization;
+        this.department = department;
+        this.languagesSpoken = languagesSpoken;
+        this.contact = contact;
+        this.experienceYears = experienceYears;
+        this.consultationFee = consultationFee;
+        this.officeLocation = officeLocation;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getSpecialization() { return specialization; }
+    public void setSpecialization(String specialization) { this.specialization = specialization; }
+
+    public String getDepartment() { return department; }
+    public void setDepartment(String department) { this.department = department; }
+
+    public String getLanguagesSpoken() { return languagesSpoken; }
+    public void setLanguagesSpoken(String languagesSpoken) { this.languagesSpoken = languagesSpoken; }
+
+    public String getContact() { return contact; }
+    public void setContact(String contact) { this.contact = contact; }
+
+    public Integer getExperienceYears() { return experienceYears; }
+    public void setExperienceYears(Integer experienceYears) { this.experienceYears = experienceYears; }
+
+    public BigDecimal getConsultationFee() { return consultationFee; }
+    public void setConsultationFee(BigDecimal consultationFee) { this.consultationFee = consultationFee; }
+
+    public String getOfficeLocation() { return officeLocation; }
+    public void setOfficeLocation(String officeLocation) { this.officeLocation = officeLocation; }
+}
@@ -0,0 +1,88 @@
+package com.hms.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Utilization and appointment outcomes for one doctor over [fromDate, toDate]
+ * (a single day for daily rows). Rates are fractions, null when nothing was counted.
+ */
+public class DoctorUtilizationDTO {
+    private Long doctorId;
+    private String doctorName;
+    private LocalDate fromDate;
+    private LocalDate toDate;
+    private long schedules;
+    private long capacity;
+    private long booked;
+    private long appointments;
+    private long scheduled;
+    private long completed;
+    private long cancelled;
+
+    // Constructors
+    public DoctorUtilizationDTO() {}
+
+    // Used by JPQL constructor expressions in DoctorDailyStatsRepository
+    public DoctorUtilizationDTO(Long doctorId, String doctorName, LocalDate fromDate, LocalDate toDate,
+                                Long schedules, Long capacity, Long booked, Long appointments,
+                                Long scheduled, Long completed, Long cancelled) {
+        this.doctorId = doctorId;
+        this.doctorName = doctorName;
+        this.fromDate = fromDate;
+        this.toDate = toDate;
+        this.schedules = valueOf(schedules);
+        this.capacity = valueOf(capacity);
+        this.booked = valueOf(booked);
+        this.appointments = valueOf(appointments);
+        this.scheduled = valueOf(scheduled);
+        this.completed = valueOf(completed);
+        this.cancelled = valueOf(cancelled);
+    }
+
+    private static long valueOf(Long value) {
+        return value != null ? value : 0L;
+    }
+
+    private static Double ratio(long part, long whole) {
+        return whole > 0 ? (double) part / whole : null;
+    }
+
+    // Derived rates
+    public Double getUtilization() { return ratio(booked, capacity); }
+    public Double getCompletionRate() { return ratio(completed, appointments); }
+    public Double getCancellationRate() { return ratio(cancelled, appointments); }
+
+    // Getters and Setters
+    public Long getDoctorId() { return doctorId; }
+    public void setDoctorId(Long doctorId) { this.doctorId = doctorId; }
+
+    public String getDoctorName() { return doctorName; }
+    public void setDoctorName(String doctorName) { this.doctorName = doctorName; }
+
+    public LocalDate getFromDate() { return fromDate; }
+    public void setFromDate(LocalDate fromDate) { this.fromDate = fromDate; }
+
+    public LocalDate getToDate() { return toDate; }
+    public void setToDate(LocalDate toDate) { this.toDate = toDate; }
+
+    public long getSchedules() { return schedules; }
+    public void setSchedules(long schedules) { this.schedules = schedules; }
+
+    public long getCapacity() { return capacity; }
+    public void setCapacity(long capacity) { this.capacity = capacity; }
+
+    public long getBooked() { return booked; }
+    public void setBooked(long booked) { this.booked = booked; }
+
+    public long getAppointments() { return appointments; }
+    public void setAppointments(long appointments) { this.appointments = appointments; }
+
+    public long getScheduled() { return scheduled; }
+    public void setScheduled(long scheduled) { this.scheduled = scheduled; }
+
+    public long getCompleted() { return completed; }
+    public void setCompleted(long completed) { this.completed = completed; }
+
+    public long getCancelled() { return cancelled; }
+    public void setCancelled(long cancelled) { this.cancelled = cancelled; }
+}
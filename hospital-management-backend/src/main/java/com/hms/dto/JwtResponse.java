@@ -7,6 +7,8 @@ public class JwtResponse {
     private Long id;           // ✅ ADD THIS
     private String username;   // ✅ ADD THIS
     private List<String> roles;
+    private Long doctorId;     // set when the user has a doctor profile
+    private Long patientId;    // set when the user has a patient profile
 
     // Constructor with all fields
     public JwtResponse(String token, Long id, String username, List<String> roles) {
@@ -59,4 +61,20 @@ public class JwtResponse {
     public void setRoles(List<String> roles) {
         this.roles = roles;
     }
+
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    public void setDoctorId(Long doctorId) {
+        this.doctorId = doctorId;
+    }
+
+    public Long getPatientId() {
+        return patientId;
+    }
+
+    public void setPatientId(Long patientId) {
+        this.patientId = patientId;
+    }
 }
\ No newline at end of file
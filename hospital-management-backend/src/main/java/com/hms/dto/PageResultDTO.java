@@ -0,0 +1,35 @@
+package com.hms.dto;
+
+import java.util.List;
+
+/**
+ * One page of an offset-paged result. totalMatches may be capped by the producer.
+ */
+public class PageResultDTO<T> {
+    private List<T> content;
+    private int page;
+    private int size;
+    private long totalMatches;
+
+    public PageResultDTO() {}
+
+    public PageResultDTO(List<T> content, int page, int size, long totalMatches) {
+        this.content = content;
+        this.page = page;
+        this.size = size;
+        this.totalMatches = totalMatches;
+    }
+
+    // Getters and Setters
+    public List<T> getContent() { return content; }
+    public void setContent(List<T> content) { this.content = content; }
+
+    public int getPage() { return page; }
+    public void setPage(int page) { this.page = page; }
+
+    public int getSize() { return size; }
+    public void setSize(int size) { this.size = size; }
+
+    public long getTotalMatches() { return totalMatches; }
+    public void setTotalMatches(long totalMatches) { this.totalMatches = totalMatches; }
+}
@@ -0,0 +1,48 @@
+package com.hms.dto;
+
+public class PatientSearchResultDTO {
+    private Long id;
+    private String name;
+    private int age;
+    private String gender;
+    private Long userId;
+    private String email;
+    private String phoneNumber;
+
+    // Constructors
+    public PatientSearchResultDTO() {}
+
+    // Used by JPQL constructor expressions in PatientRepository
+    public PatientSearchResultDTO(Long id, String name, int age, String gender,
+                                  Long userId, String email, String phoneNumber) {
+        this.id = id;
+        this.name = name;
+        this.age = age;
+        this.gender = gender;
+        this.userId = userId;
+        this.email = email;
+        this.phoneNumber = phoneNumber;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public int getAge() { return age; }
+    public void setAge(int age) { this.age = age; }
+
+    public String getGender() { return gender; }
+    public void setGender(String gender) { this.gender = gender; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; }
+
+    public String getPhoneNumber() { return phoneNumber; }
+    public void setPhoneNumber(String phoneNumber) { this.phoneNumber = phoneNumber; }
+}
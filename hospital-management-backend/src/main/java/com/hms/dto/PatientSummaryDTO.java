@@ -0,0 +1,35 @@
+package com.hms.dto;
+
+/**
+ * Patient row for list screens; clinical history and insurance text stay in the detail read.
+ */
+public class PatientSummaryDTO {
+    private Long id;
+    private String name;
+    private int age;
+    private String gender;
+
+    // Constructors
+    public PatientSummaryDTO() {}
+
+    // Used by JPQL constructor expressions in PatientRepository
+    public PatientSummaryDTO(Long id, String name, int age, String gender) {
+        this.id = id;
+        this.name = name;
+        this.age = age;
+        this.gender = gender;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public int getAge() { return age; }
+    public void setAge(int age) { this.age = age; }
+
+    public String getGender() { return gender; }
+    public void setGender(String gender) { this.gender = gender; }
+}
@@ -41,6 +41,15 @@ public class PrescriptionResponseDTO {
         this.medications = medications;
     }
 
+    // Header only, used by JPQL constructor expressions; medications are attached afterwards
+    public PrescriptionResponseDTO(Long id, Long appointmentId, String patientName, String patientAge,
+                                  String patientGender, String doctorName, String doctorSpecialization,
+                                  String hospitalName, String diagnosis, String instructions,
+                                  LocalDate followUpDate, LocalDateTime createdDate) {
+        this(id, appointmentId, patientName, patientAge, patientGender, doctorName, doctorSpecialization,
+             hospitalName, diagnosis, instructions, followUpDate, createdDate, null);
+    }
+
     // Getters and setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -0,0 +1,59 @@
+package com.hms.dto;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * One checked-in patient on a doctor's waiting-room board. Entries are shared
+ * between queue snapshots, so they are not modified once queued.
+ */
+public class QueueEntryDTO {
+    private Long appointmentId;
+    private Long doctorId;
+    private Long patientId;
+    private String patientName;
+    private LocalTime appointmentTime;
+    private LocalDateTime checkedInAt;
+    private String reason;
+
+    // Constructors
+    public QueueEntryDTO() {}
+
+    // Used by JPQL constructor expressions in AppointmentRepository
+    public QueueEntryDTO(Long appointmentId, Long doctorId, Long patientId, String patientName,
+                         LocalTime appointmentTime, LocalDateTime checkedInAt, String reason) {
+        this.appointmentId = appointmentId;
+        this.doctorId = doctorId;
+        this.patientId = patientId;
+        this.patientName = patientName;
+        this.appointmentTime = appointmentTime;
+        this.checkedInAt = checkedInAt;
+        this.reason = reason;
+    }
+
+    // Getters and Setters
+    public Long getAppointmentId() { return appointmentId; }
+    public void setAppointmentId(Long appointmentId) { this.appointmentId = appointmentId; }
+
+    // Implied by the board the entry is on
+    @JsonIgnore
+    public Long getDoctorId() { return doctorId; }
+    public void setDoctorId(Long doctorId) { this.doctorId = doctorId; }
+
+    public Long getPatientId() { return patientId; }
+    public void setPatientId(Long patientId) { this.patientId = patientId; }
+
+    public String getPatientName() { return patientName; }
+    public void setPatientName(String patientName) { this.patientName = patientName; }
+
+    public LocalTime getAppointmentTime() { return appointmentTime; }
+    public void setAppointmentTime(LocalTime appointmentTime) { this.appointmentTime = appointmentTime; }
+
+    public LocalDateTime getCheckedInAt() { return checkedInAt; }
+    public void setCheckedInAt(LocalDateTime checkedInAt) { this.checkedInAt = checkedInAt; }
+
+    public String getReason() { return reason; }
+    public void setReason(String reason) { this.reason = reason; }
+}
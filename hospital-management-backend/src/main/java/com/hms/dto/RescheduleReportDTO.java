@@ -0,0 +1,156 @@
+package com.hms.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// ✅ ADDED: Outcome of a bulk reschedule; for a dry run, the moves that would be made
+public class RescheduleReportDTO {
+
+    private Long doctorId;
+    private LocalDate fromDate;
+    private LocalDate toDate;
+    private boolean dryRun;
+    private int affected;
+    private int movedToSameDoctor;
+    private int movedToOtherDoctor;
+    private int closedSchedules; // the doctor's schedules during the leave, closed for new bookings
+    private List<Move> moves = new ArrayList<>();
+    private List<Unmatched> unmatched = new ArrayList<>();
+
+    public RescheduleReportDTO() {}
+
+    public RescheduleReportDTO(Long doctorId, LocalDate fromDate, LocalDate toDate, boolean dryRun) {
+        this.doctorId = doctorId;
+        this.fromDate = fromDate;
+        this.toDate = toDate;
+        this.dryRun = dryRun;
+    }
+
+    public void addMove(Move move) {
+        moves.add(move);
+        if (doctorId.equals(move.getToDoctorId())) {
+            movedToSameDoctor++;
+        } else {
+            movedToOtherDoctor++;
+        }
+    }
+
+    public void addUnmatched(Long appointmentId, Long patientId, LocalDate date, LocalTime time, String reason) {
+        unmatched.add(new Unmatched(appointmentId, patientId, date, time, reason));
+    }
+
+    public static class Move {
+        private Long appointmentId;
+        private Long patientId;
+        private String patientName;
+        private Long fromScheduleId;
+        private LocalDate fromDate;
+        private LocalTime fromTime;
+        private Long toScheduleId;
+        private Long toDoctorId;
+        private String toDoctorName;
+        private LocalDate toDate;
+        private LocalTime toTime;
+
+        public Move() {}
+
+        public Long getAppointmentId() { return appointmentId; }
+        public void setAppointmentId(Long appointmentId) { this.appointmentId = appointmentId; }
+
+        public Long getPatientId() { return patientId; }
+        public void setPatientId(Long patientId) { this.patientId = patientId; }
+
+        public String getPatientName() { return patientName; }
+        public void setPatientName(String patientName) { this.patientName = patientName; }
+
+        public Long getFromScheduleId() { return fromScheduleId; }
+        public void setFromScheduleId(Long fromScheduleId) { this.fromScheduleId = fromScheduleId; }
+
+        public LocalDate getFromDate() { return fromDate; }
+        public void setFromDate(LocalDate fromDate) { this.fromDate = fromDate; }
+
+        public LocalTime getFromTime() { return fromTime; }
+        public void setFromTime(LocalTime fromTime) { this.fromTime = fromTime; }
+
+        public Long getToScheduleId() { return toScheduleId; }
+        public void setToScheduleId(Long toScheduleId) { this.toScheduleId = toScheduleId; }
+
+        public Long getToDoctorId() { return toDoctorId; }
+        public void setToDoctorId(Long toDoctorId) { this.toDoctorId = toDoctorId; }
+
+        public String getToDoctorName() { return toDoctorName; }
+        public void setToDoctorName(String toDoctorName) { this.toDoctorName = toDoctorName; }
+
+        public LocalDate getToDate() { return toDate; }
+        public void setToDate(LocalDate toDate) { this.toDate = toDate; }
+
+        public LocalTime getToTime() { return toTime; }
+        public void setToTime(LocalTime toTime) { this.toTime = toTime; }
+    }
+
+    public static class Unmatched {
+        private Long appointmentId;
+        private Long patientId;
+        private LocalDate date;
+        private LocalTime time;
+        private String reason;
+
+        public Unmatched() {}
+
+        public Unmatched(Long appointmentId, Long patientId, LocalDate date, LocalTime time, String reason) {
+            this.appointmentId = appointmentId;
+            this.patientId = patientId;
+            this.date = date;
+            this.time = time;
+            this.reason = reason;
+        }
+
+        public Long getAppointmentId() { return appointmentId; }
+        public void setAppointmentId(Long appointmentId) { this.appointmentId = appointmentId; }
+
+        public Long getPatientId() { return patientId; }
+        public void setPatientId(Long patientId) { this.patientId = patientId; }
+
+        public LocalDate getDate() { return date; }
+        public void setDate(LocalDate date) { this.date = date; }
+
+        public LocalTime getTime() { return time; }
+        public void setTime(LocalTime time) { this.time = time; }
+
+        public String getReason() { return reason; }
+        public void setReason(String reason) { this.reason = reason; }
+    }
+
+    // Getters and Setters
+    public Long getDoctorId() { return doctorId; }
+    public void setDoctorId(Long doctorId) { this.doctorId = doctorId; }
+
+    public LocalDate getFromDate() { return fromDate; }
+    public void setFromDate(LocalDate fromDate) { this.fromDate = fromDate; }
+
+    public LocalDate getToDate() { return toDate; }
+    public void setToDate(LocalDate toDate) { this.toDate = toDate; }
+
+    public boolean isDryRun() { return dryRun; }
+    public void setDryRun(boolean dryRun) { this.dryRun = dryRun; }
+
+    public int getAffected() { return affected; }
+    public void setAffected(int affected) { this.affected = affected; }
+
+    public int getClosedSchedules() { return closedSchedules; }
+    public void setClosedSchedules(int closedSchedules) { this.closedSchedules = closedSchedules; }
+
+    public int getMovedToSameDoctor() { return movedToSameDoctor; }
+    public void setMovedToSameDoctor(int movedToSameDoctor) { this.movedToSameDoctor = movedToSameDoctor; }
+
+    public int getMovedToOtherDoctor() { return movedToOtherDoctor; }
+    public void setMovedToOtherDoctor(int movedToOtherDoctor) { this.movedToOtherDoctor = movedToOtherDoctor; }
+
+    public List<Move> getMoves() { return moves; }
+    public void setMoves(List<Move> moves) { this.moves = moves; }
+
+    public List<Unmatched> getUnmatched() { return unmatched; }
+    public void setUnmatched(List<Unmatched> unmatched) { this.unmatched = unmatched; }
+}
@@ -0,0 +1,35 @@
+package com.hms.dto;
+
+import java.time.LocalDate;
+
+// ✅ ADDED: Bulk reschedule of a doctor's appointments (doctor leave), see BulkRescheduleService
+public class RescheduleRequestDTO {
+
+    private Long doctorId;
+    private LocalDate fromDate;
+    private LocalDate toDate;
+    private Boolean dryRun = true;          // report the moves without applying them
+    private Boolean sameDoctorOnly = false; // never move to another doctor of the same specialization
+    private Integer searchDays;             // how far past toDate to look for open capacity
+
+    public RescheduleRequestDTO() {}
+
+    // Getters and Setters
+    public Long getDoctorId() { return doctorId; }
+    public void setDoctorId(Long doctorId) { this.doctorId = doctorId; }
+
+    public LocalDate getFromDate() { return fromDate; }
+    public void setFromDate(LocalDate fromDate) { this.fromDate = fromDate; }
+
+    public LocalDate getToDate() { return toDate; }
+    public void setToDate(LocalDate toDate) { this.toDate = toDate; }
+
+    public Boolean getDryRun() { return dryRun; }
+    public void setDryRun(Boolean dryRun) { this.dryRun = dryRun; }
+
+    public Boolean getSameDoctorOnly() { return sameDoctorOnly; }
+    public void setSameDoctorOnly(Boolean sameDoctorOnly) { this.sameDoctorOnly = sameDoctorOnly; }
+
+    public Integer getSearchDays() { return searchDays; }
+    public void setSearchDays(Integer searchDays) { this.searchDays = searchDays; }
+}
@@ -0,0 +1,133 @@
+package com.hms.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// ✅ ADDED: Outcome of one currentBookings / isBooked reconciliation run (ScheduleReconciler)
+public class ScheduleReconciliationDTO {
+
+    public static final int MAX_SAMPLES = 100;
+
+    private boolean dryRun;
+    private String status;      // RUNNING, COMPLETED, FAILED
+    private String error;
+    private LocalDateTime startedAt;
+    private long durationMs;
+    private long schedulesScanned;
+    private long schedulesDrifted;
+    private long overCounted;   // counter above the live bookings: slot looked fuller than it is
+    private long underCounted;  // counter below the live bookings: slot could be overbooked
+    private long flagOnly;      // counter right, isBooked wrong
+    private long bookingDelta;  // sum of |counter - live| over all drifted schedules
+    private long fixed;
+    private long retries;
+    private List<Drift> samples = new ArrayList<>();
+    private boolean samplesTruncated;
+
+    public ScheduleReconciliationDTO() {}
+
+    public ScheduleReconciliationDTO(boolean dryRun) {
+        this.dryRun = dryRun;
+        this.status = "RUNNING";
+        this.startedAt = LocalDateTime.now();
+    }
+
+    public void addDrift(Drift drift) {
+        schedulesDrifted++;
+        long delta = drift.getRecordedBookings() - drift.getLiveBookings();
+        if (delta > 0) {
+            overCounted++;
+        } else if (delta < 0) {
+            underCounted++;
+        } else {
+            flagOnly++;
+        }
+        bookingDelta += Math.abs(delta);
+        if (samples.size() < MAX_SAMPLES) {
+            samples.add(drift);
+        } else {
+            samplesTruncated = true;
+        }
+    }
+
+    public static class Drift {
+        private Long scheduleId;
+        private Long doctorId;
+        private LocalDate availableDate;
+        private long recordedBookings;
+        private long liveBookings;
+
+        public Drift() {}
+
+        public Drift(Long scheduleId, Long doctorId, LocalDate availableDate, long recordedBookings, long liveBookings) {
+            this.scheduleId = scheduleId;
+            this.doctorId = doctorId;
+            this.availableDate = availableDate;
+            this.recordedBookings = recordedBookings;
+            this.liveBookings = liveBookings;
+        }
+
+        public Long getScheduleId() { return scheduleId; }
+        public void setScheduleId(Long scheduleId) { this.scheduleId = scheduleId; }
+
+        public Long getDoctorId() { return doctorId; }
+        public void setDoctorId(Long doctorId) { this.doctorId = doctorId; }
+
+        public LocalDate getAvailableDate() { return availableDate; }
+        public void setAvailableDate(LocalDate availableDate) { this.availableDate = availableDate; }
+
+        public long getRecordedBookings() { return recordedBookings; }
+        public void setRecordedBookings(long recordedBookings) { this.recordedBookings = recordedBookings; }
+
+        public long getLiveBookings() { return liveBookings; }
+        public void setLiveBookings(long liveBookings) { this.liveBookings = liveBookings; }
+    }
+
+    // Getters and Setters
+    public boolean isDryRun() { return dryRun; }
+    public void setDryRun(boolean dryRun) { this.dryRun = dryRun; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+
+    public long getDurationMs() { return durationMs; }
+    public void setDurationMs(long durationMs) { this.durationMs = durationMs; }
+
+    public long getSchedulesScanned() { return schedulesScanned; }
+    public void setSchedulesScanned(long schedulesScanned) { this.schedulesScanned = schedulesScanned; }
+
+    public long getSchedulesDrifted() { return schedulesDrifted; }
+    public void setSchedulesDrifted(long schedulesDrifted) { this.schedulesDrifted = schedulesDrifted; }
+
+    public long getOverCounted() { return overCounted; }
+    public void setOverCounted(long overCounted) { this.overCounted = overCounted; }
+
+    public long getUnderCounted() { return underCounted; }
+    public void setUnderCounted(long underCounted) { this.underCounted = underCounted; }
+
+    public long getFlagOnly() { return flagOnly; }
+    public void setFlagOnly(long flagOnly) { this.flagOnly = flagOnly; }
+
+    public long getBookingDelta() { return bookingDelta; }
+    public void setBookingDelta(long bookingDelta) { this.bookingDelta = bookingDelta; }
+
+    public long getFixed() { return fixed; }
+    public void setFixed(long fixed) { this.fixed = fixed; }
+
+    public long getRetries() { return retries; }
+    public void setRetries(long retries) { this.retries = retries; }
+
+    public List<Drift> getSamples() { return samples; }
+    public void setSamples(List<Drift> samples) { this.samples = samples; }
+
+    public boolean isSamplesTruncated() { return samplesTruncated; }
+    public void setSamplesTruncated(boolean samplesTruncated) { this.samplesTruncated = samplesTruncated; }
+}
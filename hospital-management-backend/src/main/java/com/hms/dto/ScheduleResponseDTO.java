@@ -2,6 +2,7 @@ package com.hms.dto;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.List;
 
 public class ScheduleResponseDTO {
     private Long id;
@@ -12,9 +13,12 @@ public class ScheduleResponseDTO {
     private LocalTime startTime;
     private LocalTime endTime;
     private Boolean isBooked;
+    private Boolean closed; // ✅ ADDED: closed for booking (doctor on leave)
     private String createdBy;
     private Integer slotDuration;
     private Integer maxPatients;
+    private Integer currentBookings; // ✅ ADDED
+    private List<LocalTime> freeSlotTimes; // ✅ ADDED: bookable sub-slot start times
 
     // Constructors
     public ScheduleResponseDTO() {}
@@ -60,6 +64,9 @@ public class ScheduleResponseDTO {
     public Boolean getIsBooked() { return isBooked; }
     public void setIsBooked(Boolean isBooked) { this.isBooked = isBooked; }
 
+    public Boolean getClosed() { return closed; }
+    public void setClosed(Boolean closed) { this.closed = closed; }
+
     public String getCreatedBy() { return createdBy; }
     public void setCreatedBy(String createdBy) { this.createdBy = createdBy; }
 
@@ -68,4 +75,10 @@ public class ScheduleResponseDTO {
 
     public Integer getMaxPatients() { return maxPatients; }
     public void setMaxPatients(Integer maxPatients) { this.maxPatients = maxPatients; }
-}
\ No newline at end of file
+
+    public Integer getCurrentBookings() { return currentBookings; }
+    public void setCurrentBookings(Integer currentBookings) { this.currentBookings = currentBookings; }
+
+    public List<LocalTime> getFreeSlotTimes() { return freeSlotTimes; }
+    public void setFreeSlotTimes(List<LocalTime> freeSlotTimes) { this.freeSlotTimes = freeSlotTimes; }
+}
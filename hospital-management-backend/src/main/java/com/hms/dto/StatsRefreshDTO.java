@@ -0,0 +1,41 @@
+package com.hms.dto;
+
+import java.time.LocalDate;
+
+public class StatsRefreshDTO {
+    private LocalDate from;
+    private LocalDate to;
+    private int refreshedDays;  // days whose recompute committed; failures are logged
+
+    public StatsRefreshDTO() {}
+
+    public StatsRefreshDTO(LocalDate from, LocalDate to, int refreshedDays) {
+        this.from = from;
+        this.to = to;
+        this.refreshedDays = refreshedDays;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDate from) {
+        this.from = from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDate to) {
+        this.to = to;
+    }
+
+    public int getRefreshedDays() {
+        return refreshedDays;
+    }
+
+    public void setRefreshedDays(int refreshedDays) {
+        this.refreshedDays = refreshedDays;
+    }
+}
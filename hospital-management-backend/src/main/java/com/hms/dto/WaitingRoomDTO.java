@@ -0,0 +1,37 @@
+package com.hms.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * A doctor's waiting room for one day: checked-in SCHEDULED appointments in arrival order.
+ */
+public class WaitingRoomDTO {
+    private Long doctorId;
+    private LocalDate date;
+    private int waiting;
+    private List<QueueEntryDTO> queue;
+
+    // Constructors
+    public WaitingRoomDTO() {}
+
+    public WaitingRoomDTO(Long doctorId, LocalDate date, List<QueueEntryDTO> queue) {
+        this.doctorId = doctorId;
+        this.date = date;
+        this.queue = queue;
+        this.waiting = queue.size();
+    }
+
+    // Getters and Setters
+    public Long getDoctorId() { return doctorId; }
+    public void setDoctorId(Long doctorId) { this.doctorId = doctorId; }
+
+    public LocalDate getDate() { return date; }
+    public void setDate(LocalDate date) { this.date = date; }
+
+    public int getWaiting() { return waiting; }
+    public void setWaiting(int waiting) { this.waiting = waiting; }
+
+    public List<QueueEntryDTO> getQueue() { return queue; }
+    public void setQueue(List<QueueEntryDTO> queue) { this.queue = queue; }
+}
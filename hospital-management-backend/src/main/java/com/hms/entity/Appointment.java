@@ -12,12 +12,16 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 
 @Entity
-@Table(name = "appointment")
+@Table(name = "appointment", indexes = {
+    @Index(name = "idx_appointment_doctor_patient", columnList = "doctor_id, patient_id"),
+    @Index(name = "idx_appointment_date_checkin", columnList = "appointment_date, checked_in_at")
+})
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Appointment {
     @Id
@@ -53,6 +57,10 @@ public class Appointment {
     @Column(name = "appointment_time")
     private LocalTime appointmentTime;
 
+    // ✅ ADDED: Set when the patient arrives; queued on the doctor's waiting-room board
+    @Column(name = "checked_in_at")
+    private LocalDateTime checkedInAt;
+
     // Constructors
     public Appointment() {
         this.createdDate = LocalDateTime.now();
@@ -141,6 +149,9 @@ public class Appointment {
         this.updatedDate = LocalDateTime.now();
     }
 
+    public LocalDateTime getCheckedInAt() { return checkedInAt; }
+    public void setCheckedInAt(LocalDateTime checkedInAt) { this.checkedInAt = checkedInAt; }
+
     // Helper methods for formatted dates
     public String getFormattedAppointmentDate() {
         LocalDate date = getAppointmentDate();
@@ -0,0 +1,89 @@
+package com.hms.entity;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * Cold copy of an appointment moved out of the live tables by AppointmentArchiver,
+ * together with its prescription and medications. Append-only: rows are written
+ * once and never updated.
+ *
+ * Only the lookup keys are columns; the content is a gzip-compressed
+ * ArchivedAppointmentDTO (see AppointmentArchiveService).
+ */
+@Entity
+@Table(name = "appointment_archive", indexes = {
+    @Index(name = "uk_archive_appointment", columnList = "appointment_id", unique = true),
+    @Index(name = "idx_archive_patient_date", columnList = "patient_id, appointment_date"),
+    @Index(name = "idx_archive_doctor_date", columnList = "doctor_id, appointment_date"),
+    @Index(name = "idx_archive_date", columnList = "appointment_date"),
+    @Index(name = "idx_archive_prescription", columnList = "prescription_id")
+})
+public class ArchivedAppointment {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Id the appointment had in the live table; API clients keep using it
+    @Column(name = "appointment_id", nullable = false)
+    private Long appointmentId;
+
+    @Column(name = "patient_id")
+    private Long patientId;
+
+    @Column(name = "doctor_id")
+    private Long doctorId;
+
+    @Column(name = "prescription_id")
+    private Long prescriptionId;
+
+    @Column(name = "appointment_date", nullable = false)
+    private LocalDate appointmentDate;
+
+    @Column(name = "status", length = 20)
+    private String status;
+
+    @Column(name = "payload", nullable = false, columnDefinition = "MEDIUMBLOB")
+    private byte[] payload;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    public ArchivedAppointment() {}
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getAppointmentId() { return appointmentId; }
+    public void setAppointmentId(Long appointmentId) { this.appointmentId = appointmentId; }
+
+    public Long getPatientId() { return patientId; }
+    public void setPatientId(Long patientId) { this.patientId = patientId; }
+
+    public Long getDoctorId() { return doctorId; }
+    public void setDoctorId(Long doctorId) { this.doctorId = doctorId; }
+
+    public Long getPrescriptionId() { return prescriptionId; }
+    public void setPrescriptionId(Long prescriptionId) { this.prescriptionId = prescriptionId; }
+
+    public LocalDate getAppointmentDate() { return appointmentDate; }
+    public void setAppointmentDate(LocalDate appointmentDate) { this.appointmentDate = appointmentDate; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public byte[] getPayload() { return payload; }
+    public void setPayload(byte[] payload) { this.payload = payload; }
+
+    public LocalDateTime getArchivedAt() { return archivedAt; }
+    public void setArchivedAt(LocalDateTime archivedAt) { this.archivedAt = archivedAt; }
+}
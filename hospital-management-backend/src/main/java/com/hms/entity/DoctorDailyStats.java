@@ -0,0 +1,96 @@
+package com.hms.entity;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+/**
+ * Rollup of one doctor's day: schedule capacity and bookings plus appointment outcomes.
+ * Derived data, recomputed from doctor_schedule / appointment by DoctorStatsService;
+ * never edited directly.
+ */
+@Entity
+@Table(name = "doctor_daily_stats",
+       uniqueConstraints = @UniqueConstraint(name = "uk_doctor_daily_stats", columnNames = {"doctor_id", "stat_date"}),
+       indexes = @Index(name = "idx_doctor_daily_stats_date", columnList = "stat_date, doctor_id"))
+public class DoctorDailyStats {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "doctor_id", nullable = false)
+    private Long doctorId;
+
+    @Column(name = "stat_date", nullable = false)
+    private LocalDate statDate;
+
+    @Column(name = "schedules", nullable = false)
+    private int schedules;
+
+    // Sum of max_patients over the day's schedules
+    @Column(name = "capacity", nullable = false)
+    private int capacity;
+
+    // Sum of current_bookings over the day's schedules
+    @Column(name = "booked", nullable = false)
+    private int booked;
+
+    @Column(name = "appointments", nullable = false)
+    private int appointments;
+
+    @Column(name = "scheduled", nullable = false)
+    private int scheduled;
+
+    @Column(name = "completed", nullable = false)
+    private int completed;
+
+    @Column(name = "cancelled", nullable = false)
+    private int cancelled;
+
+    @Column(name = "refreshed_at", nullable = false)
+    private LocalDateTime refreshedAt;
+
+    public DoctorDailyStats() {}
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getDoctorId() { return doctorId; }
+    public void setDoctorId(Long doctorId) { this.doctorId = doctorId; }
+
+    public LocalDate getStatDate() { return statDate; }
+    public void setStatDate(LocalDate statDate) { this.statDate = statDate; }
+
+    public int getSchedules() { return schedules; }
+    public void setSchedules(int schedules) { this.schedules = schedules; }
+
+    public int getCapacity() { return capacity; }
+    public void setCapacity(int capacity) { this.capacity = capacity; }
+
+    public int getBooked() { return booked; }
+    public void setBooked(int booked) { this.booked = booked; }
+
+    public int getAppointments() { return appointments; }
+    public void setAppointments(int appointments) { this.appointments = appointments; }
+
+    public int getScheduled() { return scheduled; }
+    public void setScheduled(int scheduled) { this.scheduled = scheduled; }
+
+    public int getCompleted() { return completed; }
+    public void setCompleted(int completed) { this.completed = completed; }
+
+    public int getCancelled() { return cancelled; }
+    public void setCancelled(int cancelled) { this.cancelled = cancelled; }
+
+    public LocalDateTime getRefreshedAt() { return refreshedAt; }
+    public void setRefreshedAt(LocalDateTime refreshedAt) { this.refreshedAt = refreshedAt; }
+}
@@ -0,0 +1,34 @@
+package com.hms.entity;
+
+import com.hms.dto.DoctorSummaryDTO;
+import com.hms.service.DoctorDirectoryIndex;
+import com.hms.util.AfterCommit;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Applies Doctor writes to DoctorDirectoryIndex once the transaction commits.
+ */
+public class DoctorDirectoryListener {
+
+    private final DoctorDirectoryIndex doctorDirectoryIndex;
+
+    public DoctorDirectoryListener(DoctorDirectoryIndex doctorDirectoryIndex) {
+        this.doctorDirectoryIndex = doctorDirectoryIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Doctor doctor) {
+        DoctorSummaryDTO snapshot = DoctorDirectoryIndex.toSummary(doctor);
+        AfterCommit.run(() -> doctorDirectoryIndex.put(snapshot));
+    }
+
+    @PostRemove
+    public void onRemove(Doctor doctor) {
+        Long doctorId = doctor.getId();
+        AfterCommit.run(() -> doctorDirectoryIndex.remove(doctorId));
+    }
+}
@@ -1,22 +1,32 @@
 package com.hms.entity;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 
 @Entity
-@Table(name = "doctor_schedule")
+@Table(name = "doctor_schedule", indexes = {
+    @Index(name = "idx_schedule_date_doctor", columnList = "available_date, doctor_id"),
+    @Index(name = "idx_schedule_doctor_date", columnList = "doctor_id, available_date")
+})
+@EntityListeners({ResourceVersionListener.class, ScheduleChangeListener.class})
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class DoctorSchedule {
     @Id
@@ -39,6 +49,11 @@ public class DoctorSchedule {
     @Column(name = "is_booked", columnDefinition = "boolean default false")
     private Boolean isBooked = false;
 
+    // ✅ ADDED: Closed for new bookings (doctor on leave, see BulkRescheduleService). Unlike isBooked it is
+    // never derived from the booking counters, so cancellations and reconciliation cannot reopen it.
+    @Column(name = "closed", nullable = false, columnDefinition = "boolean default false")
+    private Boolean closed = false;
+
     @Column(name = "created_by")
     private String createdBy; // "DOCTOR" or "ADMIN"
 
@@ -51,6 +66,15 @@ public class DoctorSchedule {
     @Column(name = "current_bookings", nullable = false, columnDefinition = "integer default 0")
     private Integer currentBookings = 0; // ✅ FIXED: Added nullable=false and default
 
+    // ✅ ADDED: One booking counter per slotDuration sub-slot (byte i = bookings at startTime + i * slotDuration).
+    // Null until first used; rebuilt from appointments when missing or when the slot layout changes.
+    @JsonIgnore
+    @Column(name = "slot_occupancy", length = MAX_SUB_SLOTS)
+    private byte[] slotOccupancy;
+
+    // 24h of 5-minute slots
+    public static final int MAX_SUB_SLOTS = 288;
+
     // Constructors
     public DoctorSchedule() {
         this.isBooked = false;
@@ -81,7 +105,7 @@ public class DoctorSchedule {
 
     // ✅ ADDED: Method to check if schedule is available
     public boolean isAvailable() {
-        return !isBooked && currentBookings < maxPatients;
+        return !Boolean.TRUE.equals(closed) && !isBooked && currentBookings < maxPatients;
     }
 
     // ✅ ADDED: Method to book a slot
@@ -112,6 +136,149 @@ public class DoctorSchedule {
         }
     }
 
+    // ✅ ADDED: Number of slotDuration sub-slots between startTime and endTime (at least 1)
+    public int subSlotCount() {
+        if (startTime == null || endTime == null || slotDuration == null || slotDuration <= 0) {
+            return 1;
+        }
+        long minutes = Duration.between(startTime, endTime).toMinutes();
+        return (int) Math.max(1, Math.min(MAX_SUB_SLOTS, minutes / slotDuration));
+    }
+
+    // ✅ ADDED: maxPatients is spread evenly over the sub-slots
+    public int subSlotCapacity() {
+        int max = maxPatients != null ? maxPatients : 0;
+        int slots = subSlotCount();
+        return Math.min(255, (max + slots - 1) / slots);
+    }
+
+    public LocalTime subSlotTime(int index) {
+        if (startTime == null || slotDuration == null || slotDuration <= 0) {
+            return startTime;
+        }
+        return startTime.plusMinutes((long) index * slotDuration);
+    }
+
+    // Index of the sub-slot starting exactly at time, or -1
+    public int subSlotIndex(LocalTime time) {
+        if (time == null || startTime == null) {
+            return -1;
+        }
+        long offset = Duration.between(startTime, time).toMinutes();
+        int step = slotDuration != null && slotDuration > 0 ? slotDuration : Integer.MAX_VALUE;
+        if (offset < 0 || offset % step != 0 || offset / step >= subSlotCount()) {
+            return -1;
+        }
+        return (int) (offset / step);
+    }
+
+    // True when the stored counters match the current start/end/duration
+    public boolean hasOccupancy() {
+        return slotOccupancy != null && slotOccupancy.length == subSlotCount();
+    }
+
+    /**
+     * ✅ ADDED: Reset counters and re-place the given bookings. Times that are not a
+     * sub-slot start (legacy rows, edited schedules) go to the first sub-slot with room;
+     * the returned array holds the time each booking ended up in, in input order.
+     */
+    public LocalTime[] rebuildOccupancy(List<LocalTime> bookedTimes) {
+        slotOccupancy = new byte[subSlotCount()];
+        LocalTime[] placed = new LocalTime[bookedTimes.size()];
+        int capacity = Math.max(1, subSlotCapacity());
+        List<Integer> overflow = new ArrayList<>();
+        for (int i = 0; i < bookedTimes.size(); i++) {
+            int index = subSlotIndex(bookedTimes.get(i));
+            if (index >= 0 && (slotOccupancy[index] & 0xFF) < capacity) {
+                slotOccupancy[index]++;
+                placed[i] = subSlotTime(index);
+            } else {
+                overflow.add(i);
+            }
+        }
+        for (int i : overflow) {
+            int index = firstFreeSubSlot(capacity);
+            if (index < 0) {
+                index = 0; // over capacity already; keep it counted
+            }
+            if ((slotOccupancy[index] & 0xFF) < 255) {
+                slotOccupancy[index]++;
+            }
+            placed[i] = subSlotTime(index);
+        }
+        currentBookings = bookedTimes.size();
+        isBooked = maxPatients != null && currentBookings >= maxPatients;
+        return placed;
+    }
+
+    /**
+     * ✅ ADDED: Take one place in the requested sub-slot, or the earliest free one when
+     * requested is null. Counters must be current (hasOccupancy) and the row locked.
+     */
+    public LocalTime bookSubSlot(LocalTime requested) {
+        if (!isAvailable()) {
+            throw new RuntimeException("Selected time slot is fully booked. Please choose another available time.");
+        }
+        int capacity = subSlotCapacity();
+        int index;
+        if (requested == null) {
+            index = firstFreeSubSlot(capacity);
+        } else {
+            index = subSlotIndex(requested);
+            if (index < 0) {
+                throw new RuntimeException("Selected time " + requested + " is not a slot of this schedule");
+            }
+            if ((slotOccupancy[index] & 0xFF) >= capacity) {
+                index = -1;
+            }
+        }
+        if (index < 0) {
+            throw new RuntimeException("Selected time slot is fully booked. Please choose another available time.");
+        }
+        slotOccupancy[index]++;
+        bookSlot();
+        return subSlotTime(index);
+    }
+
+    // ✅ ADDED: Give back the place held at time. A place not counted where its time says
+    // (off the layout, or that sub-slot already empty) leaves the counters wrong, so they are
+    // dropped and rebuilt from the live appointments on the next booking.
+    public void releaseSubSlot(LocalTime time) {
+        int index = hasOccupancy() ? subSlotIndex(time) : -1;
+        if (index >= 0 && slotOccupancy[index] != 0) {
+            slotOccupancy[index]--;
+        } else {
+            slotOccupancy = null;
+        }
+        cancelBooking();
+    }
+
+    // ✅ ADDED: Start times that can still be booked; empty once the schedule is full.
+    // Without current counters (never booked, or layout just changed) every sub-slot is listed.
+    public List<LocalTime> freeSlotTimes() {
+        List<LocalTime> free = new ArrayList<>();
+        if (!isAvailable()) {
+            return free;
+        }
+        boolean counted = hasOccupancy();
+        int capacity = subSlotCapacity();
+        for (int i = 0; i < subSlotCount(); i++) {
+            if (!counted || (slotOccupancy[i] & 0xFF) < capacity) {
+                free.add(subSlotTime(i));
+            }
+        }
+        return free;
+    }
+
+    private int firstFreeSubSlot(int capacity) {
+        for (int i = 0; i < slotOccupancy.length; i++) {
+            if ((slotOccupancy[i] & 0xFF) < capacity) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     // Getters and Setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -131,6 +298,9 @@ public class DoctorSchedule {
     public Boolean getIsBooked() { return isBooked; }
     public void setIsBooked(Boolean isBooked) { this.isBooked = isBooked; }
     
+    public Boolean getClosed() { return closed; }
+    public void setClosed(Boolean closed) { this.closed = closed; }
+
     public String getCreatedBy() { return createdBy; }
     public void setCreatedBy(String createdBy) { this.createdBy = createdBy; }
     
@@ -150,6 +320,9 @@ public class DoctorSchedule {
         this.currentBookings = currentBookings; 
     }
 
+    public byte[] getSlotOccupancy() { return slotOccupancy; }
+    public void setSlotOccupancy(byte[] slotOccupancy) { this.slotOccupancy = slotOccupancy; }
+
     @Override
     public String toString() {
         return "DoctorSchedule{" +
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -13,6 +14,7 @@ import jakarta.persistence.Table;
 
 @Entity
 @Table(name = "patient")
+@EntityListeners({PatientSearchListener.class, ResourceVersionListener.class})
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Patient {
 
@@ -24,8 +26,9 @@ public class Patient {
     private int age;
     private String gender;
 
+    // ✅ One profile per user; backs the idempotent auto-provisioning
     @OneToOne
-    @JoinColumn(name = "user_id")
+    @JoinColumn(name = "user_id", unique = true)
     private User user;
 
     // ✅ ADDED: Enhanced patient medical profile fields
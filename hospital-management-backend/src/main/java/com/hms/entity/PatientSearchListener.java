@@ -0,0 +1,44 @@
+package com.hms.entity;
+
+import com.hms.dto.PatientSearchResultDTO;
+import com.hms.service.PatientSearchIndex;
+import com.hms.util.AfterCommit;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Keeps PatientSearchIndex in step with Patient and User writes. The indexed
+ * values are captured when Hibernate flushes and applied only after commit.
+ */
+public class PatientSearchListener {
+
+    private final PatientSearchIndex patientSearchIndex;
+
+    public PatientSearchListener(PatientSearchIndex patientSearchIndex) {
+        this.patientSearchIndex = patientSearchIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Object entity) {
+        if (entity instanceof Patient patient) {
+            PatientSearchResultDTO snapshot = PatientSearchIndex.toResult(patient);
+            AfterCommit.run(() -> patientSearchIndex.patientSaved(snapshot));
+        } else if (entity instanceof User user) {
+            Long userId = user.getId();
+            String email = user.getEmail();
+            String phoneNumber = user.getPhoneNumber();
+            AfterCommit.run(() -> patientSearchIndex.userSaved(userId, email, phoneNumber));
+        }
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+        if (entity instanceof Patient patient) {
+            Long patientId = patient.getId();
+            AfterCommit.run(() -> patientSearchIndex.patientRemoved(patientId));
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.hms.entity;
+
+import com.hms.service.ResourceVersionService;
+import com.hms.util.AfterCommit;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Bumps ETag versions whenever Hibernate writes a Doctor, Patient, User or DoctorSchedule,
+ * regardless of which service made the change. Instantiated through Spring's
+ * bean container, so the version service is constructor-injected.
+ */
+public class ResourceVersionListener {
+
+    private final ResourceVersionService resourceVersionService;
+
+    public ResourceVersionListener(ResourceVersionService resourceVersionService) {
+        this.resourceVersionService = resourceVersionService;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        if (entity instanceof DoctorSchedule schedule) {
+            Long doctorId = schedule.getDoctor() != null ? schedule.getDoctor().getId() : null;
+            AfterCommit.run(() -> resourceVersionService.schedulesChanged(doctorId));
+        } else if (entity instanceof Doctor doctor) {
+            Long userId = doctor.getUser() != null ? doctor.getUser().getId() : null;
+            AfterCommit.run(() -> {
+                resourceVersionService.doctorsChanged();
+                resourceVersionService.profileChanged(userId);
+            });
+        } else if (entity instanceof User user) {
+            // The directory serves DoctorSummaryDTO (no User fields), so only the profile changes
+            Long userId = user.getId();
+            AfterCommit.run(() -> resourceVersionService.profileChanged(userId));
+        } else if (entity instanceof Patient patient) {
+            Long userId = patient.getUser() != null ? patient.getUser().getId() : null;
+            AfterCommit.run(() -> resourceVersionService.profileChanged(userId));
+        }
+    }
+}
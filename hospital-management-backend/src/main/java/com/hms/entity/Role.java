@@ -0,0 +1,105 @@
+package com.hms.entity;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+/**
+ * Roles as bits of User.roleMask and of the JWT "rm" claim. Bit positions are
+ * persisted: never reorder or reuse them, only append.
+ *
+ * Every possible mask's role-name set and authority list is precomputed, so
+ * mapping a mask to Spring authorities is an array lookup.
+ */
+public enum Role {
+    USER(0),
+    PATIENT(1),
+    DOCTOR(2),
+    ADMIN(3);
+
+    private static final Role[] VALUES = values();
+    private static final int ALL = (1 << 4) - 1;
+    private static final Set<String>[] NAMES_BY_MASK = buildNames();
+    private static final List<GrantedAuthority>[] AUTHORITIES_BY_MASK = buildAuthorities();
+
+    private final int bit;
+    private final String authority;
+
+    Role(int position) {
+        this.bit = 1 << position;
+        this.authority = "ROLE_" + name();
+    }
+
+    public int bit() { return bit; }
+
+    public String authority() { return authority; }
+
+    public boolean isIn(int mask) {
+        return (mask & bit) != 0;
+    }
+
+    public static Role fromAuthority(String authority) {
+        for (Role role : VALUES) {
+            if (role.authority.equals(authority)) {
+                return role;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Mask for a set of "ROLE_*" names; unknown names are dropped
+     */
+    public static int maskOf(Collection<String> authorities) {
+        int mask = 0;
+        if (authorities != null) {
+            for (String authority : authorities) {
+                Role role = fromAuthority(authority);
+                if (role != null) {
+                    mask |= role.bit;
+                } else {
+                    System.err.println("⚠️ Ignoring unknown role: " + authority);
+                }
+            }
+        }
+        return mask;
+    }
+
+    public static Set<String> namesOf(int mask) {
+        return NAMES_BY_MASK[mask & ALL];
+    }
+
+    public static List<GrantedAuthority> authoritiesOf(int mask) {
+        return AUTHORITIES_BY_MASK[mask & ALL];
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<String>[] buildNames() {
+        Set<String>[] table = new Set[ALL + 1];
+        for (int mask = 0; mask <= ALL; mask++) {
+            Set<String> names = new LinkedHashSet<>();
+            for (Role role : VALUES) {
+                if (role.isIn(mask)) {
+                    names.add(role.authority);
+                }
+            }
+            table[mask] = Set.copyOf(names);
+        }
+        return table;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<GrantedAuthority>[] buildAuthorities() {
+        List<GrantedAuthority>[] table = new List[ALL + 1];
+        for (int mask = 0; mask <= ALL; mask++) {
+            table[mask] = NAMES_BY_MASK[mask].stream()
+                    .map(name -> (GrantedAuthority) new SimpleGrantedAuthority(name))
+                    .toList();
+        }
+        return table;
+    }
+}
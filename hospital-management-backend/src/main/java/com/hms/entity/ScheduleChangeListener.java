@@ -0,0 +1,41 @@
+package com.hms.entity;
+
+import java.time.LocalDate;
+
+import com.hms.service.DoctorStatsService;
+import com.hms.service.SlotAvailabilityBroadcaster;
+import com.hms.util.AfterCommit;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Pushes DoctorSchedule writes to the live availability streams and marks the
+ * day dirty in the utilization rollup once the transaction commits. Registered
+ * after ResourceVersionListener, so the schedule ETags are already bumped when
+ * subscribers are told.
+ */
+public class ScheduleChangeListener {
+
+    private final SlotAvailabilityBroadcaster slotAvailabilityBroadcaster;
+    private final DoctorStatsService doctorStatsService;
+
+    public ScheduleChangeListener(SlotAvailabilityBroadcaster slotAvailabilityBroadcaster,
+                                  DoctorStatsService doctorStatsService) {
+        this.slotAvailabilityBroadcaster = slotAvailabilityBroadcaster;
+        this.doctorStatsService = doctorStatsService;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(DoctorSchedule schedule) {
+        Long doctorId = schedule.getDoctor() != null ? schedule.getDoctor().getId() : null;
+        LocalDate date = schedule.getAvailableDate();
+        AfterCommit.run(() -> {
+            slotAvailabilityBroadcaster.schedulesChanged(doctorId);
+            doctorStatsService.markDirty(doctorId, date);
+        });
+    }
+}
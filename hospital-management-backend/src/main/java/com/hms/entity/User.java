@@ -3,19 +3,27 @@ package com.hms.entity;
 import java.time.LocalDate;
 import java.util.Set;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
-import jakarta.persistence.ElementCollection;
 import jakarta.persistence.Entity;
-import jakarta.persistence.FetchType;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 
 @Entity
-@Table(name = "user")
+@Table(name = "user", indexes = @Index(name = "idx_user_username", columnList = "username"))
+@EntityListeners({ResourceVersionListener.class, PatientSearchListener.class})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class User {
 
@@ -26,8 +34,9 @@ public class User {
     private String username;
     private String password;
 
-    @ElementCollection(fetch = FetchType.EAGER)
-    private Set<String> roles;
+    // ✅ Roles as a bitmask (see Role); replaces the user_roles element collection
+    @Column(name = "role_mask", nullable = false, columnDefinition = "integer default 0")
+    private int roleMask;
 
     // ✅ ADDED: Enhanced profile fields
     @Column(name = "first_name")
@@ -86,7 +95,7 @@ public class User {
     public User(String username, String password, Set<String> roles) {
         this.username = username;
         this.password = password;
-        this.roles = roles;
+        this.roleMask = Role.maskOf(roles);
         this.createdAt = LocalDate.now();
         this.updatedAt = LocalDate.now();
     }
@@ -153,6 +162,13 @@ public class User {
     public String getPassword() { return password; }
     public void setPassword(String password) { this.password = password; }
 
-    public Set<String> getRoles() { return roles; }
-    public void setRoles(Set<String> roles) { this.roles = roles; }
+    // Role names derived from the mask; the returned set is immutable
+    public Set<String> getRoles() { return Role.namesOf(roleMask); }
+    public void setRoles(Set<String> roles) { this.roleMask = Role.maskOf(roles); }
+
+    @JsonIgnore
+    public int getRoleMask() { return roleMask; }
+    public void setRoleMask(int roleMask) { this.roleMask = roleMask; }
+
+    public boolean hasRole(Role role) { return role.isIn(roleMask); }
 }
\ No newline at end of file
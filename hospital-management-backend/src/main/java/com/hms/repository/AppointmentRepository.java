@@ -1,15 +1,27 @@
 package com.hms.repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.hms.dto.AppointmentResponseDTO;
+import com.hms.dto.QueueEntryDTO;
 import com.hms.entity.Appointment;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
     
@@ -27,4 +39,87 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
     @Query("SELECT a FROM Appointment a WHERE a.doctor.id IN " +
            "(SELECT d.id FROM Doctor d WHERE d.user.id = :doctorUserId)")
     List<Appointment> findByDoctorUserId(@Param("doctorUserId") Long doctorUserId);
-}
\ No newline at end of file
+
+    // ✅ Live bookings of one schedule, for rebuilding its sub-slot occupancy
+    @Query("SELECT a FROM Appointment a WHERE a.schedule.id = :scheduleId " +
+           "AND (a.status IS NULL OR a.status <> 'CANCELLED') ORDER BY a.id")
+    List<Appointment> findLiveByScheduleId(@Param("scheduleId") Long scheduleId);
+
+    // ✅ Checks a patient in exactly once; 0 rows means already checked in or no longer SCHEDULED
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Appointment a SET a.checkedInAt = :now, a.updatedDate = :now " +
+           "WHERE a.id = :id AND a.checkedInAt IS NULL AND a.status = 'SCHEDULED'")
+    int markCheckedIn(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    // ✅ Waiting-room queues for one day, in arrival order (rebuilds WaitingRoomService on startup)
+    @Query("SELECT new com.hms.dto.QueueEntryDTO(a.id, d.id, p.id, COALESCE(p.name, 'Unknown Patient'), " +
+           "a.appointmentTime, a.checkedInAt, a.reason) " +
+           "FROM Appointment a JOIN a.doctor d LEFT JOIN a.patient p " +
+           "WHERE a.appointmentDate = :date AND a.checkedInAt IS NOT NULL AND a.status = 'SCHEDULED' " +
+           "ORDER BY a.checkedInAt, a.id")
+    List<QueueEntryDTO> findCheckedInForDate(@Param("date") LocalDate date);
+
+    // ✅ Archiving: finished appointments before the cutoff, oldest ids first. Rows are locked until the
+    // batch commits; lock timeout -2 = SKIP LOCKED, so parallel archivers take disjoint batches.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT a FROM Appointment a WHERE a.appointmentDate < :cutoff " +
+           "AND a.status IN ('COMPLETED', 'CANCELLED') ORDER BY a.id")
+    List<Appointment> lockArchivable(@Param("cutoff") LocalDate cutoff, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM Appointment a WHERE a.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    // ✅ Bulk reschedule: a doctor's SCHEDULED appointments in a date range as (appointment id, schedule id).
+    // Ids only, so the entities are loaded fresh once their schedules are locked.
+    @Query("SELECT a.id, a.schedule.id FROM Appointment a WHERE a.doctor.id = :doctorId " +
+           "AND a.appointmentDate BETWEEN :from AND :to AND (a.status IS NULL OR a.status = 'SCHEDULED') " +
+           "ORDER BY a.appointmentDate, a.appointmentTime, a.id")
+    List<Object[]> findReschedulable(@Param("doctorId") Long doctorId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT a FROM Appointment a JOIN FETCH a.patient WHERE a.id IN :ids " +
+           "ORDER BY a.appointmentDate, a.appointmentTime, a.id")
+    List<Appointment> findWithPatientByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Patients' live bookings in a window, for overlap checks: patient id, appointment id, date, time, slot minutes
+    @Query("SELECT a.patient.id, a.id, a.appointmentDate, a.appointmentTime, s.slotDuration FROM Appointment a JOIN a.schedule s " +
+           "WHERE a.patient.id IN :patientIds AND a.appointmentDate BETWEEN :from AND :to " +
+           "AND (a.status IS NULL OR a.status <> 'CANCELLED')")
+    List<Object[]> findLiveSlotsForPatients(@Param("patientIds") Collection<Long> patientIds,
+                                            @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT COUNT(a) FROM Appointment a WHERE a.schedule.id = :scheduleId " +
+           "AND (a.status IS NULL OR a.status <> 'CANCELLED')")
+    long countLiveByScheduleId(@Param("scheduleId") Long scheduleId);
+
+    // ✅ List reads build AppointmentResponseDTO in the query instead of loading
+    // Patient/Doctor/DoctorSchedule entities (and their wide text columns) per row
+    String SUMMARY_SELECT = "SELECT new com.hms.dto.AppointmentResponseDTO(a.id, p.id, COALESCE(p.name, 'Unknown Patient'), " +
+            "d.id, COALESCE(d.name, 'Unknown Doctor'), COALESCE(d.specialization, 'General'), s.id, " +
+            "COALESCE(s.availableDate, a.appointmentDate), COALESCE(s.startTime, a.appointmentTime), s.endTime, " +
+            "a.appointmentTime, s.slotDuration, " +
+            "COALESCE(a.status, 'SCHEDULED'), a.reason, a.createdDate, a.checkedInAt) " +
+            "FROM Appointment a LEFT JOIN a.patient p LEFT JOIN a.doctor d LEFT JOIN a.schedule s ";
+
+    @Query(SUMMARY_SELECT)
+    List<AppointmentResponseDTO> findAllSummaries();
+
+    @Query(SUMMARY_SELECT + "WHERE a.id IN :ids ORDER BY a.id")
+    List<AppointmentResponseDTO> findSummariesByIds(@Param("ids") Collection<Long> ids);
+
+    @Query(SUMMARY_SELECT + "WHERE d.id = :doctorId")
+    List<AppointmentResponseDTO> findSummariesByDoctorId(@Param("doctorId") Long doctorId);
+
+    @Query(SUMMARY_SELECT + "WHERE p.id = :patientId")
+    List<AppointmentResponseDTO> findSummariesByPatientId(@Param("patientId") Long patientId);
+
+    @Query(SUMMARY_SELECT + "WHERE a.status = :status")
+    List<AppointmentResponseDTO> findSummariesByStatus(@Param("status") String status);
+
+    @Query(SUMMARY_SELECT + "WHERE d.id = :doctorId AND a.status = :status")
+    List<AppointmentResponseDTO> findSummariesByDoctorIdAndStatus(@Param("doctorId") Long doctorId, @Param("status") String status);
+
+    @Query(SUMMARY_SELECT + "WHERE p.id = :patientId AND a.status = :status")
+    List<AppointmentResponseDTO> findSummariesByPatientIdAndStatus(@Param("patientId") Long patientId, @Param("status") String status);
+}
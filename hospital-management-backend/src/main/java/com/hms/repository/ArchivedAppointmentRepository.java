@@ -0,0 +1,73 @@
+package com.hms.repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.hms.entity.ArchivedAppointment;
+
+@Repository
+public interface ArchivedAppointmentRepository extends JpaRepository<ArchivedAppointment, Long> {
+
+    Optional<ArchivedAppointment> findByAppointmentId(Long appointmentId);
+
+    Optional<ArchivedAppointment> findByPrescriptionId(Long prescriptionId);
+
+    boolean existsByAppointmentId(Long appointmentId);
+
+    // Archived history is only listed by date range, one page at a time: each row is a gzip payload
+    @Query("SELECT a FROM ArchivedAppointment a WHERE a.appointmentDate BETWEEN :from AND :to " +
+           "ORDER BY a.appointmentDate, a.appointmentId")
+    Page<ArchivedAppointment> findInRange(@Param("from") LocalDate from, @Param("to") LocalDate to, Pageable pageable);
+
+    @Query("SELECT a FROM ArchivedAppointment a WHERE a.patientId = :patientId " +
+           "AND a.appointmentDate BETWEEN :from AND :to ORDER BY a.appointmentDate, a.appointmentId")
+    Page<ArchivedAppointment> findByPatientInRange(@Param("patientId") Long patientId, @Param("from") LocalDate from,
+                                                   @Param("to") LocalDate to, Pageable pageable);
+
+    @Query("SELECT a FROM ArchivedAppointment a WHERE a.doctorId = :doctorId " +
+           "AND a.appointmentDate BETWEEN :from AND :to ORDER BY a.appointmentDate, a.appointmentId")
+    Page<ArchivedAppointment> findByDoctorInRange(@Param("doctorId") Long doctorId, @Param("from") LocalDate from,
+                                                  @Param("to") LocalDate to, Pageable pageable);
+
+    // Newest first, for the slice appended to the live lists (status null = any)
+    @Query("SELECT a FROM ArchivedAppointment a WHERE (:status IS NULL OR a.status = :status) " +
+           "ORDER BY a.appointmentDate DESC, a.appointmentId DESC")
+    List<ArchivedAppointment> findNewest(@Param("status") String status, Pageable pageable);
+
+    @Query("SELECT a FROM ArchivedAppointment a WHERE a.patientId = :patientId AND (:status IS NULL OR a.status = :status) " +
+           "ORDER BY a.appointmentDate DESC, a.appointmentId DESC")
+    List<ArchivedAppointment> findNewestByPatient(@Param("patientId") Long patientId, @Param("status") String status,
+                                                  Pageable pageable);
+
+    @Query("SELECT a FROM ArchivedAppointment a WHERE a.doctorId = :doctorId AND (:status IS NULL OR a.status = :status) " +
+           "ORDER BY a.appointmentDate DESC, a.appointmentId DESC")
+    List<ArchivedAppointment> findNewestByDoctor(@Param("doctorId") Long doctorId, @Param("status") String status,
+                                                 Pageable pageable);
+
+    // Prescription reads only need archived rows that carry one
+    @Query("SELECT a FROM ArchivedAppointment a WHERE a.patientId = :patientId AND a.prescriptionId IS NOT NULL " +
+           "AND (:status IS NULL OR a.status = :status) ORDER BY a.appointmentDate DESC, a.appointmentId DESC")
+    List<ArchivedAppointment> findNewestWithPrescriptionByPatient(@Param("patientId") Long patientId,
+                                                                  @Param("status") String status, Pageable pageable);
+
+    @Query("SELECT a FROM ArchivedAppointment a WHERE a.doctorId = :doctorId AND a.prescriptionId IS NOT NULL " +
+           "ORDER BY a.appointmentDate DESC, a.appointmentId DESC")
+    List<ArchivedAppointment> findNewestWithPrescriptionByDoctor(@Param("doctorId") Long doctorId, Pageable pageable);
+
+    // Doctor's patient panel: archived visits of the patients on one page, as
+    // [patientId, last COMPLETED date, COMPLETED count, all count]
+    @Query("SELECT a.patientId, MAX(CASE WHEN a.status = 'COMPLETED' THEN a.appointmentDate END), " +
+           "SUM(CASE WHEN a.status = 'COMPLETED' THEN 1L ELSE 0L END), COUNT(a.id) " +
+           "FROM ArchivedAppointment a WHERE a.patientId IN :patientIds AND a.doctorId = :doctorId " +
+           "GROUP BY a.patientId")
+    List<Object[]> countVisits(@Param("doctorId") Long doctorId, @Param("patientIds") Collection<Long> patientIds);
+}
@@ -0,0 +1,75 @@
+package com.hms.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.hms.dto.DoctorUtilizationDTO;
+import com.hms.entity.DoctorDailyStats;
+
+@Repository
+public interface DoctorDailyStatsRepository extends JpaRepository<DoctorDailyStats, Long> {
+
+    // ✅ Recompute: schedules and appointments of one day, folded into one row per doctor.
+    // Both sides are read through their date indexes; the optional doctor filter is spliced in between.
+    String REFRESH_INSERT = "INSERT INTO doctor_daily_stats (doctor_id, stat_date, schedules, capacity, booked, " +
+            "appointments, scheduled, completed, cancelled, refreshed_at) " +
+            "SELECT x.doctor_id, x.stat_date, SUM(x.schedules), SUM(x.capacity), SUM(x.booked), " +
+            "SUM(x.appointments), SUM(x.scheduled), SUM(x.completed), SUM(x.cancelled), NOW() FROM (" +
+            "SELECT s.doctor_id, s.available_date AS stat_date, 1 AS schedules, COALESCE(s.max_patients, 0) AS capacity, " +
+            "COALESCE(s.current_bookings, 0) AS booked, 0 AS appointments, 0 AS scheduled, 0 AS completed, 0 AS cancelled " +
+            "FROM doctor_schedule s WHERE s.available_date = :date ";
+    String REFRESH_APPOINTMENTS = "UNION ALL " +
+            "SELECT a.doctor_id, a.appointment_date, 0, 0, 0, 1, " +
+            "CASE WHEN a.status IS NULL OR a.status = 'SCHEDULED' THEN 1 ELSE 0 END, " +
+            "CASE WHEN a.status = 'COMPLETED' THEN 1 ELSE 0 END, " +
+            "CASE WHEN a.status = 'CANCELLED' THEN 1 ELSE 0 END " +
+            "FROM appointment a WHERE a.appointment_date = :date ";
+    // Concurrent refreshes of the same day (several instances) overwrite instead of failing
+    String REFRESH_UPSERT = ") x GROUP BY x.doctor_id, x.stat_date " +
+            "ON DUPLICATE KEY UPDATE schedules = VALUES(schedules), capacity = VALUES(capacity), " +
+            "booked = VALUES(booked), appointments = VALUES(appointments), scheduled = VALUES(scheduled), " +
+            "completed = VALUES(completed), cancelled = VALUES(cancelled), refreshed_at = VALUES(refreshed_at)";
+
+    @Modifying
+    @Query(value = "DELETE FROM doctor_daily_stats WHERE doctor_id = :doctorId AND stat_date = :date", nativeQuery = true)
+    int deleteDoctorDay(@Param("doctorId") Long doctorId, @Param("date") LocalDate date);
+
+    @Modifying
+    @Query(value = REFRESH_INSERT + "AND s.doctor_id = :doctorId " + REFRESH_APPOINTMENTS +
+            "AND a.doctor_id = :doctorId " + REFRESH_UPSERT, nativeQuery = true)
+    int insertDoctorDay(@Param("doctorId") Long doctorId, @Param("date") LocalDate date);
+
+    @Modifying
+    @Query(value = "DELETE FROM doctor_daily_stats WHERE stat_date = :date", nativeQuery = true)
+    int deleteDay(@Param("date") LocalDate date);
+
+    @Modifying
+    @Query(value = REFRESH_INSERT + REFRESH_APPOINTMENTS + REFRESH_UPSERT, nativeQuery = true)
+    int insertDay(@Param("date") LocalDate date);
+
+    // ✅ Reads: at most one row per doctor and day in range, no appointment scans
+    String UTILIZATION_SELECT = "SELECT new com.hms.dto.DoctorUtilizationDTO(s.doctorId, d.name, ";
+    String UTILIZATION_SUMS = "SUM(s.schedules), SUM(s.capacity), SUM(s.booked), SUM(s.appointments), " +
+            "SUM(s.scheduled), SUM(s.completed), SUM(s.cancelled)) " +
+            "FROM DoctorDailyStats s LEFT JOIN Doctor d ON d.id = s.doctorId " +
+            "WHERE s.statDate BETWEEN :from AND :to ";
+
+    @Query(UTILIZATION_SELECT + "s.statDate, s.statDate, " + UTILIZATION_SUMS +
+           "GROUP BY s.doctorId, d.name, s.statDate ORDER BY s.statDate, s.doctorId")
+    List<DoctorUtilizationDTO> findDaily(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query(UTILIZATION_SELECT + "s.statDate, s.statDate, " + UTILIZATION_SUMS + "AND s.doctorId = :doctorId " +
+           "GROUP BY s.doctorId, d.name, s.statDate ORDER BY s.statDate")
+    List<DoctorUtilizationDTO> findDailyByDoctor(@Param("doctorId") Long doctorId,
+                                                 @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query(UTILIZATION_SELECT + "MIN(s.statDate), MAX(s.statDate), " + UTILIZATION_SUMS +
+           "GROUP BY s.doctorId, d.name ORDER BY s.doctorId")
+    List<DoctorUtilizationDTO> findTotals(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -1,17 +1,28 @@
 package com.hms.repository;
 
+import java.util.List;
 import java.util.Optional;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.hms.dto.DoctorSummaryDTO;
 import com.hms.entity.Doctor;
 import com.hms.entity.User;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface DoctorRepository extends JpaRepository<Doctor, Long> {
+
+    // Doctor directory is read on every booking page; served from the query cache
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Doctor> findAll();
     
     // Find doctor by user
     Optional<Doctor> findByUser(User user);
@@ -19,4 +30,17 @@ public interface DoctorRepository extends JpaRepository<Doctor, Long> {
     // ✅ IMPROVED: Find doctor by user ID with explicit query
     @Query("SELECT d FROM Doctor d WHERE d.user.id = :userId")
     Optional<Doctor> findByUserId(@Param("userId") Long userId);
-}
\ No newline at end of file
+
+    // ✅ Current-doctor resolution: [userId, doctorId] in one statement (doctorId null if missing)
+    @Query("SELECT u.id, d.id FROM User u LEFT JOIN Doctor d ON d.user = u WHERE u.username = :username")
+    List<Object[]> findUserAndDoctorId(@Param("username") String username);
+
+    // ✅ Profile page: doctor + user in one statement
+    @Query("SELECT d FROM Doctor d JOIN FETCH d.user u WHERE u.username = :username")
+    Optional<Doctor> findProfileByUsername(@Param("username") String username);
+
+    // ✅ Directory index loading: summary columns only
+    @Query("SELECT new com.hms.dto.DoctorSummaryDTO(d.id, d.name, d.specialization, d.department, d.languagesSpoken, " +
+           "d.contact, d.experienceYears, d.consultationFee, d.officeLocation) FROM Doctor d")
+    List<DoctorSummaryDTO> findAllSummaries();
+}
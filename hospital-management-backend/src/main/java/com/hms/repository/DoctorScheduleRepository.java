@@ -1,29 +1,116 @@
 package com.hms.repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.hms.entity.DoctorSchedule;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface DoctorScheduleRepository extends JpaRepository<DoctorSchedule, Long> {
     List<DoctorSchedule> findByDoctorId(Long doctorId);
+
+    // ✅ Booking / cancellation: row lock so concurrent requests see each other's sub-slot counters
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT ds FROM DoctorSchedule ds WHERE ds.id = :id")
+    Optional<DoctorSchedule> findByIdForUpdate(@Param("id") Long id);
     List<DoctorSchedule> findByAvailableDate(LocalDate availableDate);
     List<DoctorSchedule> findByDoctorIdAndAvailableDate(Long doctorId, LocalDate availableDate);
     
-    // Find available schedules using isBooked field
-    List<DoctorSchedule> findByIsBookedFalse();
-    List<DoctorSchedule> findByDoctorIdAndIsBookedFalse(Long doctorId);
+    // Find available schedules using isBooked field (✅ from a date on: past slots are never available)
+    List<DoctorSchedule> findByIsBookedFalseAndClosedFalseAndAvailableDateGreaterThanEqual(LocalDate from);
+    List<DoctorSchedule> findByDoctorIdAndIsBookedFalseAndClosedFalseAndAvailableDateGreaterThanEqual(Long doctorId, LocalDate from);
     
-    // Find schedules with current bookings less than max patients
-    @Query("SELECT ds FROM DoctorSchedule ds WHERE ds.doctor.id = :doctorId AND ds.isBooked = false AND ds.currentBookings < ds.maxPatients")
-    List<DoctorSchedule> findAvailableSchedulesByDoctor(@Param("doctorId") Long doctorId);
+    // Find schedules with current bookings less than max patients, today onwards
+    @Query("SELECT ds FROM DoctorSchedule ds WHERE ds.doctor.id = :doctorId AND ds.availableDate >= :from " +
+           "AND ds.isBooked = false AND ds.closed = false AND ds.currentBookings < ds.maxPatients ORDER BY ds.availableDate, ds.startTime")
+    List<DoctorSchedule> findAvailableSchedulesByDoctor(@Param("doctorId") Long doctorId, @Param("from") LocalDate from);
     
-    @Query("SELECT ds FROM DoctorSchedule ds WHERE ds.doctor.id = :doctorId AND ds.availableDate = :date AND ds.isBooked = false AND ds.currentBookings < ds.maxPatients")
+    // Availability stream: doctor fetched with the schedules so DTOs build outside a session
+    @Query("SELECT ds FROM DoctorSchedule ds JOIN FETCH ds.doctor WHERE ds.doctor.id = :doctorId AND ds.availableDate >= :from " +
+           "AND ds.isBooked = false AND ds.closed = false AND ds.currentBookings < ds.maxPatients ORDER BY ds.availableDate, ds.startTime")
+    List<DoctorSchedule> findAvailableWithDoctor(@Param("doctorId") Long doctorId, @Param("from") LocalDate from);
+    
+    @Query("SELECT ds FROM DoctorSchedule ds WHERE ds.doctor.id = :doctorId AND ds.availableDate = :date AND ds.isBooked = false AND ds.closed = false AND ds.currentBookings < ds.maxPatients")
     List<DoctorSchedule> findAvailableSchedulesByDoctorAndDate(@Param("doctorId") Long doctorId, @Param("date") LocalDate date);
+
+    // ✅ Purge: past schedules nobody booked and no appointment (not even a cancelled one) references.
+    // Locked until the batch commits; lock timeout -2 = SKIP LOCKED, so a concurrent purge takes other rows.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT ds FROM DoctorSchedule ds WHERE ds.availableDate < :cutoff AND ds.currentBookings = 0 " +
+           "AND NOT EXISTS (SELECT 1 FROM Appointment a WHERE a.schedule = ds) ORDER BY ds.id")
+    List<DoctorSchedule> lockPurgeable(@Param("cutoff") LocalDate cutoff, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM DoctorSchedule ds WHERE ds.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    // ✅ Bulk reschedule targets: open schedules of the same doctor after the leave, or of doctors with the
+    // same specialization, in the order they are offered. Ids only; the rows are locked afterwards.
+    @Query("SELECT ds.id FROM DoctorSchedule ds JOIN ds.doctor d WHERE ds.availableDate BETWEEN :from AND :until " +
+           "AND ds.isBooked = false AND ds.closed = false AND ds.currentBookings < ds.maxPatients " +
+           "AND ((d.id = :doctorId AND ds.availableDate > :leaveEnd) " +
+           "OR (:otherDoctors = true AND d.id <> :doctorId AND d.specialization = :specialization)) " +
+           "ORDER BY ds.availableDate, ds.startTime, ds.id")
+    List<Long> findRescheduleTargets(@Param("doctorId") Long doctorId, @Param("leaveEnd") LocalDate leaveEnd,
+                                     @Param("from") LocalDate from, @Param("until") LocalDate until,
+                                     @Param("otherDoctors") boolean otherDoctors,
+                                     @Param("specialization") String specialization, Pageable pageable);
+
+    // ✅ Bulk reschedule: every schedule of the doctor during the leave, closed once the run applies
+    @Query("SELECT ds.id FROM DoctorSchedule ds WHERE ds.doctor.id = :doctorId AND ds.availableDate BETWEEN :from AND :to")
+    List<Long> findIdsByDoctorBetween(@Param("doctorId") Long doctorId, @Param("from") LocalDate from,
+                                      @Param("to") LocalDate to);
+
+    // Several rows locked at once: always in id order, so two multi-row lockers cannot deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT ds FROM DoctorSchedule ds WHERE ds.id IN :ids ORDER BY ds.id")
+    List<DoctorSchedule> lockAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Same rows without the lock, for plans that are never applied
+    @Query("SELECT ds FROM DoctorSchedule ds WHERE ds.id IN :ids ORDER BY ds.id")
+    List<DoctorSchedule> findAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    // ✅ Reconciliation: schedules are walked in id order, one chunk per transaction.
+    // The locking variant takes the same row locks a booking takes, so counts cannot move underneath it.
+    @Query(value = "SELECT s.id FROM doctor_schedule s WHERE s.id > :after ORDER BY s.id LIMIT :limit", nativeQuery = true)
+    List<Long> findIdsAfter(@Param("after") long after, @Param("limit") int limit);
+
+    @Query(value = "SELECT s.id FROM doctor_schedule s WHERE s.id > :after ORDER BY s.id LIMIT :limit FOR UPDATE", nativeQuery = true)
+    List<Long> lockIdsAfter(@Param("after") long after, @Param("limit") int limit);
+
+    // Live (non-cancelled) bookings per schedule of the chunk, read once through the schedule_id index
+    String LIVE_BOOKINGS = "LEFT JOIN (SELECT a.schedule_id, COUNT(*) AS live FROM appointment a " +
+            "WHERE a.schedule_id IN (:ids) AND (a.status IS NULL OR a.status <> 'CANCELLED') " +
+            "GROUP BY a.schedule_id) c ON c.schedule_id = s.id ";
+    // Same rule as DoctorSchedule.rebuildOccupancy: full once live bookings reach maxPatients
+    String BOOKED_FLAG = "(s.max_patients IS NOT NULL AND COALESCE(c.live, 0) >= s.max_patients)";
+    String DRIFTED = "WHERE s.id IN (:ids) AND (s.current_bookings <> COALESCE(c.live, 0) " +
+            "OR COALESCE(s.is_booked, FALSE) <> " + BOOKED_FLAG + ")";
+
+    // Rows: id, doctor_id, available_date, current_bookings, live bookings
+    @Query(value = "SELECT s.id, s.doctor_id, s.available_date, s.current_bookings, COALESCE(c.live, 0) " +
+            "FROM doctor_schedule s " + LIVE_BOOKINGS + DRIFTED + " ORDER BY s.id", nativeQuery = true)
+    List<Object[]> findDrift(@Param("ids") Collection<Long> ids);
+
+    // Occupancy counters are dropped, ScheduleSlotService rebuilds them on the next booking
+    @Modifying
+    @Query(value = "UPDATE doctor_schedule s " + LIVE_BOOKINGS +
+            "SET s.current_bookings = COALESCE(c.live, 0), s.is_booked = " + BOOKED_FLAG + ", s.slot_occupancy = NULL " +
+            DRIFTED, nativeQuery = true)
+    int reconcileBookings(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
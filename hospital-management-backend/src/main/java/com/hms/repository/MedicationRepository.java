@@ -1,5 +1,6 @@
 package com.hms.repository;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -15,9 +16,18 @@ import com.hms.entity.Medication;
 public interface MedicationRepository extends JpaRepository<Medication, Long> {
     
     List<Medication> findByPrescriptionId(Long prescriptionId);
+
+    // ✅ One IN query for the medications of a whole prescription list
+    @Query("SELECT m FROM Medication m WHERE m.prescription.id IN :prescriptionIds ORDER BY m.id")
+    List<Medication> findByPrescriptionIdIn(@Param("prescriptionIds") Collection<Long> prescriptionIds);
     
     @Modifying
     @Transactional
     @Query("DELETE FROM Medication m WHERE m.prescription.id = :prescriptionId")
     void deleteByPrescriptionId(@Param("prescriptionId") Long prescriptionId);
+
+    // ✅ Archiving: bulk delete once the rows are copied to appointment_archive
+    @Modifying
+    @Query("DELETE FROM Medication m WHERE m.prescription.id IN :prescriptionIds")
+    int deleteByPrescriptionIdIn(@Param("prescriptionIds") Collection<Long> prescriptionIds);
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.hms.repository;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.hms.entity.PatientImportJob;
+
+public interface PatientImportJobRepository extends JpaRepository<PatientImportJob, String> {
+
+    // ✅ Conditional claim: 0 rows when another request is running the job (a RUNNING row whose
+    // checkpoint moved after staleBefore). A RUNNING row older than that belongs to a dead process.
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE PatientImportJob j SET j.status = 'RUNNING', j.updatedAt = :now WHERE j.jobId = :jobId " +
+           "AND j.status <> 'COMPLETED' AND (j.status <> 'RUNNING' OR j.updatedAt < :staleBefore)")
+    int claim(@Param("jobId") String jobId, @Param("now") LocalDateTime now, @Param("staleBefore") LocalDateTime staleBefore);
+}
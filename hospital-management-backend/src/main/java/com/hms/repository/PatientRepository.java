@@ -1,26 +1,77 @@
 package com.hms.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import com.hms.dto.DoctorPatientDTO;
+import com.hms.dto.PatientSearchResultDTO;
+import com.hms.dto.PatientSummaryDTO;
 import com.hms.entity.Patient;
 import com.hms.entity.User;
 
 public interface PatientRepository extends JpaRepository<Patient, Long> {
     
     Optional<Patient> findByUser(User user);
+
+    // ✅ Current-patient resolution: [userId, patientId] in one statement (patientId null if missing)
+    @Query("SELECT u.id, p.id FROM User u LEFT JOIN Patient p ON p.user = u WHERE u.username = :username")
+    List<Object[]> findUserAndPatientId(@Param("username") String username);
+
+    @Query("SELECT p FROM Patient p WHERE p.user.id = :userId")
+    Optional<Patient> findByUserId(@Param("userId") Long userId);
+
+    // ✅ Profile page: patient + user in one statement
+    @Query("SELECT p FROM Patient p JOIN FETCH p.user u WHERE u.username = :username")
+    Optional<Patient> findProfileByUsername(@Param("username") String username);
     
-    // ✅ ADD THIS: Find patients by doctor's user ID (through appointments)
-    @Query("SELECT DISTINCT p FROM Patient p JOIN Appointment a ON p.id = a.patient.id WHERE a.doctor.user.id = :doctorUserId")
-    List<Patient> findPatientsByDoctorUserId(@Param("doctorUserId") Long doctorUserId);
+    // ✅ Doctor's patient panel: one grouped pass over idx_appointment_doctor_patient,
+    // keyset-paged by patient id (pass size + 1 to detect a following page)
+    @Query("SELECT new com.hms.dto.DoctorPatientDTO(p.id, p.name, p.age, p.gender, " +
+           "MAX(CASE WHEN a.status = 'COMPLETED' THEN COALESCE(s.availableDate, a.appointmentDate) END), " +
+           "SUM(CASE WHEN a.status = 'COMPLETED' THEN 1L ELSE 0L END), COUNT(a.id)) " +
+           "FROM Appointment a JOIN a.patient p LEFT JOIN a.schedule s " +
+           "WHERE a.doctor.id = :doctorId AND p.id > :afterId " +
+           "GROUP BY p.id, p.name, p.age, p.gender ORDER BY p.id")
+    List<DoctorPatientDTO> findDoctorPatientsAfter(@Param("doctorId") Long doctorId, @Param("afterId") Long afterId,
+                                                   Pageable pageable);
     
     // ✅ ADD THIS: Find patients without user accounts
     List<Patient> findByUserIsNull();
     
     // ✅ ADD THIS: Check if patient exists by name and details (optional)
     Optional<Patient> findByNameAndAgeAndGender(String name, int age, String gender);
-}
\ No newline at end of file
+
+    // ✅ Search index loading: projections only, keyset-paged by id
+    @Query("SELECT new com.hms.dto.PatientSearchResultDTO(p.id, p.name, p.age, p.gender, u.id, u.email, u.phoneNumber) " +
+           "FROM Patient p LEFT JOIN p.user u WHERE p.id > :lastId ORDER BY p.id")
+    List<PatientSearchResultDTO> findSearchEntriesAfter(@Param("lastId") Long lastId, Pageable pageable);
+
+    @Query("SELECT new com.hms.dto.PatientSearchResultDTO(p.id, p.name, p.age, p.gender, u.id, u.email, u.phoneNumber) " +
+           "FROM Patient p LEFT JOIN p.user u WHERE p.id IN :ids")
+    List<PatientSearchResultDTO> findSearchEntriesByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT new com.hms.dto.PatientSearchResultDTO(p.id, p.name, p.age, p.gender, u.id, u.email, u.phoneNumber) " +
+           "FROM Patient p JOIN p.user u WHERE u.id IN :userIds")
+    List<PatientSearchResultDTO> findSearchEntriesByUserIds(@Param("userIds") Collection<Long> userIds);
+
+    // ✅ List screens: summary columns only, no wide text
+    @Query("SELECT new com.hms.dto.PatientSummaryDTO(p.id, p.name, p.age, p.gender) FROM Patient p")
+    List<PatientSummaryDTO> findAllSummaries();
+
+    @Query("SELECT new com.hms.dto.PatientSummaryDTO(p.id, p.name, p.age, p.gender) FROM Patient p WHERE p.user.id = :userId")
+    List<PatientSummaryDTO> findSummariesByUserId(@Param("userId") Long userId);
+
+    // Doctor's list screen: patients with at least one appointment with that doctor
+    @Query("SELECT DISTINCT new com.hms.dto.PatientSummaryDTO(p.id, p.name, p.age, p.gender) " +
+           "FROM Appointment a JOIN a.patient p WHERE a.doctor.user.id = :userId ORDER BY p.id")
+    List<PatientSummaryDTO> findSummariesByDoctorUserId(@Param("userId") Long userId);
+
+    @Query("SELECT DISTINCT p FROM Appointment a JOIN a.patient p WHERE a.doctor.user.id = :userId ORDER BY p.id")
+    List<Patient> findByDoctorUserId(@Param("userId") Long userId);
+}
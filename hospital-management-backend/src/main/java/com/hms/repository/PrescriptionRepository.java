@@ -1,13 +1,16 @@
 package com.hms.repository; // ✅ Make sure it's in repository package, not controller
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.hms.dto.PrescriptionResponseDTO;
 import com.hms.entity.Prescription;
 
 @Repository
@@ -21,4 +24,26 @@ public interface PrescriptionRepository extends JpaRepository<Prescription, Long
     
     @Query("SELECT p FROM Prescription p WHERE p.appointment.id = :appointmentId AND p.appointment.patient.id = :patientId")
     Optional<Prescription> findByAppointmentIdAndAppointmentPatientId(@Param("appointmentId") Long appointmentId, @Param("patientId") Long patientId);
-}
\ No newline at end of file
+
+    // ✅ List reads: prescription headers without loading Appointment/Patient/Doctor entities
+    String HEADER_SELECT = "SELECT new com.hms.dto.PrescriptionResponseDTO(pr.id, a.id, p.name, CAST(p.age AS String), p.gender, " +
+            "d.name, d.specialization, pr.hospitalName, pr.diagnosis, pr.instructions, pr.followUpDate, pr.createdDate) " +
+            "FROM Prescription pr JOIN pr.appointment a LEFT JOIN a.patient p LEFT JOIN a.doctor d ";
+
+    @Query(HEADER_SELECT + "WHERE p.id = :patientId")
+    List<PrescriptionResponseDTO> findHeadersByPatientId(@Param("patientId") Long patientId);
+
+    @Query(HEADER_SELECT + "WHERE p.id = :patientId AND a.status = :status")
+    List<PrescriptionResponseDTO> findHeadersByPatientIdAndStatus(@Param("patientId") Long patientId, @Param("status") String status);
+
+    @Query(HEADER_SELECT + "WHERE d.id = :doctorId")
+    List<PrescriptionResponseDTO> findHeadersByDoctorId(@Param("doctorId") Long doctorId);
+
+    @Query(HEADER_SELECT + "WHERE a.id IN :appointmentIds")
+    List<PrescriptionResponseDTO> findHeadersByAppointmentIds(@Param("appointmentIds") Collection<Long> appointmentIds);
+
+    // ✅ Archiving: bulk delete once the rows are copied to appointment_archive
+    @Modifying
+    @Query("DELETE FROM Prescription pr WHERE pr.appointment.id IN :appointmentIds")
+    int deleteByAppointmentIdIn(@Param("appointmentIds") Collection<Long> appointmentIds);
+}
@@ -1,12 +1,34 @@
 package com.hms.repository;
 
-import com.hms.entity.User;
+import java.util.List;
+import java.util.Optional;
+
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.util.Optional;
+import com.hms.entity.User;
+
+import jakarta.persistence.QueryHint;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+
+    // Hit on every authenticated request; resolved via the query cache + User region
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<User> findByUsername(String username);
+
+    // Prefix scan on idx_user_username; callers pass [a-z0-9] only, so no LIKE escaping needed
+    @Query("SELECT u.username FROM User u WHERE u.username LIKE CONCAT(:prefix, '%')")
+    List<String> findUsernamesStartingWith(@Param("prefix") String prefix);
+
+    // Login: user (roles are the role_mask column) + profile ids in one statement.
+    // Rows are [User, doctorId, patientId]; callers use the first one.
+    @Query("SELECT u, d.id, p.id FROM User u " +
+           "LEFT JOIN Doctor d ON d.user = u LEFT JOIN Patient p ON p.user = u " +
+           "WHERE u.username = :username")
+    List<Object[]> findLoginAccount(@Param("username") String username);
 }
@@ -0,0 +1,162 @@
+package com.hms.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hms.dto.AppointmentResponseDTO;
+import com.hms.dto.ArchivedAppointmentDTO;
+import com.hms.dto.PageResultDTO;
+import com.hms.dto.PrescriptionResponseDTO;
+import com.hms.entity.ArchivedAppointment;
+import com.hms.repository.ArchivedAppointmentRepository;
+
+/**
+ * Read side of the appointment archive (appointment_archive), used by AppointmentService
+ * and PrescriptionService. Single appointments and prescriptions fall back to the archive
+ * by id. Appointment and prescription lists get the newest hms.archive.list-limit archived
+ * rows in front of the live ones, so recent history stays where clients already look while
+ * a list never grows with the archive; older history is paged by date range.
+ * Lookups go through the key columns; only the rows returned are decompressed.
+ */
+@Service
+public class AppointmentArchiveService {
+
+    private final ArchivedAppointmentRepository archiveRepository;
+    private final ObjectMapper objectMapper;
+    private final int listLimit;
+
+    public AppointmentArchiveService(ArchivedAppointmentRepository archiveRepository, ObjectMapper objectMapper,
+                                     @Value("${hms.archive.list-limit:50}") int listLimit) {
+        this.archiveRepository = archiveRepository;
+        this.objectMapper = objectMapper;
+        this.listLimit = Math.max(0, listLimit);
+    }
+
+    public Optional<ArchivedAppointmentDTO> findByAppointmentId(Long appointmentId) {
+        return archiveRepository.findByAppointmentId(appointmentId).map(this::decode);
+    }
+
+    public Optional<ArchivedAppointmentDTO> findByPrescriptionId(Long prescriptionId) {
+        return archiveRepository.findByPrescriptionId(prescriptionId).map(this::decode);
+    }
+
+    public boolean isArchived(Long appointmentId) {
+        return archiveRepository.existsByAppointmentId(appointmentId);
+    }
+
+    /**
+     * One page of archived appointments dated within [from, to]; patientId / doctorId
+     * narrow it to one patient or doctor (both null = everyone). Only the page is decompressed.
+     */
+    public PageResultDTO<AppointmentResponseDTO> appointments(Long patientId, Long doctorId,
+                                                              LocalDate from, LocalDate to, int page, int size) {
+        PageRequest pageable = PageRequest.of(page, size);
+        Page<ArchivedAppointment> rows;
+        if (patientId != null) {
+            rows = archiveRepository.findByPatientInRange(patientId, from, to, pageable);
+        } else if (doctorId != null) {
+            rows = archiveRepository.findByDoctorInRange(doctorId, from, to, pageable);
+        } else {
+            rows = archiveRepository.findInRange(from, to, pageable);
+        }
+        List<AppointmentResponseDTO> content = rows.getContent().stream()
+                .map(row -> decode(row).getAppointment())
+                .toList();
+        return new PageResultDTO<>(content, page, size, rows.getTotalElements());
+    }
+
+    /**
+     * Newest archived appointments for the list endpoints, oldest first. patientId / doctorId
+     * narrow it as in appointments(); status filters on the appointment's status (null = any).
+     */
+    public List<AppointmentResponseDTO> recentAppointments(Long patientId, Long doctorId, String status) {
+        if (listLimit == 0) {
+            return List.of();
+        }
+        PageRequest newest = PageRequest.ofSize(listLimit);
+        List<ArchivedAppointment> rows;
+        if (patientId != null) {
+            rows = archiveRepository.findNewestByPatient(patientId, status, newest);
+        } else if (doctorId != null) {
+            rows = archiveRepository.findNewestByDoctor(doctorId, status, newest);
+        } else {
+            rows = archiveRepository.findNewest(status, newest);
+        }
+        return oldestFirst(rows.stream().map(row -> decode(row).getAppointment()).toList());
+    }
+
+    // Newest archived prescriptions, oldest first; status filters on the appointment's status (null = any)
+    public List<PrescriptionResponseDTO> prescriptionsForPatient(Long patientId, String status) {
+        if (listLimit == 0) {
+            return List.of();
+        }
+        return oldestFirst(archiveRepository.findNewestWithPrescriptionByPatient(patientId, status, PageRequest.ofSize(listLimit))
+                .stream()
+                .map(row -> decode(row).getPrescription())
+                .filter(Objects::nonNull)
+                .toList());
+    }
+
+    public List<PrescriptionResponseDTO> prescriptionsForDoctor(Long doctorId) {
+        if (listLimit == 0) {
+            return List.of();
+        }
+        return oldestFirst(archiveRepository.findNewestWithPrescriptionByDoctor(doctorId, PageRequest.ofSize(listLimit))
+                .stream()
+                .map(row -> decode(row).getPrescription())
+                .filter(Objects::nonNull)
+                .toList());
+    }
+
+    private static <T> List<T> oldestFirst(List<T> newestFirst) {
+        List<T> list = new ArrayList<>(newestFirst);
+        Collections.reverse(list);
+        return list;
+    }
+
+    /** Archived rows are older than anything live, so they go first. */
+    public static <T> List<T> withArchived(List<T> archived, List<T> live) {
+        if (archived.isEmpty()) {
+            return live;
+        }
+        List<T> merged = new ArrayList<>(archived.size() + live.size());
+        merged.addAll(archived);
+        merged.addAll(live);
+        return merged;
+    }
+
+    public byte[] encode(ArchivedAppointmentDTO content) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream gzip = new GZIPOutputStream(bytes)) {
+            objectMapper.writeValue(gzip, content);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not encode archived appointment: " + e.getMessage());
+        }
+        return bytes.toByteArray();
+    }
+
+    private ArchivedAppointmentDTO decode(ArchivedAppointment row) {
+        try (InputStream gzip = new GZIPInputStream(new ByteArrayInputStream(row.getPayload()))) {
+            return objectMapper.readValue(gzip, ArchivedAppointmentDTO.class);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read archived appointment " + row.getAppointmentId() + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.hms.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.hms.dto.AppointmentResponseDTO;
+import com.hms.dto.ArchivedAppointmentDTO;
+import com.hms.dto.PrescriptionResponseDTO;
+import com.hms.entity.Appointment;
+import com.hms.entity.ArchivedAppointment;
+import com.hms.repository.AppointmentRepository;
+import com.hms.repository.ArchivedAppointmentRepository;
+import com.hms.repository.MedicationRepository;
+import com.hms.repository.PrescriptionRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Nightly move of COMPLETED / CANCELLED appointments older than hms.archive.horizon-days
+ * (with their prescription and medications) from the live tables to appointment_archive.
+ *
+ * Each batch of hms.archive.batch-size appointments is one transaction: lock the
+ * appointments, write the archive rows, bulk-delete medications, prescriptions and
+ * appointments. A failed batch rolls back whole and is retried the next night.
+ * The nightly run goes through MaintenanceJobRunner, not the scheduler thread.
+ *
+ * Metrics: hms.archive.appointments (moved), hms.archive.batch (timer).
+ */
+@Service
+public class AppointmentArchiver {
+
+    private final AppointmentRepository appointmentRepository;
+    private final PrescriptionRepository prescriptionRepository;
+    private final MedicationRepository medicationRepository;
+    private final ArchivedAppointmentRepository archiveRepository;
+    private final PrescriptionService prescriptionService;
+    private final AppointmentArchiveService archiveService;
+    private final TransactionTemplate transactionTemplate;
+    private final MaintenanceJobRunner maintenanceJobRunner;
+    private final boolean enabled;
+    private final int horizonDays;
+    private final int batchSize;
+
+    private final Counter archived;
+    private final Timer batchTimer;
+
+    public AppointmentArchiver(AppointmentRepository appointmentRepository,
+                               PrescriptionRepository prescriptionRepository,
+                               MedicationRepository medicationRepository,
+                               ArchivedAppointmentRepository archiveRepository,
+                               PrescriptionService prescriptionService,
+                               AppointmentArchiveService archiveService,
+                               PlatformTransactionManager transactionManager,
+                               MaintenanceJobRunner maintenanceJobRunner,
+                               MeterRegistry meterRegistry,
+                               @Value("${hms.archive.enabled:false}") boolean enabled,
+                               @Value("${hms.archive.horizon-days:730}") int horizonDays,
+                               @Value("${hms.archive.batch-size:200}") int batchSize) {
+        this.appointmentRepository = appointmentRepository;
+        this.prescriptionRepository = prescriptionRepository;
+        this.medicationRepository = medicationRepository;
+        this.archiveRepository = archiveRepository;
+        this.prescriptionService = prescriptionService;
+        this.archiveService = archiveService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maintenanceJobRunner = maintenanceJobRunner;
+        this.enabled = enabled;
+        this.horizonDays = horizonDays;
+        this.batchSize = batchSize;
+
+        this.archived = Counter.builder("hms.archive.appointments")
+                .description("Appointments moved to appointment_archive")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("hms.archive.batch").register(meterRegistry);
+    }
+
+    // The batches loop for as long as there is backlog: run them off the scheduler thread
+    @Scheduled(cron = "${hms.archive.cron:0 0 3 * * *}")
+    public void archiveScheduled() {
+        if (enabled) {
+            maintenanceJobRunner.submit("Appointment archiving", this::archive);
+        }
+    }
+
+    /** Archives everything past the horizon; returns the number of appointments moved. */
+    public int archive() {
+        LocalDate cutoff = LocalDate.now().minusDays(horizonDays);
+        int total = 0;
+        try {
+            while (true) {
+                long start = System.nanoTime();
+                Integer moved = transactionTemplate.execute(status -> archiveBatch(cutoff));
+                batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                if (moved == null || moved == 0) {
+                    break;
+                }
+                total += moved;
+                archived.increment(moved);
+            }
+        } catch (Exception e) {
+            System.err.println("❌ Archiving stopped after " + total + " appointments: " + e.getMessage());
+        }
+        System.out.println("🗄️ Archived " + total + " appointments dated before " + cutoff);
+        return total;
+    }
+
+    private int archiveBatch(LocalDate cutoff) {
+        List<Long> ids = appointmentRepository.lockArchivable(cutoff, PageRequest.of(0, batchSize)).stream()
+                .map(Appointment::getId)
+                .toList();
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, PrescriptionResponseDTO> prescriptions = new HashMap<>();
+        for (PrescriptionResponseDTO prescription : prescriptionService.getPrescriptionsForAppointments(ids)) {
+            prescriptions.put(prescription.getAppointmentId(), prescription);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<ArchivedAppointment> rows = new ArrayList<>(ids.size());
+        for (AppointmentResponseDTO appointment : appointmentRepository.findSummariesByIds(ids)) {
+            PrescriptionResponseDTO prescription = prescriptions.get(appointment.getId());
+            ArchivedAppointment row = new ArchivedAppointment();
+            row.setAppointmentId(appointment.getId());
+            row.setPatientId(appointment.getPatientId());
+            row.setDoctorId(appointment.getDoctorId());
+            row.setPrescriptionId(prescription != null ? prescription.getId() : null);
+            row.setAppointmentDate(appointment.getAppointmentDate() != null ? appointment.getAppointmentDate() : cutoff);
+            row.setStatus(appointment.getStatus());
+            row.setPayload(archiveService.encode(new ArchivedAppointmentDTO(appointment, prescription)));
+            row.setArchivedAt(now);
+            rows.add(row);
+        }
+        archiveRepository.saveAll(rows);
+
+        if (!prescriptions.isEmpty()) {
+            List<Long> prescriptionIds = prescriptions.values().stream().map(PrescriptionResponseDTO::getId).toList();
+            medicationRepository.deleteByPrescriptionIdIn(prescriptionIds);
+            prescriptionRepository.deleteByAppointmentIdIn(ids);
+        }
+        appointmentRepository.deleteByIdIn(ids);
+        return ids.size();
+    }
+}
@@ -1,20 +1,24 @@
 package com.hms.service;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.List;
-import java.util.Optional;
-import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.hms.dto.AppointmentEventDTO;
 import com.hms.dto.AppointmentResponseDTO;
+import com.hms.dto.ArchivedAppointmentDTO;
+import com.hms.dto.PageResultDTO;
+import com.hms.dto.QueueEntryDTO;
 import com.hms.entity.Appointment;
 import com.hms.entity.Doctor;
 import com.hms.entity.DoctorSchedule;
 import com.hms.entity.Patient;
-import com.hms.entity.Prescription;
+import com.hms.entity.Role;
 import com.hms.entity.User;
 import com.hms.repository.AppointmentRepository;
 import com.hms.repository.DoctorRepository;
@@ -22,11 +26,15 @@ import com.hms.repository.DoctorScheduleRepository;
 import com.hms.repository.PatientRepository;
 import com.hms.repository.PrescriptionRepository;
 import com.hms.repository.UserRepository;
+import com.hms.util.AfterCommit;
+
 
 @Service
 @Transactional
 public class AppointmentService {
 
+    private static final int MAX_ARCHIVE_RANGE_DAYS = 366;
+
     @Autowired
     private AppointmentRepository appointmentRepository;
 
@@ -51,6 +59,18 @@ public class AppointmentService {
     @Autowired
     private DoctorService doctorService;
 
+    @Autowired
+    private ScheduleSlotService scheduleSlotService;
+
+    @Autowired
+    private DomainEventPublisher domainEventPublisher;
+
+    @Autowired
+    private WaitingRoomService waitingRoomService;
+
+    @Autowired
+    private AppointmentArchiveService archiveService;
+
     // ✅ FIXED: Constructor with all dependencies to avoid autowiring issues
     public AppointmentService(AppointmentRepository appointmentRepository,
                             PatientRepository patientRepository,
@@ -59,7 +79,11 @@ public class AppointmentService {
                             UserRepository userRepository,
                             PrescriptionRepository prescriptionRepository,
                             PatientService patientService,
-                            DoctorService doctorService) {
+                            DoctorService doctorService,
+                            ScheduleSlotService scheduleSlotService,
+                            DomainEventPublisher domainEventPublisher,
+                            WaitingRoomService waitingRoomService,
+                            AppointmentArchiveService archiveService) {
         this.appointmentRepository = appointmentRepository;
         this.patientRepository = patientRepository;
         this.doctorRepository = doctorRepository;
@@ -68,41 +92,59 @@ public class AppointmentService {
         this.prescriptionRepository = prescriptionRepository;
         this.patientService = patientService;
         this.doctorService = doctorService;
+        this.scheduleSlotService = scheduleSlotService;
+        this.domainEventPublisher = domainEventPublisher;
+        this.waitingRoomService = waitingRoomService;
+        this.archiveService = archiveService;
     }
 
+    @Transactional(readOnly = true)
     public List<AppointmentResponseDTO> getAllAppointments(String username) {
         User currentUser = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
-        List<Appointment> appointments;
+        List<AppointmentResponseDTO> appointments;
         
-        // Role-based data filtering
-        if (currentUser.getRoles().contains("ROLE_ADMIN")) {
+        // Role-based data filtering (summary projections, no entity graphs)
+        if (currentUser.hasRole(Role.ADMIN)) {
             // Admin sees all appointments
-            appointments = appointmentRepository.findAll();
+            appointments = AppointmentArchiveService.withArchived(
+                    archiveService.recentAppointments(null, null, null), appointmentRepository.findAllSummaries());
             System.out.println("👑 ADMIN: Returning all " + appointments.size() + " appointments");
-        } else if (currentUser.getRoles().contains("ROLE_DOCTOR")) {
+        } else if (currentUser.hasRole(Role.DOCTOR)) {
             // Doctor sees only their appointments - USE AUTO-CREATING METHOD
             Doctor doctor = doctorService.getCurrentDoctor(username);
-            appointments = appointmentRepository.findByDoctorId(doctor.getId());
+            appointments = AppointmentArchiveService.withArchived(
+                    archiveService.recentAppointments(null, doctor.getId(), null),
+                    appointmentRepository.findSummariesByDoctorId(doctor.getId()));
             System.out.println("👨‍⚕️ DOCTOR: Returning " + appointments.size() + " appointments for doctor ID: " + doctor.getId());
-        } else if (currentUser.getRoles().contains("ROLE_PATIENT")) {
+        } else if (currentUser.hasRole(Role.PATIENT)) {
             // Patient sees only their appointments - USE AUTO-CREATING METHOD
             Patient patient = patientService.getCurrentPatient(username);
-            appointments = appointmentRepository.findByPatientId(patient.getId());
+            appointments = AppointmentArchiveService.withArchived(
+                    archiveService.recentAppointments(patient.getId(), null, null),
+                    appointmentRepository.findSummariesByPatientId(patient.getId()));
             System.out.println("👤 PATIENT: Returning " + appointments.size() + " appointments for patient ID: " + patient.getId());
         } else {
             throw new RuntimeException("Unauthorized access");
         }
         
-        return appointments.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return appointments;
     }
 
+    @Transactional(readOnly = true)
     public AppointmentResponseDTO getAppointmentById(Long id, String username) {
-        Appointment appointment = appointmentRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Appointment not found"));
+        Appointment appointment = appointmentRepository.findById(id).orElse(null);
+        if (appointment == null) {
+            // ✅ ADDED: Past the archive horizon the appointment is served from the archive
+            AppointmentResponseDTO archived = archiveService.findByAppointmentId(id)
+                    .map(ArchivedAppointmentDTO::getAppointment)
+                    .orElseThrow(() -> new RuntimeException("Appointment not found"));
+            if (!hasAccess(archived.getPatientId(), archived.getDoctorId(), username)) {
+                throw new RuntimeException("Access denied to this appointment");
+            }
+            return archived;
+        }
         
         // ✅ ADDED: Authorization check
         if (!hasAccessToAppointment(appointment, username)) {
@@ -123,7 +165,7 @@ public class AppointmentService {
                     .orElseThrow(() -> new RuntimeException("User not found: " + username));
             
             Patient patient;
-            if (currentUser.getRoles().contains("ROLE_PATIENT")) {
+            if (currentUser.hasRole(Role.PATIENT)) {
                 try {
                     patient = patientService.getCurrentPatient(username);
                     System.out.println("✅ Using patient ID: " + patient.getId() + " for user: " + username);
@@ -165,11 +207,8 @@ public class AppointmentService {
             Long scheduleId = appointment.getSchedule().getId();
             System.out.println("🔍 Validating schedule with ID: " + scheduleId);
             
-            DoctorSchedule schedule = scheduleRepository.findById(scheduleId)
-                    .orElseThrow(() -> {
-                        System.err.println("❌ Schedule not found with ID: " + scheduleId);
-                        return new RuntimeException("Selected time slot is no longer available. Please choose another time.");
-                    });
+            // ✅ Row lock held until commit: concurrent bookings queue on the sub-slot counters
+            DoctorSchedule schedule = scheduleSlotService.lock(scheduleId);
 
             // Check schedule availability and ownership
             if (!schedule.getDoctor().getId().equals(doctorId)) {
@@ -192,28 +231,24 @@ public class AppointmentService {
             newAppointment.setCreatedDate(LocalDateTime.now());
             newAppointment.setUpdatedDate(LocalDateTime.now());
 
-            // Book the schedule slot
-            try {
-                schedule.bookSlot();
-                scheduleRepository.save(schedule);
-                System.out.println("✅ Schedule slot booked successfully");
-            } catch (Exception e) {
-                System.err.println("❌ Error booking schedule slot: " + e.getMessage());
-                throw new RuntimeException("Failed to reserve the appointment time. Please try again.");
-            }
+            // ✅ Book the requested sub-slot (or the earliest free one when no time was given)
+            LocalTime slotTime = scheduleSlotService.book(schedule, appointment.getAppointmentTime());
+            newAppointment.setAppointmentDate(schedule.getAvailableDate());
+            newAppointment.setAppointmentTime(slotTime);
+            System.out.println("✅ Schedule slot booked successfully at " + slotTime);
 
-            // Save appointment
+            // Save appointment (a failure rolls the booking back with the transaction)
             Appointment savedAppointment;
             try {
                 savedAppointment = appointmentRepository.save(newAppointment);
                 System.out.println("✅ Appointment created successfully with ID: " + savedAppointment.getId());
             } catch (Exception e) {
                 System.err.println("❌ Error saving appointment: " + e.getMessage());
-                // Rollback schedule booking
-                schedule.cancelBooking();
-                scheduleRepository.save(schedule);
                 throw new RuntimeException("Failed to create appointment. Please try again.");
             }
+
+            // ✅ ADDED: Downstream work (notifications, stats) runs from the outbox, not in this request
+            domainEventPublisher.appointmentEvent(AppointmentEventDTO.BOOKED, savedAppointment);
             
             return convertToDTO(savedAppointment);
             
@@ -228,8 +263,7 @@ public class AppointmentService {
     }
 
     public AppointmentResponseDTO updateAppointmentStatus(Long id, String status, String username) {
-        Appointment appointment = appointmentRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Appointment not found"));
+        Appointment appointment = findLiveAppointment(id);
 
         // ✅ ADDED: Authorization check
         if (!hasAccessToAppointment(appointment, username)) {
@@ -247,26 +281,21 @@ public class AppointmentService {
             }
         }
 
+        syncSlot(appointment, status);
+
+        String previousStatus = appointment.getStatus();
         appointment.setStatus(status);
         appointment.setUpdatedDate(LocalDateTime.now());
 
-        // If status is completed, ensure prescription is accessible to patient
-        if ("COMPLETED".equals(status)) {
-            Optional<Prescription> existingPrescription = prescriptionRepository.findByAppointmentId(id);
-            if (existingPrescription.isPresent()) {
-                System.out.println("✅ Prescription is now accessible to patient for appointment: " + id);
-            } else {
-                System.out.println("ℹ️ No prescription found for completed appointment: " + id);
-            }
-        }
-
+        // Prescription access check for COMPLETED now runs in PrescriptionAccessSubscriber
         Appointment savedAppointment = appointmentRepository.save(appointment);
+        publishStatusChange(previousStatus, savedAppointment);
+        leaveWaitingRoom(savedAppointment, false);
         return convertToDTO(savedAppointment);
     }
 
     public AppointmentResponseDTO updateAppointment(Long id, Appointment appointmentUpdates, String username) {
-        Appointment appointment = appointmentRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Appointment not found"));
+        Appointment appointment = findLiveAppointment(id);
 
         // ✅ ADDED: Authorization check
         if (!hasAccessToAppointment(appointment, username)) {
@@ -276,112 +305,251 @@ public class AppointmentService {
         if (appointmentUpdates.getReason() != null) {
             appointment.setReason(appointmentUpdates.getReason());
         }
+        if (appointmentUpdates.getStatus() != null) {
+            syncSlot(appointment, appointmentUpdates.getStatus());
+        }
+
+        String previousStatus = appointment.getStatus();
         if (appointmentUpdates.getStatus() != null) {
             appointment.setStatus(appointmentUpdates.getStatus());
         }
 
         appointment.setUpdatedDate(LocalDateTime.now());
         Appointment savedAppointment = appointmentRepository.save(appointment);
+        publishStatusChange(previousStatus, savedAppointment);
+        leaveWaitingRoom(savedAppointment, false);
         return convertToDTO(savedAppointment);
     }
 
+    // ✅ ADDED: Cancelling gives the sub-slot back; reviving a cancelled appointment takes
+    // a place again, so it fails like a new booking when the sub-slot has filled up since
+    private void syncSlot(Appointment appointment, String newStatus) {
+        boolean wasCancelled = "CANCELLED".equals(appointment.getStatus());
+        boolean cancelled = "CANCELLED".equals(newStatus);
+        if (cancelled && !wasCancelled) {
+            scheduleSlotService.release(appointment);
+        } else if (wasCancelled && !cancelled && appointment.getSchedule() != null) {
+            DoctorSchedule schedule = scheduleSlotService.lock(appointment.getSchedule().getId());
+            appointment.setAppointmentTime(scheduleSlotService.book(schedule, appointment.getAppointmentTime()));
+        }
+    }
+
     public void deleteAppointment(Long id, String username) {
-        Appointment appointment = appointmentRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Appointment not found"));
+        Appointment appointment = findLiveAppointment(id);
         
         // ✅ ADDED: Authorization check
         if (!hasAccessToAppointment(appointment, username)) {
             throw new RuntimeException("Access denied to this appointment");
         }
         
-        // Free up the schedule when appointment is deleted
-        DoctorSchedule schedule = appointment.getSchedule();
-        if (schedule != null) {
-            schedule.cancelBooking();
-            scheduleRepository.save(schedule);
+        // Free up the schedule when appointment is deleted (cancelled ones already did)
+        if (!"CANCELLED".equals(appointment.getStatus())) {
+            scheduleSlotService.release(appointment);
+            domainEventPublisher.appointmentEvent(AppointmentEventDTO.CANCELLED, appointment);
         }
         
+        leaveWaitingRoom(appointment, true);
         appointmentRepository.delete(appointment);
     }
 
+    // ✅ ADDED: Patient arrival. Queues the appointment on the doctor's waiting-room board;
+    // checking in twice is harmless and returns the same appointment
+    public AppointmentResponseDTO checkIn(Long id, String username) {
+        Appointment appointment = findLiveAppointment(id);
+
+        if (!hasAccessToAppointment(appointment, username)) {
+            throw new RuntimeException("Access denied to this appointment");
+        }
+        if (appointment.getCheckedInAt() != null) {
+            return convertToDTO(appointment);
+        }
+        if (!"SCHEDULED".equals(appointment.getStatus())) {
+            throw new RuntimeException("Only scheduled appointments can be checked in");
+        }
+        LocalDate date = appointment.getAppointmentDate();
+        if (!LocalDate.now().equals(date)) {
+            throw new RuntimeException("Check-in is only possible on the day of the appointment");
+        }
+
+        // Conditional update: a concurrent check-in or cancellation makes this match nothing
+        LocalDateTime now = LocalDateTime.now();
+        if (appointmentRepository.markCheckedIn(id, now) == 0) {
+            throw new RuntimeException("Appointment was checked in or changed by another request, please refresh");
+        }
+        appointment = appointmentRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Appointment not found"));
+
+        QueueEntryDTO entry = new QueueEntryDTO(appointment.getId(), appointment.getDoctor().getId(),
+                appointment.getPatient().getId(), appointment.getPatient().getName(),
+                appointment.getAppointmentTime(), appointment.getCheckedInAt(), appointment.getReason());
+        AfterCommit.run(() -> waitingRoomService.checkedIn(entry, date));
+        System.out.println("🪑 Appointment " + id + " checked in for doctor " + entry.getDoctorId());
+        return convertToDTO(appointment);
+    }
+
+    // ✅ ADDED: Only the doctor whose board it is (or an admin) sees the waiting room
+    @Transactional(readOnly = true)
+    public void checkWaitingRoomAccess(Long doctorId, String username) {
+        User currentUser = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        if (currentUser.hasRole(Role.ADMIN)) {
+            return;
+        }
+        if (currentUser.hasRole(Role.DOCTOR) && doctorId.equals(doctorService.getCurrentDoctor(username).getId())) {
+            return;
+        }
+        throw new RuntimeException("Access denied to this waiting room");
+    }
+
+    @Transactional(readOnly = true)
     public List<AppointmentResponseDTO> getAppointmentsByPatient(Long patientId, String username) {
         // ✅ ADDED: Authorization check - patients can only see their own appointments
         User currentUser = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
-        if (currentUser.getRoles().contains("ROLE_PATIENT")) {
+        if (currentUser.hasRole(Role.PATIENT)) {
             Patient currentPatient = patientService.getCurrentPatient(username);
             if (!patientId.equals(currentPatient.getId())) {
                 throw new RuntimeException("Patients can only view their own appointments");
             }
         }
         
-        List<Appointment> appointments = appointmentRepository.findByPatientId(patientId);
-        return appointments.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return AppointmentArchiveService.withArchived(
+                archiveService.recentAppointments(patientId, null, null),
+                appointmentRepository.findSummariesByPatientId(patientId));
     }
 
+    @Transactional(readOnly = true)
     public List<AppointmentResponseDTO> getAppointmentsByDoctor(Long doctorId, String username) {
         // ✅ ADDED: Authorization check - doctors can only see their own appointments
         User currentUser = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
-        if (currentUser.getRoles().contains("ROLE_DOCTOR")) {
+        if (currentUser.hasRole(Role.DOCTOR)) {
             Doctor currentDoctor = doctorService.getCurrentDoctor(username);
             if (!doctorId.equals(currentDoctor.getId())) {
                 throw new RuntimeException("Doctors can only view their own appointments");
             }
         }
         
-        List<Appointment> appointments = appointmentRepository.findByDoctorId(doctorId);
-        return appointments.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return AppointmentArchiveService.withArchived(
+                archiveService.recentAppointments(null, doctorId, null),
+                appointmentRepository.findSummariesByDoctorId(doctorId));
     }
 
+    @Transactional(readOnly = true)
     public List<AppointmentResponseDTO> getAppointmentsByStatus(String status, String username) {
         User currentUser = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
-        List<Appointment> appointments;
+        List<AppointmentResponseDTO> appointments;
         
         // Role-based filtering
-        if (currentUser.getRoles().contains("ROLE_ADMIN")) {
-            appointments = appointmentRepository.findByStatus(status);
-        } else if (currentUser.getRoles().contains("ROLE_DOCTOR")) {
+        if (currentUser.hasRole(Role.ADMIN)) {
+            appointments = AppointmentArchiveService.withArchived(
+                    archiveService.recentAppointments(null, null, status),
+                    appointmentRepository.findSummariesByStatus(status));
+        } else if (currentUser.hasRole(Role.DOCTOR)) {
             Doctor doctor = doctorService.getCurrentDoctor(username);
-            appointments = appointmentRepository.findByDoctorIdAndStatus(doctor.getId(), status);
-        } else if (currentUser.getRoles().contains("ROLE_PATIENT")) {
+            appointments = AppointmentArchiveService.withArchived(
+                    archiveService.recentAppointments(null, doctor.getId(), status),
+                    appointmentRepository.findSummariesByDoctorIdAndStatus(doctor.getId(), status));
+        } else if (currentUser.hasRole(Role.PATIENT)) {
             Patient patient = patientService.getCurrentPatient(username);
-            appointments = appointmentRepository.findByPatientIdAndStatus(patient.getId(), status);
+            appointments = AppointmentArchiveService.withArchived(
+                    archiveService.recentAppointments(patient.getId(), null, status),
+                    appointmentRepository.findSummariesByPatientIdAndStatus(patient.getId(), status));
         } else {
             throw new RuntimeException("Unauthorized access");
         }
         
-        return appointments.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return appointments;
+    }
+
+    // ✅ ADDED: Appointments past the archive horizon, one page of a date range at a time.
+    // The list endpoints above include only the newest hms.archive.list-limit archived ones.
+    @Transactional(readOnly = true)
+    public PageResultDTO<AppointmentResponseDTO> getArchivedAppointments(LocalDate from, LocalDate to,
+                                                                         int page, int size, String username) {
+        if (from == null || to == null || to.isBefore(from)) {
+            throw new RuntimeException("from and to are required, with to not before from");
+        }
+        if (from.plusDays(MAX_ARCHIVE_RANGE_DAYS).isBefore(to)) {
+            throw new RuntimeException("Date range too large: at most " + MAX_ARCHIVE_RANGE_DAYS + " days");
+        }
+        User currentUser = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        if (currentUser.hasRole(Role.ADMIN)) {
+            return archiveService.appointments(null, null, from, to, page, size);
+        } else if (currentUser.hasRole(Role.DOCTOR)) {
+            Doctor doctor = doctorService.getCurrentDoctor(username);
+            return archiveService.appointments(null, doctor.getId(), from, to, page, size);
+        } else if (currentUser.hasRole(Role.PATIENT)) {
+            Patient patient = patientService.getCurrentPatient(username);
+            return archiveService.appointments(patient.getId(), null, from, to, page, size);
+        }
+        throw new RuntimeException("Unauthorized access");
+    }
+
+    // ✅ ADDED: Outbox event for a status transition (same transaction as the update)
+    private void publishStatusChange(String previousStatus, Appointment appointment) {
+        String status = appointment.getStatus();
+        if (status == null || status.equals(previousStatus)) {
+            return;
+        }
+        if ("CANCELLED".equals(status)) {
+            domainEventPublisher.appointmentEvent(AppointmentEventDTO.CANCELLED, appointment);
+        } else if ("CANCELLED".equals(previousStatus)) {
+            // Revived: it holds a place again
+            domainEventPublisher.appointmentEvent(AppointmentEventDTO.BOOKED, appointment);
+        } else if ("COMPLETED".equals(status)) {
+            domainEventPublisher.appointmentEvent(AppointmentEventDTO.COMPLETED, appointment);
+        }
+    }
+
+    // ✅ ADDED: A checked-in appointment that is deleted or no longer SCHEDULED comes off the board after commit
+    private void leaveWaitingRoom(Appointment appointment, boolean deleted) {
+        if (appointment.getCheckedInAt() == null || (!deleted && "SCHEDULED".equals(appointment.getStatus()))) {
+            return;
+        }
+        Long doctorId = appointment.getDoctor().getId();
+        Long appointmentId = appointment.getId();
+        LocalDate date = appointment.getAppointmentDate();
+        AfterCommit.run(() -> waitingRoomService.left(doctorId, appointmentId, date));
     }
 
     // ✅ ADDED: Authorization helper method
     private boolean hasAccessToAppointment(Appointment appointment, String username) {
+        return hasAccess(appointment.getPatient().getId(), appointment.getDoctor().getId(), username);
+    }
+
+    private boolean hasAccess(Long patientId, Long doctorId, String username) {
         User currentUser = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
-        if (currentUser.getRoles().contains("ROLE_ADMIN")) {
+        if (currentUser.hasRole(Role.ADMIN)) {
             return true; // Admin can access all appointments
-        } else if (currentUser.getRoles().contains("ROLE_DOCTOR")) {
+        } else if (currentUser.hasRole(Role.DOCTOR)) {
             Doctor doctor = doctorService.getCurrentDoctor(username);
-            return appointment.getDoctor().getId().equals(doctor.getId());
-        } else if (currentUser.getRoles().contains("ROLE_PATIENT")) {
+            return doctor.getId().equals(doctorId);
+        } else if (currentUser.hasRole(Role.PATIENT)) {
             Patient patient = patientService.getCurrentPatient(username);
-            return appointment.getPatient().getId().equals(patient.getId());
+            return patient.getId().equals(patientId);
         }
         
         return false;
     }
 
+    // ✅ ADDED: Archived appointments are read-only
+    private Appointment findLiveAppointment(Long id) {
+        return appointmentRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException(archiveService.isArchived(id)
+                        ? "Archived appointments cannot be changed"
+                        : "Appointment not found"));
+    }
+
     // ✅ IMPROVED: Better DTO conversion with null checks
     private AppointmentResponseDTO convertToDTO(Appointment appointment) {
         AppointmentResponseDTO dto = new AppointmentResponseDTO();
@@ -420,6 +588,12 @@ public class AppointmentService {
             if (appointment.getSchedule().getEndTime() != null) {
                 dto.setEndTime(appointment.getSchedule().getEndTime());
             }
+            // ✅ ADDED: Booked sub-slot instead of the whole schedule block
+            Integer slotDuration = appointment.getSchedule().getSlotDuration();
+            if (appointment.getAppointmentTime() != null && slotDuration != null && slotDuration > 0) {
+                dto.setStartTime(appointment.getAppointmentTime());
+                dto.setEndTime(appointment.getAppointmentTime().plusMinutes(slotDuration));
+            }
         }
         
         // Use direct date/time fields as fallback
@@ -433,6 +607,7 @@ public class AppointmentService {
         dto.setStatus(appointment.getStatus() != null ? appointment.getStatus() : "SCHEDULED");
         dto.setReason(appointment.getReason());
         dto.setCreatedDate(appointment.getCreatedDate());
+        dto.setCheckedInAt(appointment.getCheckedInAt());
         
         return dto;
     }
@@ -0,0 +1,333 @@
+package com.hms.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.hms.dto.RescheduleReportDTO;
+import com.hms.dto.RescheduleRequestDTO;
+import com.hms.entity.Appointment;
+import com.hms.entity.Doctor;
+import com.hms.entity.DoctorSchedule;
+import com.hms.repository.AppointmentRepository;
+import com.hms.repository.DoctorRepository;
+import com.hms.repository.DoctorScheduleRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Moves a doctor's SCHEDULED appointments in a date range (leave) to other open
+ * DoctorSchedule capacity: the same doctor after the leave, otherwise a doctor with
+ * the same specialization, within hms.reschedule.search-days.
+ *
+ * - Greedy, earliest appointment first: each takes the first target (by date, then
+ *   start time) with a free sub-slot that does not overlap another live booking of
+ *   the same patient, preferring the sub-slot closest to its original time.
+ * - Everything runs in one transaction. Source and target schedules are locked up
+ *   front in id order (bookings lock one row, so this cannot deadlock with them);
+ *   places are released and booked through the entity's sub-slot counters, as
+ *   ScheduleSlotService does, and each move writes an APPOINTMENT_RESCHEDULED event.
+ * - A dry run executes the same plan in a read-only transaction (on the replica when
+ *   one is configured): schedules are read without row locks, nothing is flushed and
+ *   no events are written, so previews never hold up bookings. The report is what
+ *   applying would have done against that snapshot.
+ *
+ * Checked-in appointments and appointments whose date has passed are never moved.
+ * Every schedule of the doctor during the leave is closed in the same transaction
+ * (DoctorSchedule.closed), so the places the moves release are not offered again;
+ * unmatched appointments keep their booking on the closed schedule.
+ *
+ * Metrics: hms.reschedule.moved {mode=dry-run|applied}, hms.reschedule.unmatched.
+ */
+@Service
+public class BulkRescheduleService {
+
+    private record Booking(Long appointmentId, LocalDate date, LocalTime start, LocalTime end) {}
+
+    private final AppointmentRepository appointmentRepository;
+    private final DoctorScheduleRepository scheduleRepository;
+    private final DoctorRepository doctorRepository;
+    private final ScheduleSlotService scheduleSlotService;
+    private final DomainEventPublisher domainEventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate dryRunTemplate;
+    private final int defaultSearchDays;
+    private final int maxRangeDays;
+    private final int maxAppointments;
+    private final int maxTargets;
+
+    private final Counter movedApplied;
+    private final Counter movedDryRun;
+    private final Counter unmatched;
+
+    public BulkRescheduleService(AppointmentRepository appointmentRepository,
+                                 DoctorScheduleRepository scheduleRepository,
+                                 DoctorRepository doctorRepository,
+                                 ScheduleSlotService scheduleSlotService,
+                                 DomainEventPublisher domainEventPublisher,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${hms.reschedule.search-days:30}") int defaultSearchDays,
+                                 @Value("${hms.reschedule.max-range-days:31}") int maxRangeDays,
+                                 @Value("${hms.reschedule.max-appointments:500}") int maxAppointments,
+                                 @Value("${hms.reschedule.max-targets:2000}") int maxTargets) {
+        this.appointmentRepository = appointmentRepository;
+        this.scheduleRepository = scheduleRepository;
+        this.doctorRepository = doctorRepository;
+        this.scheduleSlotService = scheduleSlotService;
+        this.domainEventPublisher = domainEventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Read-only: Hibernate does not flush, so the in-memory moves are simply dropped
+        this.dryRunTemplate = new TransactionTemplate(transactionManager);
+        this.dryRunTemplate.setReadOnly(true);
+        this.defaultSearchDays = defaultSearchDays;
+        this.maxRangeDays = maxRangeDays;
+        this.maxAppointments = maxAppointments;
+        this.maxTargets = maxTargets;
+
+        this.movedApplied = Counter.builder("hms.reschedule.moved").tag("mode", "applied").register(meterRegistry);
+        this.movedDryRun = Counter.builder("hms.reschedule.moved").tag("mode", "dry-run").register(meterRegistry);
+        this.unmatched = Counter.builder("hms.reschedule.unmatched")
+                .description("Appointments a bulk reschedule found no open slot for")
+                .register(meterRegistry);
+    }
+
+    public RescheduleReportDTO reschedule(RescheduleRequestDTO request) {
+        if (request.getDoctorId() == null || request.getFromDate() == null || request.getToDate() == null) {
+            throw new RuntimeException("doctorId, fromDate and toDate are required");
+        }
+        if (request.getToDate().isBefore(request.getFromDate())) {
+            throw new RuntimeException("toDate must not be before fromDate");
+        }
+        if (request.getFromDate().plusDays(maxRangeDays).isBefore(request.getToDate())) {
+            throw new RuntimeException("Date range too large: at most " + maxRangeDays + " days");
+        }
+        boolean dryRun = !Boolean.FALSE.equals(request.getDryRun());
+        int searchDays = request.getSearchDays() != null
+                ? Math.max(0, Math.min(request.getSearchDays(), 366))
+                : defaultSearchDays;
+
+        RescheduleReportDTO report = (dryRun ? dryRunTemplate : transactionTemplate).execute(status -> {
+            RescheduleReportDTO result = plan(request, searchDays, dryRun);
+            if (dryRun) {
+                status.setRollbackOnly();
+            }
+            return result;
+        });
+
+        (dryRun ? movedDryRun : movedApplied).increment(report.getMoves().size());
+        unmatched.increment(report.getUnmatched().size());
+        System.out.println("🔀 Bulk reschedule for doctor " + request.getDoctorId() + " " + request.getFromDate()
+                + ".." + request.getToDate() + (dryRun ? " (dry run)" : "") + ": " + report.getMoves().size()
+                + " of " + report.getAffected() + " moved, " + report.getUnmatched().size() + " unmatched");
+        return report;
+    }
+
+    private RescheduleReportDTO plan(RescheduleRequestDTO request, int searchDays, boolean dryRun) {
+        Long doctorId = request.getDoctorId();
+        LocalDate from = request.getFromDate();
+        LocalDate to = request.getToDate();
+        RescheduleReportDTO report = new RescheduleReportDTO(doctorId, from, to, dryRun);
+
+        Doctor doctor = doctorRepository.findById(doctorId)
+                .orElseThrow(() -> new RuntimeException("Doctor not found with ID: " + doctorId));
+
+        List<Object[]> affected = appointmentRepository.findReschedulable(doctorId, from, to);
+        report.setAffected(affected.size());
+        if (affected.size() > maxAppointments) {
+            throw new RuntimeException("Too many appointments to move at once (" + affected.size()
+                    + "), please use a smaller date range");
+        }
+
+        LocalDate today = LocalDate.now();
+        LocalDate searchFrom = from.isAfter(today) ? from : today;
+        LocalDate until = to.plusDays(searchDays);
+        boolean otherDoctors = !Boolean.TRUE.equals(request.getSameDoctorOnly()) && doctor.getSpecialization() != null;
+        List<Long> leaveIds = scheduleRepository.findIdsByDoctorBetween(doctorId, from, to);
+        List<Long> targetIds = affected.isEmpty() ? List.of()
+                : scheduleRepository.findRescheduleTargets(doctorId, to, searchFrom, until,
+                        otherDoctors, doctor.getSpecialization(), PageRequest.of(0, maxTargets));
+
+        // One lock set for every row this run touches, taken in id order (read unlocked in a dry run)
+        Set<Long> lockIds = new TreeSet<>(targetIds);
+        lockIds.addAll(leaveIds);
+        List<Long> appointmentIds = new ArrayList<>(affected.size());
+        for (Object[] row : affected) {
+            appointmentIds.add((Long) row[0]);
+            lockIds.add((Long) row[1]);
+        }
+        if (lockIds.isEmpty()) {
+            return report;
+        }
+        Map<Long, DoctorSchedule> schedules = new HashMap<>();
+        List<DoctorSchedule> loaded = dryRun
+                ? scheduleRepository.findAllByIdIn(lockIds)
+                : scheduleRepository.lockAllByIdIn(lockIds);
+        for (DoctorSchedule schedule : loaded) {
+            if (!schedule.hasOccupancy()) {
+                scheduleSlotService.rebuildOccupancy(schedule);
+            }
+            schedules.put(schedule.getId(), schedule);
+        }
+        if (affected.isEmpty()) {
+            closeLeave(leaveIds, schedules, report);
+            return report;
+        }
+        List<DoctorSchedule> targets = targetIds.stream().map(schedules::get).filter(s -> s != null).toList();
+
+        List<Appointment> appointments = appointmentRepository.findWithPatientByIdIn(appointmentIds);
+        Map<Long, List<Booking>> bookingsByPatient = patientBookings(appointments, from.isBefore(searchFrom) ? from : searchFrom, until);
+
+        LocalDateTime now = LocalDateTime.now();
+        for (Appointment appointment : appointments) {
+            Long patientId = appointment.getPatient().getId();
+            LocalDate date = appointment.getAppointmentDate();
+            LocalTime time = appointment.getAppointmentTime();
+            String status = appointment.getStatus();
+
+            // Re-checked under the schedule locks: a cancellation may have landed since the id query
+            if (status != null && !"SCHEDULED".equals(status)) {
+                report.addUnmatched(appointment.getId(), patientId, date, time, "No longer scheduled (" + status + ")");
+                continue;
+            }
+            if (appointment.getCheckedInAt() != null) {
+                report.addUnmatched(appointment.getId(), patientId, date, time, "Patient already checked in");
+                continue;
+            }
+            if (date != null && date.isBefore(today)) {
+                report.addUnmatched(appointment.getId(), patientId, date, time, "Appointment date has passed");
+                continue;
+            }
+
+            List<Booking> patientBookings = bookingsByPatient.computeIfAbsent(patientId, id -> new ArrayList<>());
+            patientBookings.removeIf(booking -> booking.appointmentId().equals(appointment.getId()));
+
+            DoctorSchedule target = null;
+            LocalTime targetTime = null;
+            for (DoctorSchedule candidate : targets) {
+                targetTime = freeTime(candidate, time, patientBookings, now);
+                if (targetTime != null) {
+                    target = candidate;
+                    break;
+                }
+            }
+            if (target == null) {
+                if (time != null) {
+                    patientBookings.add(booking(appointment.getId(), date, time, appointment.getSchedule().getSlotDuration()));
+                }
+                report.addUnmatched(appointment.getId(), patientId, date, time,
+                        "No open slot with this doctor or the same specialization within " + searchDays + " days");
+                continue;
+            }
+
+            DoctorSchedule source = schedules.get(appointment.getSchedule().getId());
+            source.releaseSubSlot(time);
+            LocalTime booked = target.bookSubSlot(targetTime);
+
+            appointment.setSchedule(target);
+            appointment.setDoctor(target.getDoctor());
+            appointment.setAppointmentDate(target.getAvailableDate());
+            appointment.setAppointmentTime(booked);
+            appointment.setUpdatedDate(now);
+            if (!dryRun) {
+                domainEventPublisher.appointmentRescheduled(appointment, source, time);
+            }
+            patientBookings.add(booking(appointment.getId(), target.getAvailableDate(), booked, target.getSlotDuration()));
+
+            RescheduleReportDTO.Move move = new RescheduleReportDTO.Move();
+            move.setAppointmentId(appointment.getId());
+            move.setPatientId(patientId);
+            move.setPatientName(appointment.getPatient().getName());
+            move.setFromScheduleId(source.getId());
+            move.setFromDate(date);
+            move.setFromTime(time);
+            move.setToScheduleId(target.getId());
+            move.setToDoctorId(target.getDoctor().getId());
+            move.setToDoctorName(target.getDoctor().getName());
+            move.setToDate(target.getAvailableDate());
+            move.setToTime(booked);
+            report.addMove(move);
+        }
+
+        // Managed entities: the moves are flushed together at commit (JDBC-batched)
+        appointmentRepository.saveAll(appointments);
+        closeLeave(leaveIds, schedules, report);
+        return report;
+    }
+
+    // Closed after the moves, which still release their places through the sub-slot counters
+    private void closeLeave(List<Long> leaveIds, Map<Long, DoctorSchedule> schedules, RescheduleReportDTO report) {
+        for (Long id : leaveIds) {
+            DoctorSchedule schedule = schedules.get(id);
+            if (schedule != null && !Boolean.TRUE.equals(schedule.getClosed())) {
+                schedule.setClosed(true);
+                report.setClosedSchedules(report.getClosedSchedules() + 1);
+            }
+        }
+        scheduleRepository.saveAll(schedules.values());
+    }
+
+    // Live bookings of the affected patients over the whole search window, for overlap checks
+    private Map<Long, List<Booking>> patientBookings(List<Appointment> appointments, LocalDate from, LocalDate until) {
+        Set<Long> patientIds = new HashSet<>();
+        appointments.forEach(appointment -> patientIds.add(appointment.getPatient().getId()));
+        Map<Long, List<Booking>> bookings = new HashMap<>();
+        for (Object[] row : appointmentRepository.findLiveSlotsForPatients(patientIds, from, until)) {
+            if (row[3] == null) {
+                continue;
+            }
+            bookings.computeIfAbsent((Long) row[0], id -> new ArrayList<>())
+                    .add(booking((Long) row[1], (LocalDate) row[2], (LocalTime) row[3], (Integer) row[4]));
+        }
+        return bookings;
+    }
+
+    /**
+     * Free sub-slot of candidate closest to the original time that the patient can take,
+     * or null. Sub-slots already started today are skipped.
+     */
+    private static LocalTime freeTime(DoctorSchedule candidate, LocalTime original, List<Booking> patientBookings,
+                                      LocalDateTime now) {
+        if (!candidate.isAvailable()) {
+            return null;
+        }
+        LocalDate date = candidate.getAvailableDate();
+        List<LocalTime> free = new ArrayList<>(candidate.freeSlotTimes());
+        if (original != null && candidate.getStartTime() != null) {
+            free.sort(Comparator.comparingLong(t -> Math.abs(Duration.between(original, t).toMinutes())));
+        }
+        for (LocalTime time : free) {
+            if (time == null || (date.equals(now.toLocalDate()) && time.isBefore(now.toLocalTime()))) {
+                continue;
+            }
+            Booking slot = booking(null, date, time, candidate.getSlotDuration());
+            boolean overlaps = patientBookings.stream().anyMatch(other -> other.date().equals(date)
+                    && other.start().isBefore(slot.end()) && slot.start().isBefore(other.end()));
+            if (!overlaps) {
+                return time;
+            }
+        }
+        return null;
+    }
+
+    private static Booking booking(Long appointmentId, LocalDate date, LocalTime start, Integer slotMinutes) {
+        LocalTime end = start.plusMinutes(slotMinutes != null && slotMinutes > 0 ? slotMinutes : 30);
+        return new Booking(appointmentId, date, start, end.isBefore(start) ? LocalTime.MAX : end);
+    }
+}
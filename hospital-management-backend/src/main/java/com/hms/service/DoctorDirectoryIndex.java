@@ -0,0 +1,173 @@
+package com.hms.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.hms.dto.DoctorSummaryDTO;
+import com.hms.dto.PageResultDTO;
+import com.hms.entity.Doctor;
+import com.hms.exception.ServiceBusyException;
+import com.hms.repository.DoctorRepository;
+
+/**
+ * Inverted index for the doctor directory: "spec:cardiology", "dept:surgery",
+ * "lang:spanish" -> doctor ids. Filters are answered by intersecting posting sets,
+ * smallest first. Loaded on startup and updated by DoctorDirectoryListener after commit.
+ * Reads answer 503 until the first load finishes, so an empty directory is never served
+ * (or cached under an ETag).
+ */
+@Service
+public class DoctorDirectoryIndex {
+
+    private static final Comparator<DoctorSummaryDTO> BY_NAME = Comparator
+            .comparing((DoctorSummaryDTO d) -> d.getName() == null ? "" : d.getName().toLowerCase())
+            .thenComparing(DoctorSummaryDTO::getId);
+
+    private final DoctorRepository doctorRepository;
+    private final ResourceVersionService resourceVersionService;
+
+    private final ConcurrentHashMap<Long, DoctorSummaryDTO> doctors = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Set<Long>> postings = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+
+    public DoctorDirectoryIndex(DoctorRepository doctorRepository, ResourceVersionService resourceVersionService) {
+        this.doctorRepository = doctorRepository;
+        this.resourceVersionService = resourceVersionService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        List<DoctorSummaryDTO> all = doctorRepository.findAllSummaries();
+        all.forEach(this::put);
+        ready = true;
+        // Retire any ETag handed out before the directory had content
+        resourceVersionService.doctorsChanged();
+        System.out.println("🩺 Doctor directory index built: " + all.size() + " doctors, " + postings.size() + " facets");
+    }
+
+    public void requireReady() {
+        if (!ready) {
+            throw new ServiceBusyException("Doctor directory is still loading", 5);
+        }
+    }
+
+    public PageResultDTO<DoctorSummaryDTO> search(String specialization, String department, String language,
+                                                  String name, int page, int size) {
+        requireReady();
+        List<Set<Long>> filters = new ArrayList<>();
+        if (!isBlank(specialization)) {
+            filters.add(postings.getOrDefault("spec:" + normalize(specialization), Set.of()));
+        }
+        if (!isBlank(department)) {
+            filters.add(postings.getOrDefault("dept:" + normalize(department), Set.of()));
+        }
+        if (!isBlank(language)) {
+            filters.add(postings.getOrDefault("lang:" + normalize(language), Set.of()));
+        }
+
+        List<DoctorSummaryDTO> matches = new ArrayList<>();
+        if (filters.isEmpty()) {
+            matches.addAll(doctors.values());
+        } else {
+            filters.sort(Comparator.comparingInt(Set::size));
+            Set<Long> ids = new HashSet<>(filters.get(0));
+            for (int i = 1; i < filters.size() && !ids.isEmpty(); i++) {
+                ids.retainAll(filters.get(i));
+            }
+            for (Long id : ids) {
+                DoctorSummaryDTO doctor = doctors.get(id);
+                if (doctor != null) {
+                    matches.add(doctor);
+                }
+            }
+        }
+        if (!isBlank(name)) {
+            String needle = name.trim().toLowerCase();
+            matches.removeIf(d -> d.getName() == null || !d.getName().toLowerCase().contains(needle));
+        }
+
+        matches.sort(BY_NAME);
+        int from = Math.min(page * size, matches.size());
+        int to = Math.min(from + size, matches.size());
+        return new PageResultDTO<>(new ArrayList<>(matches.subList(from, to)), page, size, matches.size());
+    }
+
+    public List<DoctorSummaryDTO> all() {
+        requireReady();
+        List<DoctorSummaryDTO> all = new ArrayList<>(doctors.values());
+        all.sort(BY_NAME);
+        return all;
+    }
+
+    // ===== Incremental updates (called after commit) =====
+
+    public synchronized void put(DoctorSummaryDTO doctor) {
+        DoctorSummaryDTO old = doctors.get(doctor.getId());
+        if (old != null) {
+            for (String key : keys(old)) {
+                unlink(key, old.getId());
+            }
+        }
+        for (String key : keys(doctor)) {
+            postings.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(doctor.getId());
+        }
+        doctors.put(doctor.getId(), doctor);
+    }
+
+    public synchronized void remove(Long doctorId) {
+        DoctorSummaryDTO old = doctors.remove(doctorId);
+        if (old != null) {
+            for (String key : keys(old)) {
+                unlink(key, doctorId);
+            }
+        }
+    }
+
+    public static DoctorSummaryDTO toSummary(Doctor doctor) {
+        return new DoctorSummaryDTO(doctor.getId(), doctor.getName(), doctor.getSpecialization(), doctor.getDepartment(),
+                doctor.getLanguagesSpoken(), doctor.getContact(), doctor.getExperienceYears(),
+                doctor.getConsultationFee(), doctor.getOfficeLocation());
+    }
+
+    private void unlink(String key, Long id) {
+        Set<Long> ids = postings.get(key);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) {
+            postings.remove(key, ids);
+        }
+    }
+
+    private static Set<String> keys(DoctorSummaryDTO doctor) {
+        Set<String> keys = new HashSet<>();
+        if (!isBlank(doctor.getSpecialization())) {
+            keys.add("spec:" + normalize(doctor.getSpecialization()));
+        }
+        if (!isBlank(doctor.getDepartment())) {
+            keys.add("dept:" + normalize(doctor.getDepartment()));
+        }
+        if (!isBlank(doctor.getLanguagesSpoken())) {
+            // Free text such as "English, Hindi / Tamil and Spanish"
+            for (String language : doctor.getLanguagesSpoken().split(",|;|/|\\band\\b")) {
+                if (!isBlank(language)) {
+                    keys.add("lang:" + normalize(language));
+                }
+            }
+        }
+        return keys;
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toLowerCase().replaceAll("\\s+", " ");
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
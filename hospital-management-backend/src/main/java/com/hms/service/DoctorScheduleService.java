@@ -1,13 +1,17 @@
 package com.hms.service;
 
+import java.time.LocalDate;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.hms.dto.ScheduleResponseDTO;
 import com.hms.entity.Doctor;
 import com.hms.entity.DoctorSchedule;
 import com.hms.entity.User;
+import com.hms.repository.AppointmentRepository;
 import com.hms.repository.DoctorRepository;
 import com.hms.repository.DoctorScheduleRepository;
 import com.hms.repository.UserRepository;
@@ -27,6 +31,12 @@ public class DoctorScheduleService {
     @Autowired
     private DoctorService doctorService;
 
+    @Autowired
+    private ScheduleSlotService scheduleSlotService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
     public DoctorSchedule createSchedule(DoctorSchedule schedule, String createdBy) {
         schedule.setCreatedBy(createdBy);
         return scheduleRepository.save(schedule);
@@ -57,7 +67,7 @@ public class DoctorScheduleService {
             throw new RuntimeException("Doctor not found with ID: " + doctorId);
         }
         
-        List<DoctorSchedule> schedules = scheduleRepository.findAvailableSchedulesByDoctor(doctorId);
+        List<DoctorSchedule> schedules = scheduleRepository.findAvailableSchedulesByDoctor(doctorId, LocalDate.now());
         System.out.println("✅ Found " + schedules.size() + " available schedules for doctor ID: " + doctorId);
         return schedules;
     }
@@ -99,8 +109,10 @@ public class DoctorScheduleService {
         return scheduleRepository.findByDoctorId(doctor.getId());
     }
 
+    @Transactional
     public DoctorSchedule updateSchedule(Long id, DoctorSchedule scheduleDetails, String userRole, String username) {
-        DoctorSchedule schedule = scheduleRepository.findById(id)
+        // ✅ Locked like a booking: the sub-slot counters may be rebuilt below
+        DoctorSchedule schedule = scheduleRepository.findByIdForUpdate(id)
                 .orElseThrow(() -> new RuntimeException("Schedule not found"));
 
         // ✅ ADDED: Authorization check - doctors can only update their own schedules
@@ -131,6 +143,11 @@ public class DoctorScheduleService {
             schedule.setMaxPatients(scheduleDetails.getMaxPatients());
         }
 
+        // ✅ ADDED: New start/end/duration means a new sub-slot layout; re-place existing bookings
+        if (!schedule.hasOccupancy() && schedule.getCurrentBookings() > 0) {
+            scheduleSlotService.rebuildOccupancy(schedule);
+        }
+
         return scheduleRepository.save(schedule);
     }
 
@@ -150,6 +167,33 @@ public class DoctorScheduleService {
             }
         }
 
+        // ✅ ADDED: Booked patients would be left without a slot; move them first (bulk reschedule) or cancel
+        long booked = appointmentRepository.countLiveByScheduleId(id);
+        if (booked > 0) {
+            throw new RuntimeException("Schedule has " + booked + " booked appointment(s). Reschedule or cancel them before deleting it.");
+        }
+
         scheduleRepository.delete(schedule);
     }
-}
\ No newline at end of file
+
+    // Helper method to convert Entity to Response DTO (controller and availability stream)
+    public ScheduleResponseDTO toResponseDTO(DoctorSchedule schedule) {
+        ScheduleResponseDTO dto = new ScheduleResponseDTO();
+        dto.setId(schedule.getId());
+        dto.setDoctorId(schedule.getDoctor().getId());
+        dto.setDoctorName(schedule.getDoctor().getName());
+        dto.setSpecialization(schedule.getDoctor().getSpecialization());
+        dto.setAvailableDate(schedule.getAvailableDate());
+        dto.setStartTime(schedule.getStartTime());
+        dto.setEndTime(schedule.getEndTime());
+        dto.setIsBooked(schedule.getIsBooked());
+        dto.setClosed(schedule.getClosed());
+        dto.setCreatedBy(schedule.getCreatedBy());
+        dto.setSlotDuration(schedule.getSlotDuration());
+        dto.setMaxPatients(schedule.getMaxPatients());
+        dto.setCurrentBookings(schedule.getCurrentBookings());
+        dto.setFreeSlotTimes(schedule.freeSlotTimes());
+        
+        return dto;
+    }
+}
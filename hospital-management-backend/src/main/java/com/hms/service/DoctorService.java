@@ -4,7 +4,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,12 +18,18 @@ public class DoctorService {
 
     private final DoctorRepository doctorRepository;
     private final UserRepository userRepository;
-    private final BCryptPasswordEncoder passwordEncoder;
+    private final ProfileProvisioner profileProvisioner;
+    private final UsernameAllocator usernameAllocator;
+    private final PasswordEncoder passwordEncoder;
 
-    public DoctorService(DoctorRepository doctorRepository, UserRepository userRepository) {
+    public DoctorService(DoctorRepository doctorRepository, UserRepository userRepository,
+                         ProfileProvisioner profileProvisioner, UsernameAllocator usernameAllocator,
+                         PasswordEncoder passwordEncoder) {
         this.doctorRepository = doctorRepository;
         this.userRepository = userRepository;
-        this.passwordEncoder = new BCryptPasswordEncoder();
+        this.profileProvisioner = profileProvisioner;
+        this.usernameAllocator = usernameAllocator;
+        this.passwordEncoder = passwordEncoder;
     }
 
     /**
@@ -38,8 +44,7 @@ public class DoctorService {
             System.out.println("👤 Creating a new user account for doctor");
 
             // Generate username from name
-            String baseUsername = generateUsername(doctor.getName());
-            String username = getUniqueUsername(baseUsername);
+            String username = usernameAllocator.allocate(doctor.getName());
             
             // Default password
             String defaultPassword = "doctor123";
@@ -65,34 +70,6 @@ public class DoctorService {
         return doctorRepository.save(doctor);
     }
 
-    /**
-     * Generate unique username
-     */
-    private String generateUsername(String name) {
-        // Remove spaces and convert to lowercase
-        String baseUsername = name.toLowerCase().replaceAll("\\s+", "");
-        
-        // Remove special characters, keep only letters and numbers
-        baseUsername = baseUsername.replaceAll("[^a-z0-9]", "");
-        
-        return baseUsername;
-    }
-
-    /**
-     * Ensure username is unique by appending numbers if needed
-     */
-    private String getUniqueUsername(String baseUsername) {
-        String username = baseUsername;
-        int counter = 1;
-        
-        while (userRepository.findByUsername(username).isPresent()) {
-            username = baseUsername + counter;
-            counter++;
-        }
-        
-        return username;
-    }
-
     public List<Doctor> getAllDoctors() {
         return doctorRepository.findAll();
     }
@@ -162,8 +139,7 @@ public class DoctorService {
             
             // Update user username if name changed
             if (!doctor.getName().equals(updatedDoctor.getName()) && doctor.getUser() != null) {
-                String newUsername = generateUsername(updatedDoctor.getName());
-                String uniqueUsername = getUniqueUsername(newUsername);
+                String uniqueUsername = usernameAllocator.allocate(updatedDoctor.getName());
                 doctor.getUser().setUsername(uniqueUsername);
                 userRepository.save(doctor.getUser());
             }
@@ -174,26 +150,11 @@ public class DoctorService {
 
     /**
      * ✅ IMPROVED: Get current doctor profile with auto-creation if missing
+     * (cached id lookup, race-free creation: see ProfileProvisioner)
      */
     @Transactional
     public Doctor getCurrentDoctor(String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        Optional<Doctor> existingDoctor = doctorRepository.findByUser(user);
-        if (existingDoctor.isPresent()) {
-            return existingDoctor.get();
-        }
-        
-        // Auto-create doctor profile if missing
-        System.out.println("⚠️ Doctor profile not found for user: " + username + ", auto-creating...");
-        Doctor newDoctor = new Doctor();
-        newDoctor.setName(user.getUsername());
-        newDoctor.setSpecialization("General");
-        newDoctor.setContact("Not provided");
-        newDoctor.setUser(user);
-        
-        return doctorRepository.save(newDoctor);
+        return profileProvisioner.currentDoctor(username);
     }
     public Doctor updateDoctorProfile(String username, DoctorProfileDTO doctorProfileDTO) {
     Doctor existingDoctor = getCurrentDoctor(username);
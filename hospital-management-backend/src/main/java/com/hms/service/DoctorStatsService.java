@@ -0,0 +1,201 @@
+package com.hms.service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.hms.dto.DoctorUtilizationDTO;
+import com.hms.repository.DoctorDailyStatsRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Per-doctor, per-day rollups (doctor_daily_stats) for utilization and appointment outcomes.
+ *
+ * - Appointment lifecycle events (via DoctorStatsSubscriber) and schedule writes (via
+ *   ScheduleChangeListener) mark (doctor, date) dirty. A flush every hms.stats.flush-interval
+ *   recomputes only those rows, so bursts on one doctor's day collapse into one refresh.
+ * - A refresh recomputes the row from doctor_schedule / appointment rather than applying
+ *   deltas: replays and missed events cannot make it drift.
+ * - Dirty marks are in memory. On startup and nightly the window of
+ *   hms.stats.window-past-days .. hms.stats.window-future-days is recomputed day by day,
+ *   which also covers marks lost in a restart and schedules moved to another date.
+ *
+ * Days past the archive horizon (hms.archive.horizon-days) are never recomputed: their
+ * appointments have left the live table, so the existing rows are final. The same holds,
+ * while SchedulePurger is enabled, for days past hms.schedule.purge-after-days: their
+ * unbooked schedules are gone and a recompute would lower the capacity.
+ *
+ * Metrics: hms.stats.dirty, hms.stats.refreshes{scope=doctor-day|day}, hms.stats.refresh.failures.
+ */
+@Service
+public class DoctorStatsService {
+
+    private record Key(Long doctorId, LocalDate date) {}
+
+    private final DoctorDailyStatsRepository statsRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MaintenanceJobRunner maintenanceJobRunner;
+    private final int windowPastDays;
+    private final int windowFutureDays;
+    private final int maxRangeDays;
+    private final int archiveHorizonDays;
+    private final boolean purgeEnabled;
+    private final int purgeAfterDays;
+
+    private final Set<Key> dirty = ConcurrentHashMap.newKeySet();
+
+    private final Counter doctorDayRefreshes;
+    private final Counter dayRefreshes;
+    private final Counter failures;
+
+    public DoctorStatsService(DoctorDailyStatsRepository statsRepository,
+                              PlatformTransactionManager transactionManager,
+                              MaintenanceJobRunner maintenanceJobRunner,
+                              MeterRegistry meterRegistry,
+                              @Value("${hms.stats.window-past-days:7}") int windowPastDays,
+                              @Value("${hms.stats.window-future-days:60}") int windowFutureDays,
+                              @Value("${hms.stats.max-range-days:366}") int maxRangeDays,
+                              @Value("${hms.archive.horizon-days:730}") int archiveHorizonDays,
+                              @Value("${hms.schedule.purge-enabled:false}") boolean purgeEnabled,
+                              @Value("${hms.schedule.purge-after-days:30}") int purgeAfterDays) {
+        this.statsRepository = statsRepository;
+        // Read-write: recomputes run on the primary
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maintenanceJobRunner = maintenanceJobRunner;
+        this.windowPastDays = windowPastDays;
+        this.windowFutureDays = windowFutureDays;
+        this.maxRangeDays = maxRangeDays;
+        this.archiveHorizonDays = archiveHorizonDays;
+        this.purgeEnabled = purgeEnabled;
+        this.purgeAfterDays = purgeAfterDays;
+
+        Gauge.builder("hms.stats.dirty", dirty, Set::size)
+                .description("Doctor-days waiting to be recomputed")
+                .register(meterRegistry);
+        this.doctorDayRefreshes = Counter.builder("hms.stats.refreshes").tag("scope", "doctor-day").register(meterRegistry);
+        this.dayRefreshes = Counter.builder("hms.stats.refreshes").tag("scope", "day").register(meterRegistry);
+        this.failures = Counter.builder("hms.stats.refresh.failures").register(meterRegistry);
+    }
+
+    public void markDirty(Long doctorId, LocalDate date) {
+        if (doctorId != null && date != null && !date.isBefore(finalBefore())) {
+            dirty.add(new Key(doctorId, date));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${hms.stats.flush-interval:30s}")
+    public void flush() {
+        List<Key> batch = new ArrayList<>(dirty);
+        for (Key key : batch) {
+            // A mark arriving after this remove is kept for the next flush
+            if (!dirty.remove(key)) {
+                continue;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    statsRepository.deleteDoctorDay(key.doctorId(), key.date());
+                    statsRepository.insertDoctorDay(key.doctorId(), key.date());
+                });
+                doctorDayRefreshes.increment();
+            } catch (Exception e) {
+                failures.increment();
+                dirty.add(key);
+                System.err.println("❌ Could not refresh stats for doctor " + key.doctorId() + " on " + key.date()
+                        + ": " + e.getMessage());
+            }
+        }
+    }
+
+    // ~70 day-long recomputes: keep them off startup and off the scheduler thread
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${hms.stats.refresh-cron:0 30 0 * * *}")
+    public void refreshWindowScheduled() {
+        maintenanceJobRunner.submit("Doctor stats window refresh", this::refreshWindow);
+    }
+
+    public void refreshWindow() {
+        LocalDate today = LocalDate.now();
+        LocalDate from = today.minusDays(windowPastDays);
+        LocalDate finalBefore = finalBefore();
+        if (from.isBefore(finalBefore)) {
+            from = finalBefore;
+        }
+        int days = refreshRange(from, today.plusDays(windowFutureDays));
+        System.out.println("📊 Doctor stats refreshed for " + days + " days around " + today);
+    }
+
+    // First day that may still be recomputed (see the class comment)
+    private LocalDate finalBefore() {
+        LocalDate today = LocalDate.now();
+        LocalDate before = today.minusDays(archiveHorizonDays);
+        if (purgeEnabled && today.minusDays(purgeAfterDays).isAfter(before)) {
+            before = today.minusDays(purgeAfterDays);
+        }
+        return before;
+    }
+
+    /**
+     * Recomputes every doctor's row for each day in [from, to]; one short transaction per day.
+     * Ranges reaching into the final days (see the class comment) are rejected.
+     */
+    public int refreshRange(LocalDate from, LocalDate to) {
+        checkRange(from, to);
+        // Archived or purged days would recompute as empty or short; keep the rows they had
+        LocalDate finalBefore = finalBefore();
+        if (from.isBefore(finalBefore)) {
+            throw new RuntimeException("Stats before " + finalBefore
+                    + " are final (appointments archived or schedules purged) and cannot be recomputed");
+        }
+        int days = 0;
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            LocalDate day = date;
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    statsRepository.deleteDay(day);
+                    statsRepository.insertDay(day);
+                });
+                dayRefreshes.increment();
+                days++;
+            } catch (Exception e) {
+                failures.increment();
+                System.err.println("❌ Could not refresh stats for " + day + ": " + e.getMessage());
+            }
+        }
+        return days;
+    }
+
+    public List<DoctorUtilizationDTO> getDaily(Long doctorId, LocalDate from, LocalDate to) {
+        checkRange(from, to);
+        return doctorId != null
+                ? statsRepository.findDailyByDoctor(doctorId, from, to)
+                : statsRepository.findDaily(from, to);
+    }
+
+    public List<DoctorUtilizationDTO> getTotals(LocalDate from, LocalDate to) {
+        checkRange(from, to);
+        return statsRepository.findTotals(from, to);
+    }
+
+    private void checkRange(LocalDate from, LocalDate to) {
+        if (from == null || to == null || to.isBefore(from)) {
+            throw new RuntimeException("A valid from/to date range is required");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= maxRangeDays) {
+            throw new RuntimeException("Date range is limited to " + maxRangeDays + " days");
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.hms.service;
+
+import org.springframework.stereotype.Service;
+
+import com.hms.dto.AppointmentEventDTO;
+
+/**
+ * Marks the affected doctor-day for recompute whenever an appointment is booked,
+ * cancelled, completed or rescheduled (both the old and the new day). Marking is idempotent, so redelivered events are harmless.
+ */
+@Service
+public class DoctorStatsSubscriber implements DomainEventSubscriber {
+
+    private final DoctorStatsService doctorStatsService;
+
+    public DoctorStatsSubscriber(DoctorStatsService doctorStatsService) {
+        this.doctorStatsService = doctorStatsService;
+    }
+
+    @Override
+    public String name() {
+        return "doctor-stats";
+    }
+
+    @Override
+    public boolean supports(String eventType) {
+        return AppointmentEventDTO.BOOKED.equals(eventType)
+                || AppointmentEventDTO.CANCELLED.equals(eventType)
+                || AppointmentEventDTO.COMPLETED.equals(eventType)
+                || AppointmentEventDTO.RESCHEDULED.equals(eventType);
+    }
+
+    @Override
+    public void onEvent(AppointmentEventDTO event) {
+        doctorStatsService.markDirty(event.getDoctorId(), event.getAppointmentDate());
+        if (event.getPreviousDoctorId() != null) {
+            doctorStatsService.markDirty(event.getPreviousDoctorId(), event.getPreviousAppointmentDate());
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.hms.service;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hms.dto.AppointmentEventDTO;
+import com.hms.entity.Appointment;
+import com.hms.entity.DoctorSchedule;
+import com.hms.entity.OutboxEvent;
+import com.hms.entity.Prescription;
+import com.hms.repository.OutboxEventRepository;
+
+/**
+ * Records domain events in the outbox. MANDATORY propagation: an event is only
+ * ever written inside the transaction of the change it describes, so it commits
+ * or rolls back together with it.
+ */
+@Service
+public class DomainEventPublisher {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    public DomainEventPublisher(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void appointmentEvent(String type, Appointment appointment) {
+        write(appointmentPayload(type, appointment), appointment.getId());
+    }
+
+    // Appointment already moved to its new schedule; previous* describe where it was
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void appointmentRescheduled(Appointment appointment, DoctorSchedule previousSchedule, LocalTime previousTime) {
+        AppointmentEventDTO event = appointmentPayload(AppointmentEventDTO.RESCHEDULED, appointment);
+        event.setPreviousDoctorId(previousSchedule.getDoctor().getId());
+        event.setPreviousScheduleId(previousSchedule.getId());
+        event.setPreviousAppointmentDate(previousSchedule.getAvailableDate());
+        event.setPreviousAppointmentTime(previousTime);
+        write(event, appointment.getId());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void prescriptionIssued(Prescription prescription) {
+        Appointment appointment = prescription.getAppointment();
+        AppointmentEventDTO event = new AppointmentEventDTO();
+        event.setType(AppointmentEventDTO.PRESCRIPTION_ISSUED);
+        event.setPrescriptionId(prescription.getId());
+        event.setAppointmentId(appointment.getId());
+        event.setPatientId(appointment.getPatient() != null ? appointment.getPatient().getId() : null);
+        event.setDoctorId(appointment.getDoctor() != null ? appointment.getDoctor().getId() : null);
+        write(event, appointment.getId());
+    }
+
+    private AppointmentEventDTO appointmentPayload(String type, Appointment appointment) {
+        AppointmentEventDTO event = new AppointmentEventDTO();
+        event.setType(type);
+        event.setAppointmentId(appointment.getId());
+        event.setPatientId(appointment.getPatient() != null ? appointment.getPatient().getId() : null);
+        event.setDoctorId(appointment.getDoctor() != null ? appointment.getDoctor().getId() : null);
+        event.setScheduleId(appointment.getSchedule() != null ? appointment.getSchedule().getId() : null);
+        event.setAppointmentDate(appointment.getAppointmentDate());
+        event.setAppointmentTime(appointment.getAppointmentTime());
+        return event;
+    }
+
+    private void write(AppointmentEventDTO event, Long aggregateId) {
+        event.setOccurredAt(LocalDateTime.now());
+        try {
+            outboxEventRepository.save(new OutboxEvent(event.getType(), aggregateId, objectMapper.writeValueAsString(event)));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not serialize " + event.getType() + " event: " + e.getMessage());
+        }
+    }
+}
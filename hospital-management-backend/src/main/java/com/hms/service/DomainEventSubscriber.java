@@ -0,0 +1,20 @@
+package com.hms.service;
+
+import com.hms.dto.AppointmentEventDTO;
+
+/**
+ * In-process consumer of outbox events. Every Spring bean implementing this is
+ * called by OutboxDispatcher, in its own transaction, outside the request that
+ * caused the event. Delivery is at-least-once and a retry goes to every
+ * subscriber again, so implementations must tolerate seeing an eventId twice.
+ * Throwing schedules a retry with backoff.
+ */
+public interface DomainEventSubscriber {
+
+    // Subscriber name for metrics and logs
+    String name();
+
+    boolean supports(String eventType);
+
+    void onEvent(AppointmentEventDTO event);
+}
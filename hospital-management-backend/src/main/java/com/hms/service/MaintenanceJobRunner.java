@@ -0,0 +1,64 @@
+package com.hms.service;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * One background thread for the slow nightly jobs (archiving, purging, reconciliation,
+ * stats windows). Their @Scheduled methods only hand the work over here, so the shared
+ * scheduler thread keeps serving the outbox, SSE flushes and heartbeats on time.
+ *
+ * Jobs run one after another, so two batch jobs never compete for the same rows. A job
+ * that is still queued or running is not queued a second time.
+ *
+ * Metrics: hms.jobs executor metrics.
+ */
+@Service
+public class MaintenanceJobRunner {
+
+    private final ThreadPoolExecutor pool;
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    public MaintenanceJobRunner(MeterRegistry meterRegistry) {
+        this.pool = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "hms-maintenance");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        ExecutorServiceMetrics.monitor(meterRegistry, pool, "hms.jobs");
+    }
+
+    /** Queues job under name; returns false if a run of the same job is already waiting or running. */
+    public boolean submit(String name, Runnable job) {
+        if (!pending.add(name)) {
+            System.out.println("⏭️ " + name + " is already queued, skipping this run");
+            return false;
+        }
+        pool.execute(() -> {
+            try {
+                job.run();
+            } catch (Exception e) {
+                System.err.println("❌ " + name + " failed: " + e.getMessage());
+            } finally {
+                pending.remove(name);
+            }
+        });
+        return true;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+}
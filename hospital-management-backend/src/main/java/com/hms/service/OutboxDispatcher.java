@@ -0,0 +1,172 @@
+package com.hms.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hms.dto.AppointmentEventDTO;
+import com.hms.entity.OutboxEvent;
+import com.hms.repository.OutboxEventRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Polls the outbox and hands due events to every DomainEventSubscriber.
+ *
+ * - A batch is claimed with SELECT ... FOR UPDATE SKIP LOCKED and stays locked
+ *   until its statuses are written, so several instances never deliver the same
+ *   batch concurrently.
+ * - Each subscriber call runs in its own transaction; one failing subscriber
+ *   cannot roll back the batch or another subscriber's work.
+ * - A failed event is retried with exponential backoff (1s .. 5m) and marked
+ *   FAILED after hms.outbox.max-attempts.
+ *
+ * Metrics: hms.outbox.pending, hms.outbox.oldest.age (seconds),
+ * hms.outbox.delivery.lag{type} (commit to delivery), hms.outbox.failures{type,subscriber}.
+ */
+@Service
+public class OutboxDispatcher {
+
+    private static final long MAX_BACKOFF_SECONDS = 300;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final List<DomainEventSubscriber> subscribers;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate batchTransaction;
+    private final TransactionTemplate subscriberTransaction;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration retention;
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong oldestPendingAgeSeconds = new AtomicLong();
+
+    public OutboxDispatcher(OutboxEventRepository outboxEventRepository,
+                            List<DomainEventSubscriber> subscribers,
+                            ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${hms.outbox.batch-size:100}") int batchSize,
+                            @Value("${hms.outbox.max-attempts:10}") int maxAttempts,
+                            @Value("${hms.outbox.retention:7d}") Duration retention) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.subscribers = subscribers;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.subscriberTransaction = new TransactionTemplate(transactionManager);
+        this.subscriberTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retention = retention;
+
+        Gauge.builder("hms.outbox.pending", pending, AtomicLong::get)
+                .description("Outbox events waiting for delivery")
+                .register(meterRegistry);
+        Gauge.builder("hms.outbox.oldest.age", oldestPendingAgeSeconds, AtomicLong::get)
+                .description("Age in seconds of the oldest undelivered outbox event")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        System.out.println("📮 Outbox dispatcher started with " + subscribers.size() + " subscriber(s)");
+    }
+
+    @Scheduled(fixedDelayString = "${hms.outbox.poll-interval:500ms}")
+    public void dispatch() {
+        try {
+            int delivered;
+            do {
+                delivered = dispatchBatch();
+            } while (delivered == batchSize);
+
+            pending.set(outboxEventRepository.countPending());
+            LocalDateTime oldest = outboxEventRepository.findOldestPendingCreatedAt();
+            oldestPendingAgeSeconds.set(oldest == null ? 0 : Duration.between(oldest, LocalDateTime.now()).toSeconds());
+        } catch (Exception e) {
+            System.err.println("❌ Outbox dispatch failed: " + e.getMessage());
+        }
+    }
+
+    private int dispatchBatch() {
+        Integer size = batchTransaction.execute(status -> {
+            List<OutboxEvent> batch = outboxEventRepository.lockDueBatch(LocalDateTime.now(), PageRequest.of(0, batchSize));
+            for (OutboxEvent outboxEvent : batch) {
+                deliver(outboxEvent);
+            }
+            return batch.size();
+        });
+        return size == null ? 0 : size;
+    }
+
+    private void deliver(OutboxEvent outboxEvent) {
+        String error = null;
+        try {
+            AppointmentEventDTO event = objectMapper.readValue(outboxEvent.getPayload(), AppointmentEventDTO.class);
+            event.setEventId(outboxEvent.getId());
+            for (DomainEventSubscriber subscriber : subscribers) {
+                if (!subscriber.supports(event.getType())) {
+                    continue;
+                }
+                try {
+                    subscriberTransaction.executeWithoutResult(status -> subscriber.onEvent(event));
+                } catch (Exception e) {
+                    Counter.builder("hms.outbox.failures")
+                            .tag("type", outboxEvent.getEventType())
+                            .tag("subscriber", subscriber.name())
+                            .register(meterRegistry)
+                            .increment();
+                    error = subscriber.name() + ": " + e.getMessage();
+                    System.err.println("❌ Outbox event " + outboxEvent.getId() + " failed in " + error);
+                }
+            }
+        } catch (Exception e) {
+            error = "payload: " + e.getMessage();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        if (error == null) {
+            outboxEvent.setStatus("PUBLISHED");
+            outboxEvent.setPublishedAt(now);
+            Timer.builder("hms.outbox.delivery.lag")
+                    .tag("type", outboxEvent.getEventType())
+                    .description("Time from event commit to delivery to all subscribers")
+                    .register(meterRegistry)
+                    .record(Duration.between(outboxEvent.getCreatedAt(), now));
+            return;
+        }
+
+        int attempts = outboxEvent.getAttempts() + 1;
+        outboxEvent.setAttempts(attempts);
+        outboxEvent.setLastError(error.length() > 500 ? error.substring(0, 500) : error);
+        if (attempts >= maxAttempts) {
+            outboxEvent.setStatus("FAILED");
+            System.err.println("❌ Outbox event " + outboxEvent.getId() + " gave up after " + attempts + " attempts");
+        } else {
+            long backoff = Math.min(MAX_BACKOFF_SECONDS, 1L << Math.min(attempts - 1, 20));
+            outboxEvent.setNextAttemptAt(now.plusSeconds(backoff));
+        }
+    }
+
+    // Published rows are only kept for inspection
+    @Scheduled(cron = "${hms.outbox.purge-cron:0 17 * * * *}")
+    @Transactional
+    public void purgePublished() {
+        int removed = outboxEventRepository.deletePublishedBefore(LocalDateTime.now().minus(retention));
+        if (removed > 0) {
+            System.out.println("🧹 Purged " + removed + " published outbox events");
+        }
+    }
+}
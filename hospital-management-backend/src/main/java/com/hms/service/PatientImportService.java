@@ -0,0 +1,428 @@
+package com.hms.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hms.dto.ImportReportDTO;
+import com.hms.entity.PatientImportJob;
+import com.hms.entity.Role;
+import com.hms.repository.PatientImportJobRepository;
+import com.hms.util.AfterCommit;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Bulk patient onboarding. The body is read line by line (CSV with a header row, or
+ * NDJSON), passwords are BCrypt-hashed on the importer's own pool (hms.import.hash-threads,
+ * separate from the login hashing pool), and each chunk of users and patients is
+ * written with JDBC batches in one transaction together with the job checkpoint.
+ *
+ * Columns / fields: name (required), age, gender, email, phone, password.
+ * Rows without a password get the same default as PatientService.savePatient.
+ */
+@Service
+public class PatientImportService {
+
+    private static final String DEFAULT_PASSWORD = "patient123";
+
+    private static final String INSERT_USER =
+            "INSERT INTO user (username, password, email, phone_number, created_at, updated_at, role_mask) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_PATIENT = "INSERT INTO patient (name, age, gender, user_id) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PatientImportJobRepository jobRepository;
+    private final UsernameAllocator usernameAllocator;
+    private final PasswordEncoder passwordEncoder;
+    private final SessionFactory sessionFactory;
+    private final ObjectMapper objectMapper;
+    private final PatientSearchIndex patientSearchIndex;
+    private final ThreadPoolExecutor hashPool;
+    private final int chunkSize;
+    private final Duration staleAfter;
+
+    public PatientImportService(JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                PatientImportJobRepository jobRepository,
+                                UsernameAllocator usernameAllocator,
+                                EntityManagerFactory entityManagerFactory,
+                                ObjectMapper objectMapper,
+                                PatientSearchIndex patientSearchIndex,
+                                @Value("${hms.import.chunk-size:500}") int chunkSize,
+                                @Value("${hms.import.hash-threads:4}") int hashThreads,
+                                @Value("${hms.import.stale-after:10m}") Duration staleAfter) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jobRepository = jobRepository;
+        this.usernameAllocator = usernameAllocator;
+        // Plain BCrypt (same format as the login encoder) on hashPool: the shared
+        // PasswordEncoder bean queues on the small login pool and sheds load with 503s
+        this.passwordEncoder = new BCryptPasswordEncoder();
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        this.objectMapper = objectMapper;
+        this.patientSearchIndex = patientSearchIndex;
+        this.chunkSize = chunkSize;
+        this.staleAfter = staleAfter;
+        // At most one chunk of hashes is ever queued; CallerRuns is only a safety net
+        this.hashPool = new ThreadPoolExecutor(hashThreads, hashThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(chunkSize), Thread.ofPlatform().name("hms-import-hash-", 0).factory(),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashPool.shutdownNow();
+    }
+
+    /**
+     * Import patients from a CSV or NDJSON stream. Passing the jobId of an earlier,
+     * interrupted run resumes after its last committed chunk. A jobId another request is
+     * still running is rejected; a broken upload marks the job FAILED for resuming.
+     */
+    public ImportReportDTO importPatients(InputStream body, boolean ndjson, String jobId, String startedBy) throws IOException {
+        String id = (jobId == null || jobId.isBlank()) ? UUID.randomUUID().toString() : jobId;
+        PatientImportJob job = claimJob(id, startedBy);
+
+        ImportReportDTO report = new ImportReportDTO(id);
+        report.setRowsSkipped(job.getRowsCommitted());
+        if ("COMPLETED".equals(job.getStatus())) {
+            System.out.println("⏭️ Import job " + id + " already completed, nothing to do");
+            report.setStatus(job.getStatus());
+            return report;
+        }
+        System.out.println("📥 Patient import " + id + " started by " + startedBy
+                + (job.getRowsCommitted() > 0 ? ", resuming after row " + job.getRowsCommitted() : ""));
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        long lineNo = ndjson ? 0 : 1;
+        long dataRow = 0;
+
+        Chunk chunk = new Chunk();
+        String line;
+        try {
+            Map<String, Integer> header = ndjson ? null : readHeader(reader);
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                dataRow++;
+                if (dataRow <= job.getRowsCommitted()) {
+                    continue;
+                }
+                chunk.consumed++;
+                try {
+                    chunk.rows.add(ndjson ? parseJson(line) : parseCsv(line, header));
+                } catch (RuntimeException e) {
+                    chunk.errors.add(new ImportReportDTO.RowError(lineNo, e.getMessage()));
+                }
+                if (chunk.consumed >= chunkSize) {
+                    flush(job, chunk, report);
+                    chunk = new Chunk();
+                }
+            }
+            flush(job, chunk, report);
+            job.setStatus("COMPLETED");
+        } catch (RuntimeException | IOException e) {
+            // The failed chunk was rolled back (or never started, when the upload broke off);
+            // the checkpoint still points before it
+            System.err.println("❌ Import " + id + " stopped at line " + lineNo + ": " + e.getMessage());
+            for (ImportReportDTO.RowError error : chunk.errors) {
+                report.addError(error.getLine(), error.getMessage());
+            }
+            report.addError(lineNo, "Chunk not imported, resume with jobId=" + id + ": " + e.getMessage());
+            job.setStatus("FAILED");
+        }
+
+        job.setUpdatedAt(LocalDateTime.now());
+        jobRepository.save(job);
+        report.setStatus(job.getStatus());
+        System.out.println("✅ Import " + id + " " + job.getStatus() + ": " + report.getImported() + " imported, "
+                + report.getFailed() + " failed");
+        return report;
+    }
+
+    /**
+     * Creates the job row or takes over an existing one. Fails while another request runs
+     * the same jobId; a COMPLETED job is returned as is.
+     */
+    private PatientImportJob claimJob(String id, String startedBy) {
+        PatientImportJob existing = jobRepository.findById(id).orElse(null);
+        if (existing == null) {
+            try {
+                return jobRepository.saveAndFlush(new PatientImportJob(id, startedBy));
+            } catch (DataIntegrityViolationException e) {
+                // Lost the race for a new jobId: the winner is running it
+                throw new RuntimeException("Import job " + id + " is already running");
+            }
+        }
+        if ("COMPLETED".equals(existing.getStatus())) {
+            return existing;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (jobRepository.claim(id, now, now.minus(staleAfter)) == 0) {
+            throw new RuntimeException("Import job " + id + " is already running");
+        }
+        return jobRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Import job " + id + " disappeared"));
+    }
+
+    private void flush(PatientImportJob job, Chunk chunk, ImportReportDTO report) {
+        if (chunk.consumed == 0) {
+            return;
+        }
+        List<Future<String>> hashes = new ArrayList<>(chunk.rows.size());
+        for (ImportRow row : chunk.rows) {
+            hashes.add(hashPool.submit(() -> passwordEncoder.encode(row.password)));
+        }
+
+        List<Long> userIds = transactionTemplate.execute(status -> {
+            List<String> usernames = usernameAllocator.allocateAll(chunk.rows.stream().map(r -> r.name).toList());
+            List<String> encoded = await(hashes);
+            List<Long> inserted = insertChunk(chunk.rows, usernames, encoded);
+
+            // Checkpoint on the row loaded here; the caller's copy only moves once this commits,
+            // so a failed chunk never leaves advanced counters for the FAILED save to write
+            PatientImportJob checkpoint = jobRepository.findById(job.getJobId())
+                    .orElseThrow(() -> new RuntimeException("Import job " + job.getJobId() + " disappeared"));
+            checkpoint.setRowsCommitted(job.getRowsCommitted() + chunk.consumed);
+            checkpoint.setImported(job.getImported() + chunk.rows.size());
+            checkpoint.setFailed(job.getFailed() + chunk.errors.size());
+            checkpoint.setUpdatedAt(LocalDateTime.now());
+            jobRepository.save(checkpoint);
+
+            // Rows were written behind Hibernate's back: drop cached query results
+            // (e.g. a cached "no such user" from findByUsername)
+            AfterCommit.run(() -> sessionFactory.getCache().evictQueryRegions());
+            return inserted;
+        });
+        job.setRowsCommitted(job.getRowsCommitted() + chunk.consumed);
+        job.setImported(job.getImported() + chunk.rows.size());
+        job.setFailed(job.getFailed() + chunk.errors.size());
+
+        // Entity listeners don't see JDBC inserts
+        patientSearchIndex.indexUsers(userIds);
+
+        report.setRowsProcessed(report.getRowsProcessed() + chunk.consumed);
+        report.setImported(report.getImported() + chunk.rows.size());
+        for (ImportReportDTO.RowError error : chunk.errors) {
+            report.addError(error.getLine(), error.getMessage());
+        }
+        System.out.println("📦 Import " + job.getJobId() + " committed through row " + job.getRowsCommitted());
+    }
+
+    private List<Long> insertChunk(List<ImportRow> rows, List<String> usernames, List<String> encoded) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        Date today = Date.valueOf(LocalDate.now());
+        List<Long> userIds = jdbcTemplate.execute((ConnectionCallback<List<Long>>) con -> {
+            try (PreparedStatement ps = con.prepareStatement(INSERT_USER, Statement.RETURN_GENERATED_KEYS)) {
+                for (int i = 0; i < rows.size(); i++) {
+                    ps.setString(1, usernames.get(i));
+                    ps.setString(2, encoded.get(i));
+                    ps.setString(3, rows.get(i).email);
+                    ps.setString(4, rows.get(i).phone);
+                    ps.setDate(5, today);
+                    ps.setDate(6, today);
+                    ps.setInt(7, Role.PATIENT.bit());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                List<Long> ids = new ArrayList<>(rows.size());
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    while (keys.next()) {
+                        ids.add(keys.getLong(1));
+                    }
+                }
+                return ids;
+            }
+        });
+        if (userIds == null || userIds.size() != rows.size()) {
+            throw new IllegalStateException("Expected " + rows.size() + " generated user ids, got "
+                    + (userIds == null ? 0 : userIds.size()));
+        }
+
+        List<Integer> indexes = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            indexes.add(i);
+        }
+        jdbcTemplate.batchUpdate(INSERT_PATIENT, indexes, indexes.size(), (ps, i) -> {
+            ps.setString(1, rows.get(i).name);
+            ps.setInt(2, rows.get(i).age);
+            ps.setString(3, rows.get(i).gender);
+            ps.setLong(4, userIds.get(i));
+        });
+        return userIds;
+    }
+
+    private List<String> await(List<Future<String>> hashes) {
+        List<String> encoded = new ArrayList<>(hashes.size());
+        try {
+            for (Future<String> hash : hashes) {
+                encoded.add(hash.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Import interrupted while hashing passwords");
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Password hashing failed: " + e.getCause().getMessage());
+        }
+        return encoded;
+    }
+
+    // ===== Parsing =====
+
+    private Map<String, Integer> readHeader(BufferedReader reader) throws IOException {
+        String headerLine = reader.readLine();
+        if (headerLine == null) {
+            throw new RuntimeException("CSV file is empty");
+        }
+        Map<String, Integer> header = new HashMap<>();
+        List<String> columns = splitCsv(headerLine);
+        for (int i = 0; i < columns.size(); i++) {
+            header.put(columns.get(i).trim().toLowerCase(), i);
+        }
+        if (!header.containsKey("name")) {
+            throw new RuntimeException("CSV header must contain a 'name' column");
+        }
+        return header;
+    }
+
+    private ImportRow parseCsv(String line, Map<String, Integer> header) {
+        List<String> values = splitCsv(line);
+        return toRow(column(values, header, "name"), column(values, header, "age"), column(values, header, "gender"),
+                column(values, header, "email"), column(values, header, "phone"), column(values, header, "password"));
+    }
+
+    private ImportRow parseJson(String line) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (IOException e) {
+            throw new RuntimeException("Invalid JSON");
+        }
+        return toRow(text(node, "name"), text(node, "age"), text(node, "gender"),
+                text(node, "email"), text(node, "phone"), text(node, "password"));
+    }
+
+    private ImportRow toRow(String name, String age, String gender, String email, String phone, String password) {
+        if (name == null || name.isBlank()) {
+            throw new RuntimeException("Name is required");
+        }
+        ImportRow row = new ImportRow();
+        row.name = name.trim();
+        if (age == null || age.isBlank()) {
+            row.age = 0;
+        } else {
+            try {
+                row.age = Integer.parseInt(age.trim());
+            } catch (NumberFormatException e) {
+                throw new RuntimeException("Invalid age: " + age);
+            }
+            if (row.age < 0 || row.age > 150) {
+                throw new RuntimeException("Invalid age: " + age);
+            }
+        }
+        row.gender = (gender == null || gender.isBlank()) ? "Not specified" : gender.trim();
+        row.email = blankToNull(email);
+        row.phone = blankToNull(phone);
+        row.password = (password == null || password.isEmpty()) ? DEFAULT_PASSWORD : password;
+        return row;
+    }
+
+    private static String column(List<String> values, Map<String, Integer> header, String name) {
+        Integer index = header.get(name);
+        return (index == null || index >= values.size()) ? null : values.get(index);
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return (value == null || value.isNull()) ? null : value.asText();
+    }
+
+    private static String blankToNull(String value) {
+        return (value == null || value.isBlank()) ? null : value.trim();
+    }
+
+    /**
+     * RFC 4180 field splitting for a single physical line ("" escapes a quote).
+     * Quoted fields spanning several lines are not supported.
+     */
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    private static class ImportRow {
+        String name;
+        int age;
+        String gender;
+        String email;
+        String phone;
+        String password;
+    }
+
+    private static class Chunk {
+        final List<ImportRow> rows = new ArrayList<>();
+        final List<ImportReportDTO.RowError> errors = new ArrayList<>();
+        int consumed;
+    }
+}
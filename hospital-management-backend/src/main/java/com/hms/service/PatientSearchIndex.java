@@ -0,0 +1,397 @@
+package com.hms.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import com.hms.dto.PageResultDTO;
+import com.hms.dto.PatientSearchResultDTO;
+import com.hms.entity.Patient;
+import com.hms.entity.User;
+import com.hms.exception.ServiceBusyException;
+import com.hms.repository.PatientRepository;
+
+/**
+ * In-memory patient search over name, email and phone.
+ *
+ * - prefixIndex: sorted term -> patient ids, so "jo" is a range scan over "jo".."jo￿".
+ *   Terms are name words, the whole name without spaces, the email and the phone digits.
+ * - trigramIndex: name trigrams for typo-tolerant matches when prefixes find too little.
+ *
+ * Built once after startup (keyset-paged projection query) and then kept current by
+ * PatientSearchListener after each commit. Readers never lock; writers serialize on
+ * the index monitor.
+ */
+@Service
+public class PatientSearchIndex {
+
+    private static final int BUILD_PAGE_SIZE = 5000;
+    private static final int MAX_CANDIDATES = 5000;
+    private static final int MAX_SCANNED = 50_000;
+    private static final int MAX_FUZZY_TRIGRAMS = 8;
+    private static final double MIN_SIMILARITY = 0.4;
+
+    private final PatientRepository patientRepository;
+
+    private final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Long> patientIdByUserId = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<String, Set<Long>> prefixIndex = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<String, Set<Long>> trigramIndex = new ConcurrentHashMap<>();
+
+    // Ids written while the initial build was running; re-read once it finishes
+    private final Set<Long> touchedDuringBuild = ConcurrentHashMap.newKeySet();
+    private volatile boolean ready;
+
+    public PatientSearchIndex(PatientRepository patientRepository) {
+        this.patientRepository = patientRepository;
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        long start = System.currentTimeMillis();
+        long lastId = 0L;
+        int count = 0;
+        List<PatientSearchResultDTO> page;
+        do {
+            page = patientRepository.findSearchEntriesAfter(lastId, PageRequest.ofSize(BUILD_PAGE_SIZE));
+            for (PatientSearchResultDTO patient : page) {
+                if (!touchedDuringBuild.contains(patient.getId())) {
+                    index(patient);
+                }
+            }
+            if (!page.isEmpty()) {
+                lastId = page.get(page.size() - 1).getId();
+                count += page.size();
+            }
+        } while (page.size() == BUILD_PAGE_SIZE);
+
+        ready = true;
+        if (!touchedDuringBuild.isEmpty()) {
+            patientRepository.findSearchEntriesByIds(new ArrayList<>(touchedDuringBuild)).forEach(this::index);
+            touchedDuringBuild.clear();
+        }
+        System.out.println("🔎 Patient search index built: " + count + " patients in "
+                + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    // ===== Queries =====
+
+    public PageResultDTO<PatientSearchResultDTO> search(String query, int page, int size) {
+        if (!ready) {
+            throw new ServiceBusyException("Patient search is still warming up", 5);
+        }
+        String q = query == null ? "" : query.trim().toLowerCase();
+        if (q.isEmpty()) {
+            return new PageResultDTO<>(List.of(), page, size, 0);
+        }
+
+        Map<Long, Double> scores = new HashMap<>();
+        List<String> tokens = queryTokens(q);
+        Set<Long> prefixHits = prefixMatches(tokens);
+        for (Long id : prefixHits) {
+            Entry entry = entries.get(id);
+            if (entry != null) {
+                // Whole-term matches rank above partial prefixes
+                scores.put(id, entry.terms.containsAll(tokens) ? 3.0 : 2.0);
+            }
+        }
+
+        int wanted = (page + 1) * size;
+        boolean nameQuery = !q.contains("@") && !isPhoneQuery(q);
+        if (scores.size() < wanted && nameQuery) {
+            fuzzyMatches(tokens).forEach((id, similarity) -> scores.merge(id, similarity, Math::max));
+        }
+
+        List<PatientSearchResultDTO> top = topK(scores, wanted);
+        int from = Math.min(page * size, top.size());
+        return new PageResultDTO<>(top.subList(from, top.size()), page, size, scores.size());
+    }
+
+    /**
+     * Ids matching every token by prefix, at most MAX_CANDIDATES. Walks the rarest token's
+     * postings in term order (whole-term matches come first) and checks the other tokens
+     * against each candidate's own terms. The walk and the size estimates stop after
+     * MAX_SCANNED postings, so a one-letter query costs the same at any table size.
+     */
+    private Set<Long> prefixMatches(List<String> tokens) {
+        Set<Long> hits = new LinkedHashSet<>();
+        if (tokens.isEmpty()) {
+            return hits;
+        }
+        List<String> rest = new ArrayList<>(tokens);
+        String rarest = rest.get(0);
+        int rarestCount = postingCount(rarest);
+        for (String token : tokens) {
+            int count = postingCount(token);
+            if (count < rarestCount) {
+                rarest = token;
+                rarestCount = count;
+            }
+        }
+        rest.remove(rarest);
+
+        int scanned = 0;
+        for (Set<Long> ids : prefixRange(rarest).values()) {
+            for (Long id : ids) {
+                if (++scanned > MAX_SCANNED || hits.size() >= MAX_CANDIDATES) {
+                    return hits;
+                }
+                Entry entry = entries.get(id);
+                if (entry != null && rest.stream().allMatch(entry::hasTermStartingWith)) {
+                    hits.add(id);
+                }
+            }
+        }
+        return hits;
+    }
+
+    // Postings under prefix, counted up to just past MAX_SCANNED
+    private int postingCount(String prefix) {
+        int count = 0;
+        for (Set<Long> ids : prefixRange(prefix).values()) {
+            count += ids.size();
+            if (count > MAX_SCANNED) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    private Map<String, Set<Long>> prefixRange(String prefix) {
+        return prefixIndex.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    private Map<Long, Double> fuzzyMatches(List<String> tokens) {
+        Set<String> queryTrigrams = new LinkedHashSet<>();
+        tokens.forEach(token -> queryTrigrams.addAll(trigrams(token)));
+
+        // Rarest trigrams carry the most signal and keep the scan short; trigrams nobody
+        // has (the typo itself) would only take slots from ones that can still match
+        List<Set<Long>> postings = queryTrigrams.stream()
+                .map(t -> trigramIndex.getOrDefault(t, Set.of()))
+                .filter(ids -> !ids.isEmpty())
+                .sorted(Comparator.comparingInt(Set::size))
+                .limit(MAX_FUZZY_TRIGRAMS)
+                .toList();
+        if (postings.isEmpty()) {
+            return Map.of();
+        }
+        // Missing trigrams still count against the match
+        int compared = Math.min(queryTrigrams.size(), MAX_FUZZY_TRIGRAMS);
+
+        Map<Long, Integer> hits = new HashMap<>();
+        for (Set<Long> ids : postings) {
+            for (Long id : ids) {
+                hits.merge(id, 1, Integer::sum);
+            }
+        }
+        Map<Long, Double> result = new HashMap<>();
+        hits.forEach((id, count) -> {
+            double similarity = (double) count / compared;
+            if (similarity >= MIN_SIMILARITY) {
+                result.put(id, similarity);
+            }
+        });
+        return result;
+    }
+
+    private List<PatientSearchResultDTO> topK(Map<Long, Double> scores, int k) {
+        Comparator<Map.Entry<Long, Double>> best = Comparator
+                .comparing((Map.Entry<Long, Double> e) -> e.getValue()).reversed()
+                .thenComparing(e -> entries.containsKey(e.getKey()) ? entries.get(e.getKey()).sortKey : "")
+                .thenComparing(Map.Entry::getKey);
+        // Min-heap of the k best so far (worst on top)
+        PriorityQueue<Map.Entry<Long, Double>> heap = new PriorityQueue<>(k + 1, best.reversed());
+        for (Map.Entry<Long, Double> candidate : scores.entrySet()) {
+            heap.offer(candidate);
+            if (heap.size() > k) {
+                heap.poll();
+            }
+        }
+        List<Map.Entry<Long, Double>> ordered = new ArrayList<>(heap);
+        ordered.sort(best);
+        List<PatientSearchResultDTO> result = new ArrayList<>(ordered.size());
+        for (Map.Entry<Long, Double> e : ordered) {
+            Entry entry = entries.get(e.getKey());
+            if (entry != null) {
+                result.add(entry.patient);
+            }
+        }
+        return result;
+    }
+
+    // ===== Incremental updates (called after commit) =====
+
+    public void patientSaved(PatientSearchResultDTO patient) {
+        put(patient);
+    }
+
+    public static PatientSearchResultDTO toResult(Patient patient) {
+        User user = patient.getUser();
+        return new PatientSearchResultDTO(patient.getId(), patient.getName(), patient.getAge(), patient.getGender(),
+                user != null ? user.getId() : null,
+                user != null ? user.getEmail() : null,
+                user != null ? user.getPhoneNumber() : null);
+    }
+
+    public void patientRemoved(Long patientId) {
+        if (!ready) {
+            touchedDuringBuild.add(patientId);
+        }
+        synchronized (this) {
+            Entry old = entries.remove(patientId);
+            if (old != null) {
+                unlink(patientId, old);
+                if (old.patient.getUserId() != null) {
+                    patientIdByUserId.remove(old.patient.getUserId(), patientId);
+                }
+            }
+        }
+    }
+
+    public void userSaved(Long userId, String email, String phoneNumber) {
+        Long patientId = patientIdByUserId.get(userId);
+        Entry entry = patientId != null ? entries.get(patientId) : null;
+        if (entry == null) {
+            return;
+        }
+        PatientSearchResultDTO p = entry.patient;
+        put(new PatientSearchResultDTO(p.getId(), p.getName(), p.getAge(), p.getGender(), userId, email, phoneNumber));
+    }
+
+    /**
+     * Index patients created outside Hibernate (bulk import).
+     */
+    public void indexUsers(Collection<Long> userIds) {
+        if (!userIds.isEmpty()) {
+            patientRepository.findSearchEntriesByUserIds(userIds).forEach(this::put);
+        }
+    }
+
+    private void put(PatientSearchResultDTO patient) {
+        if (!ready) {
+            touchedDuringBuild.add(patient.getId());
+        }
+        index(patient);
+    }
+
+    private synchronized void index(PatientSearchResultDTO patient) {
+        Entry old = entries.get(patient.getId());
+        if (old != null) {
+            unlink(patient.getId(), old);
+        }
+        Entry entry = new Entry(patient);
+        for (String term : entry.terms) {
+            prefixIndex.computeIfAbsent(term, t -> ConcurrentHashMap.newKeySet()).add(patient.getId());
+        }
+        for (String trigram : entry.trigrams) {
+            trigramIndex.computeIfAbsent(trigram, t -> ConcurrentHashMap.newKeySet()).add(patient.getId());
+        }
+        entries.put(patient.getId(), entry);
+        if (patient.getUserId() != null) {
+            patientIdByUserId.put(patient.getUserId(), patient.getId());
+        }
+    }
+
+    private void unlink(Long id, Entry old) {
+        for (String term : old.terms) {
+            Set<Long> ids = prefixIndex.get(term);
+            if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                prefixIndex.remove(term, ids);
+            }
+        }
+        for (String trigram : old.trigrams) {
+            Set<Long> ids = trigramIndex.get(trigram);
+            if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                trigramIndex.remove(trigram, ids);
+            }
+        }
+    }
+
+    // ===== Normalization =====
+
+    private static List<String> queryTokens(String q) {
+        if (q.contains("@")) {
+            return List.of(q);
+        }
+        if (isPhoneQuery(q)) {
+            return List.of(q.replaceAll("[^0-9]", ""));
+        }
+        return nameWords(q);
+    }
+
+    private static boolean isPhoneQuery(String q) {
+        return q.matches("[0-9+()\\-.\\s]+") && q.replaceAll("[^0-9]", "").length() >= 3;
+    }
+
+    private static List<String> nameWords(String name) {
+        List<String> words = new ArrayList<>();
+        for (String word : name.toLowerCase().split("[^a-z0-9]+")) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    private static Set<String> trigrams(String word) {
+        String padded = "$" + word + "$";
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            result.add(padded.substring(i, i + 3));
+        }
+        return result;
+    }
+
+    private static final class Entry {
+        final PatientSearchResultDTO patient;
+        final String sortKey;
+        final Set<String> terms = new HashSet<>();
+        final Set<String> trigrams = new HashSet<>();
+
+        Entry(PatientSearchResultDTO patient) {
+            this.patient = patient;
+            this.sortKey = patient.getName() == null ? "" : patient.getName().toLowerCase();
+            List<String> words = nameWords(sortKey);
+            terms.addAll(words);
+            if (words.size() > 1) {
+                terms.add(String.join("", words));
+            }
+            words.forEach(word -> trigrams.addAll(trigrams(word)));
+            if (patient.getEmail() != null && !patient.getEmail().isBlank()) {
+                terms.add(patient.getEmail().trim().toLowerCase());
+            }
+            if (patient.getPhoneNumber() != null) {
+                String digits = patient.getPhoneNumber().replaceAll("[^0-9]", "");
+                if (!digits.isEmpty()) {
+                    terms.add(digits);
+                }
+            }
+        }
+
+        boolean hasTermStartingWith(String prefix) {
+            for (String term : terms) {
+                if (term.startsWith(prefix)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
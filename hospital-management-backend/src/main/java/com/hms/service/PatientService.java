@@ -1,29 +1,46 @@
 package com.hms.service;
 
+import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.hms.dto.CursorPageDTO;
+import com.hms.dto.DoctorPatientDTO;
 import com.hms.dto.PatientProfileDTO;
+import com.hms.dto.PatientSummaryDTO;
 import com.hms.entity.Patient;
+import com.hms.entity.Role;
 import com.hms.entity.User;
+import com.hms.repository.ArchivedAppointmentRepository;
 import com.hms.repository.PatientRepository;
 import com.hms.repository.UserRepository;
 @Service
 public class PatientService {
 
     private final PatientRepository patientRepository;
+    private final ArchivedAppointmentRepository archiveRepository;
     private final UserRepository userRepository;
-    private final BCryptPasswordEncoder passwordEncoder;
+    private final ProfileProvisioner profileProvisioner;
+    private final UsernameAllocator usernameAllocator;
+    private final PasswordEncoder passwordEncoder;
 
-    public PatientService(PatientRepository patientRepository, UserRepository userRepository) {
+    public PatientService(PatientRepository patientRepository, ArchivedAppointmentRepository archiveRepository,
+                          UserRepository userRepository, ProfileProvisioner profileProvisioner,
+                          UsernameAllocator usernameAllocator, PasswordEncoder passwordEncoder) {
         this.patientRepository = patientRepository;
+        this.archiveRepository = archiveRepository;
         this.userRepository = userRepository;
-        this.passwordEncoder = new BCryptPasswordEncoder();
+        this.profileProvisioner = profileProvisioner;
+        this.usernameAllocator = usernameAllocator;
+        this.passwordEncoder = passwordEncoder;
     }
 
     /**
@@ -39,8 +56,7 @@ public class PatientService {
             System.out.println("👤 Creating a new user account for patient");
 
             // Generate username from name
-            String baseUsername = generateUsername(patient.getName());
-            String username = getUniqueUsername(baseUsername);
+            String username = usernameAllocator.allocate(patient.getName());
             
             // Default password
             String defaultPassword = "patient123";
@@ -66,34 +82,6 @@ public class PatientService {
         return patientRepository.save(patient);
     }
 
-    /**
-     * Generate username from name
-     */
-    private String generateUsername(String name) {
-        // Remove spaces and convert to lowercase
-        String baseUsername = name.toLowerCase().replaceAll("\\s+", "");
-        
-        // Remove special characters, keep only letters and numbers
-        baseUsername = baseUsername.replaceAll("[^a-z0-9]", "");
-        
-        return baseUsername;
-    }
-
-    /**
-     * Ensure username is unique by appending numbers if needed
-     */
-    private String getUniqueUsername(String baseUsername) {
-        String username = baseUsername;
-        int counter = 1;
-        
-        while (userRepository.findByUsername(username).isPresent()) {
-            username = baseUsername + counter;
-            counter++;
-        }
-        
-        return username;
-    }
-
     public List<Patient> getAllPatients() {
         return patientRepository.findAll();
     }
@@ -107,12 +95,12 @@ public class PatientService {
 
         System.out.println("🎯 Role-based patient filtering for user: " + username + " with roles: " + currentUser.getRoles());
 
-        if (currentUser.getRoles().contains("ROLE_ADMIN")) {
-            return patientRepository.findAll();
-        } else if (currentUser.getRoles().contains("ROLE_DOCTOR")) {
-            // Doctors can see all patients (or only their patients based on appointments)
+        if (currentUser.hasRole(Role.ADMIN)) {
             return patientRepository.findAll();
-        } else if (currentUser.getRoles().contains("ROLE_PATIENT")) {
+        } else if (currentUser.hasRole(Role.DOCTOR)) {
+            // Doctors see their own patients; anyone else is found through patient search
+            return patientRepository.findByDoctorUserId(currentUser.getId());
+        } else if (currentUser.hasRole(Role.PATIENT)) {
             Optional<Patient> patient = patientRepository.findByUser(currentUser);
             return patient.map(List::of).orElse(List.of());
         } else {
@@ -120,6 +108,65 @@ public class PatientService {
         }
     }
 
+    /**
+     * Same role rules as getAllPatients, but as summary projections for list screens
+     */
+    @Transactional(readOnly = true)
+    public List<PatientSummaryDTO> getPatientSummaries(String username) {
+        User currentUser = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found: " + username));
+
+        if (currentUser.hasRole(Role.ADMIN)) {
+            return patientRepository.findAllSummaries();
+        } else if (currentUser.hasRole(Role.DOCTOR)) {
+            return patientRepository.findSummariesByDoctorUserId(currentUser.getId());
+        } else if (currentUser.hasRole(Role.PATIENT)) {
+            return patientRepository.findSummariesByUserId(currentUser.getId());
+        } else {
+            return List.of();
+        }
+    }
+
+    /**
+     * Patients who have appointments with this doctor, keyset-paged by patient id.
+     * Visit statistics include archived appointments (one grouped archive query per page);
+     * a patient whose appointments with the doctor are all archived is no longer listed.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<DoctorPatientDTO> getDoctorPatients(Long doctorId, String after, int size) {
+        long afterId = 0L;
+        if (after != null && !after.isBlank()) {
+            try {
+                afterId = Long.parseLong(after);
+            } catch (NumberFormatException e) {
+                throw new RuntimeException("Invalid cursor: " + after);
+            }
+        }
+        List<DoctorPatientDTO> rows = patientRepository.findDoctorPatientsAfter(doctorId, afterId, PageRequest.ofSize(size + 1));
+        boolean hasMore = rows.size() > size;
+        List<DoctorPatientDTO> page = hasMore ? rows.subList(0, size) : rows;
+        addArchivedVisits(doctorId, page);
+        String nextCursor = hasMore ? String.valueOf(page.get(page.size() - 1).getId()) : null;
+        return new CursorPageDTO<>(page, nextCursor, hasMore);
+    }
+
+    private void addArchivedVisits(Long doctorId, List<DoctorPatientDTO> page) {
+        if (page.isEmpty()) {
+            return;
+        }
+        Map<Long, DoctorPatientDTO> byId = new HashMap<>();
+        page.forEach(patient -> byId.put(patient.getId(), patient));
+        for (Object[] row : archiveRepository.countVisits(doctorId, byId.keySet())) {
+            DoctorPatientDTO patient = byId.get((Long) row[0]);
+            LocalDate lastVisit = (LocalDate) row[1];
+            if (lastVisit != null && (patient.getLastVisitDate() == null || lastVisit.isAfter(patient.getLastVisitDate()))) {
+                patient.setLastVisitDate(lastVisit);
+            }
+            patient.setVisitCount(patient.getVisitCount() + ((Number) row[2]).longValue());
+            patient.setAppointmentCount(patient.getAppointmentCount() + ((Number) row[3]).longValue());
+        }
+    }
+
     public Optional<Patient> getPatientById(Long id) {
         return patientRepository.findById(id);
     }
@@ -166,8 +213,7 @@ public class PatientService {
             
             // Update user username if name changed and user exists
             if (!patient.getName().equals(updatedPatient.getName()) && patient.getUser() != null) {
-                String newUsername = generateUsername(updatedPatient.getName());
-                String uniqueUsername = getUniqueUsername(newUsername);
+                String uniqueUsername = usernameAllocator.allocate(updatedPatient.getName());
                 patient.getUser().setUsername(uniqueUsername);
                 userRepository.save(patient.getUser());
             }
@@ -178,26 +224,11 @@ public class PatientService {
 
     /**
      * ✅ IMPROVED: Get current patient with auto-creation if missing
+     * (cached id lookup, race-free creation: see ProfileProvisioner)
      */
     @Transactional
     public Patient getCurrentPatient(String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        Optional<Patient> existingPatient = patientRepository.findByUser(user);
-        if (existingPatient.isPresent()) {
-            return existingPatient.get();
-        }
-        
-        // Auto-create patient profile if missing
-        System.out.println("⚠️ Patient profile not found for user: " + username + ", auto-creating...");
-        Patient newPatient = new Patient();
-        newPatient.setName(user.getUsername());
-        newPatient.setAge(0);
-        newPatient.setGender("Not specified");
-        newPatient.setUser(user);
-        
-        return patientRepository.save(newPatient);
+        return profileProvisioner.currentPatient(username);
     }
 
     public List<Patient> getPatientsWithoutUsers() {
@@ -0,0 +1,43 @@
+package com.hms.service;
+
+import java.util.Optional;
+
+import org.springframework.stereotype.Service;
+
+import com.hms.dto.AppointmentEventDTO;
+import com.hms.entity.Prescription;
+import com.hms.repository.PrescriptionRepository;
+
+/**
+ * Prescription availability check for completed appointments, moved out of
+ * AppointmentService.updateAppointmentStatus so it no longer runs in the request.
+ */
+@Service
+public class PrescriptionAccessSubscriber implements DomainEventSubscriber {
+
+    private final PrescriptionRepository prescriptionRepository;
+
+    public PrescriptionAccessSubscriber(PrescriptionRepository prescriptionRepository) {
+        this.prescriptionRepository = prescriptionRepository;
+    }
+
+    @Override
+    public String name() {
+        return "prescription-access";
+    }
+
+    @Override
+    public boolean supports(String eventType) {
+        return AppointmentEventDTO.COMPLETED.equals(eventType);
+    }
+
+    @Override
+    public void onEvent(AppointmentEventDTO event) {
+        Optional<Prescription> existingPrescription = prescriptionRepository.findByAppointmentId(event.getAppointmentId());
+        if (existingPrescription.isPresent()) {
+            System.out.println("✅ Prescription is now accessible to patient for appointment: " + event.getAppointmentId());
+        } else {
+            System.out.println("ℹ️ No prescription found for completed appointment: " + event.getAppointmentId());
+        }
+    }
+}
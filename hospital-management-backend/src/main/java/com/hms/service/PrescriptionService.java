@@ -1,12 +1,19 @@
 package com.hms.service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.hms.dto.ArchivedAppointmentDTO;
 import com.hms.dto.MedicationDTO;
 import com.hms.dto.PrescriptionRequestDTO;
 import com.hms.dto.PrescriptionResponseDTO;
@@ -44,6 +51,13 @@ public class PrescriptionService {
     @Autowired
     private PatientRepository patientRepository;
 
+    @Autowired
+    private DomainEventPublisher domainEventPublisher;
+
+    @Autowired
+    private AppointmentArchiveService archiveService;
+
+    @Transactional // ✅ prescription, medications and the outbox event commit together
     public Prescription createPrescription(PrescriptionRequestDTO requestDTO, String username) {
         System.out.println("💊 Creating prescription for appointment: " + requestDTO.getAppointmentId());
         
@@ -85,20 +99,33 @@ public class PrescriptionService {
             }
         }
 
+        domainEventPublisher.prescriptionIssued(savedPrescription);
+
         System.out.println("✅ Prescription created with ID: " + savedPrescription.getId());
         return savedPrescription;
     }
 
     public PrescriptionResponseDTO getPrescriptionByAppointment(Long appointmentId) {
-        Prescription prescription = prescriptionRepository.findByAppointmentId(appointmentId)
+        Optional<Prescription> prescription = prescriptionRepository.findByAppointmentId(appointmentId);
+        if (prescription.isPresent()) {
+            return convertToDTO(prescription.get());
+        }
+        // ✅ ADDED: Appointments past the archive horizon keep their prescription in the archive
+        ArchivedAppointmentDTO archived = archiveService.findByAppointmentId(appointmentId)
+                .filter(a -> a.getPrescription() != null)
                 .orElseThrow(() -> new RuntimeException("Prescription not found"));
-        return convertToDTO(prescription);
+        return archived.getPrescription();
     }
 
     // ✅ ADDED: Get prescription for patient (with security check)
     public PrescriptionResponseDTO getPrescriptionForPatient(Long prescriptionId, String username) {
-        Prescription prescription = prescriptionRepository.findById(prescriptionId)
-                .orElseThrow(() -> new RuntimeException("Prescription not found"));
+        Optional<Prescription> live = prescriptionRepository.findById(prescriptionId);
+        if (live.isEmpty()) {
+            ArchivedAppointmentDTO archived = archiveService.findByPrescriptionId(prescriptionId)
+                    .orElseThrow(() -> new RuntimeException("Prescription not found"));
+            return archivedPrescriptionForPatient(archived, username);
+        }
+        Prescription prescription = live.get();
 
         // Check if the current user is the patient of this prescription
         User currentUser = userRepository.findByUsername(username)
@@ -126,12 +153,9 @@ public class PrescriptionService {
                 .orElseThrow(() -> new RuntimeException("Patient profile not found"));
 
         // Get prescriptions only for completed appointments
-        List<Prescription> prescriptions = prescriptionRepository.findByAppointmentPatientIdAndAppointmentStatus(
-            patient.getId(), "COMPLETED");
-        
-        return prescriptions.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return AppointmentArchiveService.withArchived(
+                archiveService.prescriptionsForPatient(patient.getId(), "COMPLETED"),
+                withMedications(prescriptionRepository.findHeadersByPatientIdAndStatus(patient.getId(), "COMPLETED")));
     }
 
     // ✅ ADDED: Get prescription by appointment ID for patient
@@ -145,11 +169,18 @@ public class PrescriptionService {
 
         System.out.println("👤 Patient found: " + patient.getName() + " (ID: " + patient.getId() + ")");
 
-        Prescription prescription = prescriptionRepository.findByAppointmentId(appointmentId)
-                .orElseThrow(() -> {
-                    System.out.println("❌ No prescription found for appointment: " + appointmentId);
-                    return new RuntimeException("Prescription not found");
-                });
+        Optional<Prescription> live = prescriptionRepository.findByAppointmentId(appointmentId);
+        if (live.isEmpty()) {
+            ArchivedAppointmentDTO archived = archiveService.findByAppointmentId(appointmentId)
+                    .filter(a -> a.getPrescription() != null)
+                    .orElseThrow(() -> {
+                        System.out.println("❌ No prescription found for appointment: " + appointmentId);
+                        return new RuntimeException("Prescription not found");
+                    });
+            System.out.println("🗄️ Prescription for appointment " + appointmentId + " served from the archive");
+            return archivedPrescriptionForPatient(archived, username);
+        }
+        Prescription prescription = live.get();
 
         System.out.println("📄 Prescription found for appointment: " + appointmentId);
         System.out.println("🔒 Checking authorization...");
@@ -176,10 +207,9 @@ public class PrescriptionService {
         Patient patient = patientRepository.findByUser(user)
                 .orElseThrow(() -> new RuntimeException("Patient profile not found"));
 
-        List<Prescription> prescriptions = prescriptionRepository.findByAppointmentPatientId(patient.getId());
-        return prescriptions.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return AppointmentArchiveService.withArchived(
+                archiveService.prescriptionsForPatient(patient.getId(), null),
+                withMedications(prescriptionRepository.findHeadersByPatientId(patient.getId())));
     }
 
     public List<PrescriptionResponseDTO> getPrescriptionsForDoctor(String username) {
@@ -188,10 +218,9 @@ public class PrescriptionService {
         Doctor doctor = doctorRepository.findByUser(user)
                 .orElseThrow(() -> new RuntimeException("Doctor profile not found"));
 
-        List<Prescription> prescriptions = prescriptionRepository.findByAppointmentDoctorId(doctor.getId());
-        return prescriptions.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return AppointmentArchiveService.withArchived(
+                archiveService.prescriptionsForDoctor(doctor.getId()),
+                withMedications(prescriptionRepository.findHeadersByDoctorId(doctor.getId())));
     }
     
 
@@ -253,6 +282,44 @@ public class PrescriptionService {
         System.out.println("🗑️ Prescription deleted: " + id);
     }
 
+    // ✅ ADDED: Same checks as for live prescriptions, against the archived appointment
+    private PrescriptionResponseDTO archivedPrescriptionForPatient(ArchivedAppointmentDTO archived, String username) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        Patient patient = patientRepository.findByUser(user)
+                .orElseThrow(() -> new RuntimeException("Patient profile not found"));
+
+        if (!patient.getId().equals(archived.getAppointment().getPatientId())) {
+            throw new RuntimeException("You can only view your own prescriptions");
+        }
+        if (!"COMPLETED".equals(archived.getAppointment().getStatus())) {
+            throw new RuntimeException("Prescription is not available until appointment is completed");
+        }
+        return archived.getPrescription();
+    }
+
+    // ✅ ADDED: Prescriptions (with medications) of a set of appointments, for archiving
+    public List<PrescriptionResponseDTO> getPrescriptionsForAppointments(Collection<Long> appointmentIds) {
+        return withMedications(prescriptionRepository.findHeadersByAppointmentIds(appointmentIds));
+    }
+
+    // ✅ ADDED: Attach medications to projected headers with a single IN query
+    private List<PrescriptionResponseDTO> withMedications(List<PrescriptionResponseDTO> prescriptions) {
+        if (prescriptions.isEmpty()) {
+            return prescriptions;
+        }
+        Map<Long, List<MedicationDTO>> byPrescription = new HashMap<>();
+        for (PrescriptionResponseDTO dto : prescriptions) {
+            dto.setMedications(new ArrayList<>());
+            byPrescription.put(dto.getId(), dto.getMedications());
+        }
+        for (Medication medication : medicationRepository.findByPrescriptionIdIn(byPrescription.keySet())) {
+            // getPrescription().getId() reads the FK from the lazy proxy without loading it
+            byPrescription.get(medication.getPrescription().getId()).add(convertMedicationToDTO(medication));
+        }
+        return prescriptions;
+    }
+
     private PrescriptionResponseDTO convertToDTO(Prescription prescription) {
         PrescriptionResponseDTO dto = new PrescriptionResponseDTO();
         dto.setId(prescription.getId());
@@ -0,0 +1,149 @@
+package com.hms.service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hms.entity.Doctor;
+import com.hms.entity.Patient;
+import com.hms.entity.User;
+import com.hms.repository.DoctorRepository;
+import com.hms.repository.PatientRepository;
+import com.hms.repository.UserRepository;
+
+/**
+ * Resolves the logged-in user's Patient / Doctor profile, creating a default one
+ * the first time it is missing.
+ *
+ * - username -> profile id is cached for the token lifetime, so repeat calls are a
+ *   primary-key lookup (Doctor is also in the L2 cache).
+ * - On a miss, user id and profile id come from one LEFT JOIN query.
+ * - Creation is idempotent: patient.user_id / doctor.user_id are unique, so when
+ *   concurrent first requests race, one insert wins and the others re-read the
+ *   winner's row. Both steps run in their own read-write transaction; callers may
+ *   be read-only (possibly on a replica) or hold a snapshot that predates the insert.
+ */
+@Service
+public class ProfileProvisioner {
+
+    private final PatientRepository patientRepository;
+    private final DoctorRepository doctorRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate requiresNew;
+    private final Cache<String, Long> patientIds;
+    private final Cache<String, Long> doctorIds;
+
+    public ProfileProvisioner(PatientRepository patientRepository, DoctorRepository doctorRepository,
+                              UserRepository userRepository, PlatformTransactionManager transactionManager,
+                              @Value("${hms.profile.id-cache-ttl:10h}") Duration idCacheTtl) {
+        this.patientRepository = patientRepository;
+        this.doctorRepository = doctorRepository;
+        this.userRepository = userRepository;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.patientIds = Caffeine.newBuilder().maximumSize(50_000).expireAfterWrite(idCacheTtl).build();
+        this.doctorIds = Caffeine.newBuilder().maximumSize(10_000).expireAfterWrite(idCacheTtl).build();
+    }
+
+    public Patient currentPatient(String username) {
+        Patient cached = cachedProfile(patientIds, username, patientRepository::findById, Patient::getUser);
+        if (cached != null) {
+            return cached;
+        }
+        Object[] ids = resolve(patientRepository.findUserAndPatientId(username));
+        Long userId = (Long) ids[0];
+        Patient patient = ids[1] != null
+                ? patientRepository.findById((Long) ids[1]).orElse(null)
+                : null;
+        if (patient == null) {
+            System.out.println("⚠️ Patient profile not found for user: " + username + ", auto-creating...");
+            patient = provision(() -> createDefaultPatient(userId),
+                    () -> patientRepository.findByUserId(userId));
+        }
+        patientIds.put(username, patient.getId());
+        return patient;
+    }
+
+    public Doctor currentDoctor(String username) {
+        Doctor cached = cachedProfile(doctorIds, username, doctorRepository::findById, Doctor::getUser);
+        if (cached != null) {
+            return cached;
+        }
+        Object[] ids = resolve(doctorRepository.findUserAndDoctorId(username));
+        Long userId = (Long) ids[0];
+        Doctor doctor = ids[1] != null
+                ? doctorRepository.findById((Long) ids[1]).orElse(null)
+                : null;
+        if (doctor == null) {
+            System.out.println("⚠️ Doctor profile not found for user: " + username + ", auto-creating...");
+            doctor = provision(() -> createDefaultDoctor(userId),
+                    () -> doctorRepository.findByUserId(userId));
+        }
+        doctorIds.put(username, doctor.getId());
+        return doctor;
+    }
+
+    // Cached id is only trusted while the row still exists and still belongs to this user
+    private static <T> T cachedProfile(Cache<String, Long> ids, String username,
+                                       Function<Long, Optional<T>> loader, Function<T, User> owner) {
+        Long id = ids.getIfPresent(username);
+        if (id == null) {
+            return null;
+        }
+        T profile = loader.apply(id).orElse(null);
+        if (profile != null && owner.apply(profile) != null && username.equals(owner.apply(profile).getUsername())) {
+            return profile;
+        }
+        ids.invalidate(username);
+        return null;
+    }
+
+    private static Object[] resolve(List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            throw new RuntimeException("User not found");
+        }
+        return rows.get(0);
+    }
+
+    private <T> T provision(Supplier<T> create, Supplier<Optional<T>> reread) {
+        try {
+            return requiresNew.execute(status -> create.get());
+        } catch (DataIntegrityViolationException e) {
+            // Lost the race: another request created it first, read the winner's row
+            System.out.println("ℹ️ Profile created concurrently, reusing existing row");
+            return requiresNew.execute(status -> reread.get())
+                    .orElseThrow(() -> e);
+        }
+    }
+
+    private Patient createDefaultPatient(Long userId) {
+        User user = userRepository.getReferenceById(userId);
+        Patient newPatient = new Patient();
+        newPatient.setName(user.getUsername());
+        newPatient.setAge(0);
+        newPatient.setGender("Not specified");
+        newPatient.setUser(user);
+        return patientRepository.saveAndFlush(newPatient);
+    }
+
+    private Doctor createDefaultDoctor(Long userId) {
+        User user = userRepository.getReferenceById(userId);
+        Doctor newDoctor = new Doctor();
+        newDoctor.setName(user.getUsername());
+        newDoctor.setSpecialization("General");
+        newDoctor.setContact("Not provided");
+        newDoctor.setUser(user);
+        return doctorRepository.saveAndFlush(newDoctor);
+    }
+}
@@ -0,0 +1,238 @@
+package com.hms.service;
+
+import java.time.Duration;
+import java.util.Collection;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hms.dto.DoctorProfileDTO;
+import com.hms.dto.PatientProfileDTO;
+import com.hms.dto.UserProfileDTO;
+import com.hms.entity.Doctor;
+import com.hms.entity.Patient;
+import com.hms.entity.Role;
+import com.hms.entity.User;
+import com.hms.repository.DoctorRepository;
+import com.hms.repository.PatientRepository;
+import com.hms.repository.UserRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Composite profile for GET /api/profile/me: the user plus their doctor or patient
+ * profile, built with one query for the caller's role and cached per username.
+ *
+ * Entries remember the per-user version from ResourceVersionService they were built
+ * at. Any write to the User, Doctor or Patient row bumps that version after commit,
+ * so a stale entry is never served, whichever service made the change.
+ *
+ * Metrics: cache_* {cache=hms.profile} (hits, misses, evictions, size).
+ */
+@Service
+public class ProfileService {
+
+    // eTag is null when the body cannot be tied to a version; such views are neither cached nor validated
+    public record ProfileView(Long userId, Object body, String eTag, long lastModified) {}
+
+    private record Entry(ProfileView view, long version) {}
+
+    private final UserRepository userRepository;
+    private final DoctorRepository doctorRepository;
+    private final PatientRepository patientRepository;
+    private final DoctorService doctorService;
+    private final PatientService patientService;
+    private final ResourceVersionService resourceVersionService;
+    private final TransactionTemplate transactionTemplate;
+    private final Cache<String, Entry> profiles;
+    // username -> user id, so a miss can read the version before querying. Usernames can be
+    // reassigned (UsernameAllocator on doctor/patient updates), so build() checks the row it got
+    private final Cache<String, Long> userIds;
+
+    public ProfileService(UserRepository userRepository,
+                          DoctorRepository doctorRepository,
+                          PatientRepository patientRepository,
+                          DoctorService doctorService,
+                          PatientService patientService,
+                          ResourceVersionService resourceVersionService,
+                          PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry,
+                          @Value("${hms.profile.cache-size:10000}") long cacheSize,
+                          @Value("${hms.profile.cache-ttl:30m}") Duration cacheTtl) {
+        this.userRepository = userRepository;
+        this.doctorRepository = doctorRepository;
+        this.patientRepository = patientRepository;
+        this.doctorService = doctorService;
+        this.patientService = patientService;
+        this.resourceVersionService = resourceVersionService;
+        // Read-write: a lagging replica must not be cached under the current version
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.profiles = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(cacheTtl)
+                .recordStats()
+                .build();
+        this.userIds = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, profiles, "hms.profile");
+    }
+
+    /**
+     * Profile for the authenticated user. Which profile is built follows the token's
+     * authorities (doctor first, then patient, otherwise the plain user profile).
+     */
+    public ProfileView getProfile(String username, Collection<? extends GrantedAuthority> authorities) {
+        Long userId = userIds.getIfPresent(username);
+        if (userId == null) {
+            // First sight of this user: no version to pin the result to, so serve it uncached
+            ProfileView view = build(username, authorities, null, null);
+            userIds.put(username, view.userId());
+            return view;
+        }
+
+        long version = resourceVersionService.profileVersion(userId);
+        Entry entry = profiles.getIfPresent(username);
+        if (entry != null && entry.version() == version) {
+            return entry.view();
+        }
+
+        // Version read before the query: a write committing meanwhile leaves this entry outdated, never current
+        ProfileView view = build(username, authorities, userId, version);
+        if (!userId.equals(view.userId())) {
+            // The username now belongs to another account: drop what was cached for the old one
+            userIds.put(username, view.userId());
+            profiles.invalidate(username);
+        } else if (view.eTag() != null) {
+            profiles.put(username, new Entry(view, version));
+        }
+        return view;
+    }
+
+    public void evict(String username) {
+        profiles.invalidate(username);
+    }
+
+    private ProfileView build(String username, Collection<? extends GrantedAuthority> authorities,
+                              Long expectedUserId, Long version) {
+        Object body = transactionTemplate.execute(status -> {
+            if (hasAuthority(authorities, Role.DOCTOR)) {
+                Doctor doctor = doctorRepository.findProfileByUsername(username)
+                        .orElseGet(() -> doctorService.getCurrentDoctor(username));
+                return toDoctorProfile(doctor, toUserProfile(doctor.getUser()));
+            } else if (hasAuthority(authorities, Role.PATIENT)) {
+                Patient patient = patientRepository.findProfileByUsername(username)
+                        .orElseGet(() -> patientService.getCurrentPatient(username));
+                return toPatientProfile(patient, toUserProfile(patient.getUser()));
+            }
+            // Admin or other roles
+            User user = userRepository.findByUsername(username)
+                    .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
+            return toUserProfile(user);
+        });
+
+        Long userId = userIdOf(body);
+        String eTag = null;
+        if (version != null && userId.equals(expectedUserId)
+                && version == resourceVersionService.profileVersion(userId)) {
+            eTag = resourceVersionService.profileETag(userId);
+        }
+        return new ProfileView(userId, body, eTag, resourceVersionService.profileLastModified(userId));
+    }
+
+    private static Long userIdOf(Object body) {
+        if (body instanceof DoctorProfileDTO doctor) {
+            return doctor.getUserProfile().getId();
+        } else if (body instanceof PatientProfileDTO patient) {
+            return patient.getUserProfile().getId();
+        }
+        return ((UserProfileDTO) body).getId();
+    }
+
+    private static boolean hasAuthority(Collection<? extends GrantedAuthority> authorities, Role role) {
+        for (GrantedAuthority authority : authorities) {
+            if (role.authority().equals(authority.getAuthority())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Helper methods to convert entities to DTOs
+    public UserProfileDTO toUserProfile(User user) {
+        return new UserProfileDTO(
+            user.getId(),
+            user.getUsername(),
+            user.getEmail(),
+            user.getFirstName(),
+            user.getLastName(),
+            user.getPhoneNumber(),
+            user.getDateOfBirth(),
+            user.getGender(),
+            user.getAddress(),
+            user.getCity(),
+            user.getState(),
+            user.getZipCode(),
+            user.getCountry(),
+            user.getProfileImage(),
+            user.getBio(),
+            user.getEmergencyContactName(),
+            user.getEmergencyContactPhone(),
+            user.getRoles(),
+            user.getCreatedAt(),
+            user.getUpdatedAt()
+        );
+    }
+
+    public DoctorProfileDTO toDoctorProfile(Doctor doctor, UserProfileDTO userProfile) {
+        DoctorProfileDTO dto = new DoctorProfileDTO();
+        dto.setId(doctor.getId());
+        dto.setName(doctor.getName());
+        dto.setSpecialization(doctor.getSpecialization());
+        dto.setContact(doctor.getContact());
+        dto.setUserProfile(userProfile);
+        dto.setQualifications(doctor.getQualifications());
+        dto.setExperienceYears(doctor.getExperienceYears());
+        dto.setLicenseNumber(doctor.getLicenseNumber());
+        dto.setDepartment(doctor.getDepartment());
+        dto.setConsultationFee(doctor.getConsultationFee());
+        dto.setLanguagesSpoken(doctor.getLanguagesSpoken());
+        dto.setAwardsHonors(doctor.getAwardsHonors());
+        dto.setProfessionalBio(doctor.getProfessionalBio());
+        dto.setOfficeLocation(doctor.getOfficeLocation());
+        dto.setOfficeHours(doctor.getOfficeHours());
+        return dto;
+    }
+
+    public PatientProfileDTO toPatientProfile(Patient patient, UserProfileDTO userProfile) {
+        PatientProfileDTO dto = new PatientProfileDTO();
+        dto.setId(patient.getId());
+        dto.setName(patient.getName());
+        dto.setAge(patient.getAge());
+        dto.setGender(patient.getGender());
+        dto.setUserProfile(userProfile);
+        dto.setBloodGroup(patient.getBloodGroup());
+        dto.setHeight(patient.getHeight());
+        dto.setWeight(patient.getWeight());
+        dto.setAllergies(patient.getAllergies());
+        dto.setCurrentMedications(patient.getCurrentMedications());
+        dto.setPastMedicalHistory(patient.getPastMedicalHistory());
+        dto.setFamilyMedicalHistory(patient.getFamilyMedicalHistory());
+        dto.setPrimaryPhysician(patient.getPrimaryPhysician());
+        dto.setInsuranceProvider(patient.getInsuranceProvider());
+        dto.setInsurancePolicyNumber(patient.getInsurancePolicyNumber());
+        dto.setInsuranceGroupNumber(patient.getInsuranceGroupNumber());
+        dto.setEmergencyMedicalConditions(patient.getEmergencyMedicalConditions());
+        dto.setPreferredPharmacy(patient.getPreferredPharmacy());
+        dto.setMaritalStatus(patient.getMaritalStatus());
+        dto.setOccupation(patient.getOccupation());
+        return dto;
+    }
+}
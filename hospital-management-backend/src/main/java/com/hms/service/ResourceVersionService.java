@@ -0,0 +1,99 @@
+package com.hms.service;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Service;
+
+/**
+ * Cheap per-aggregate change counters used to build ETags for read endpoints.
+ * Counters are bumped after commit by ResourceVersionListener, so a request can
+ * compare versions and answer 304 without touching the database.
+ *
+ * Versions are per JVM; the startup epoch is part of every ETag so a restart
+ * never validates a representation cached from a previous process.
+ */
+@Service
+public class ResourceVersionService {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Version doctorDirectory = new Version();
+    private final ConcurrentHashMap<Long, Version> doctorSchedules = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Version> profiles = new ConcurrentHashMap<>();
+
+    public void doctorsChanged() {
+        doctorDirectory.bump();
+    }
+
+    public void schedulesChanged(Long doctorId) {
+        if (doctorId == null) {
+            return;
+        }
+        doctorSchedules.computeIfAbsent(doctorId, id -> new Version()).bump();
+    }
+
+    // Keyed by user id: covers the User row and its Doctor / Patient profile
+    public void profileChanged(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        profiles.computeIfAbsent(userId, id -> new Version()).bump();
+    }
+
+    public String doctorsETag() {
+        return "\"d-" + epoch + "-" + doctorDirectory.counter.get() + "\"";
+    }
+
+    public long doctorsLastModified() {
+        return doctorDirectory.modifiedAt;
+    }
+
+    // Schedule DTOs embed doctor name/specialization, so the doctor version is part of the tag.
+    // Availability lists start at today, so the date is too: they change at midnight without a write.
+    public String schedulesETag(Long doctorId) {
+        return "\"s-" + epoch + "-" + doctorId + "-" + scheduleVersion(doctorId).counter.get()
+                + "-" + doctorDirectory.counter.get() + "-" + LocalDate.now().toEpochDay() + "\"";
+    }
+
+    public long schedulesLastModified(Long doctorId) {
+        long startOfToday = LocalDate.now().atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return Math.max(Math.max(scheduleVersion(doctorId).modifiedAt, doctorDirectory.modifiedAt), startOfToday);
+    }
+
+    public long profileVersion(Long userId) {
+        return versionOf(userId, profiles).counter.get();
+    }
+
+    public String profileETag(Long userId) {
+        return "\"p-" + epoch + "-" + userId + "-" + profileVersion(userId) + "\"";
+    }
+
+    public long profileLastModified(Long userId) {
+        return versionOf(userId, profiles).modifiedAt;
+    }
+
+    // Reads never create entries, so arbitrary ids in request paths cannot grow the map
+    private Version scheduleVersion(Long doctorId) {
+        return versionOf(doctorId, doctorSchedules);
+    }
+
+    private static Version versionOf(Long id, ConcurrentHashMap<Long, Version> versions) {
+        Version version = versions.get(id);
+        return version != null ? version : Version.INITIAL;
+    }
+
+    private static final class Version {
+        private static final long STARTED_AT = System.currentTimeMillis();
+        private static final Version INITIAL = new Version();
+
+        private final AtomicLong counter = new AtomicLong();
+        private volatile long modifiedAt = STARTED_AT;
+
+        private void bump() {
+            counter.incrementAndGet();
+            modifiedAt = System.currentTimeMillis();
+        }
+    }
+}
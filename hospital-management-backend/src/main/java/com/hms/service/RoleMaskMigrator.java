@@ -0,0 +1,78 @@
+package com.hms.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.hms.entity.Role;
+import com.hms.entity.User;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * One-way copy of the legacy user_roles rows into user.role_mask. Runs once all
+ * singletons exist, before the web server starts (an ApplicationRunner would only run
+ * after it is already accepting logins), and only touches users whose mask is still 0, so
+ * it is a no-op once every account has been migrated. user_roles is left in place
+ * (nothing reads it any more) so the migration can be re-checked or rolled back.
+ */
+@Component
+public class RoleMaskMigrator implements SmartInitializingSingleton {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SessionFactory sessionFactory;
+
+    public RoleMaskMigrator(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    @Override
+    @Transactional
+    public void afterSingletonsInstantiated() {
+        List<Object[]> legacy;
+        try {
+            legacy = jdbcTemplate.query(
+                    "SELECT ur.user_id, ur.roles FROM user_roles ur JOIN user u ON u.id = ur.user_id " +
+                    "WHERE u.role_mask = 0",
+                    (rs, i) -> new Object[] { rs.getLong(1), rs.getString(2) });
+        } catch (DataAccessException e) {
+            // Fresh schema: the element-collection table was never created
+            System.out.println("ℹ️ No user_roles table, role mask migration skipped");
+            return;
+        }
+        if (legacy.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Integer> masks = new LinkedHashMap<>();
+        for (Object[] row : legacy) {
+            Role role = Role.fromAuthority((String) row[1]);
+            if (role == null) {
+                System.err.println("⚠️ User " + row[0] + " has unknown role " + row[1] + ", not migrated");
+                continue;
+            }
+            masks.merge((Long) row[0], role.bit(), (a, b) -> a | b);
+        }
+
+        List<Map.Entry<Long, Integer>> updates = new ArrayList<>(masks.entrySet());
+        jdbcTemplate.batchUpdate("UPDATE user SET role_mask = ? WHERE id = ? AND role_mask = 0",
+                updates, 500, (ps, entry) -> {
+                    ps.setInt(1, entry.getValue());
+                    ps.setLong(2, entry.getKey());
+                });
+
+        // Cached User entries were written without the mask
+        sessionFactory.getCache().evictEntityData(User.class);
+        sessionFactory.getCache().evictQueryRegions();
+        System.out.println("✅ Migrated roles of " + updates.size() + " users to role_mask");
+    }
+}
@@ -0,0 +1,128 @@
+package com.hms.service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.hms.entity.DoctorSchedule;
+import com.hms.repository.DoctorScheduleRepository;
+import com.hms.util.AfterCommit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Nightly delete of DoctorSchedule rows dated more than hms.schedule.purge-after-days
+ * ago that were never booked and that no appointment references (a cancelled one
+ * still holds the foreign key; those rows go once AppointmentArchiver has moved it).
+ *
+ * Batches of hms.schedule.purge-batch-size rows, one short transaction each, locked
+ * with SKIP LOCKED and a pause in between, so booking traffic never waits on the purge.
+ * The nightly run goes through MaintenanceJobRunner, not the scheduler thread.
+ * While the purge is enabled, DoctorStatsService never recomputes days older than the
+ * grace period (markDirty skips them, refreshRange rejects them), so those days keep
+ * the capacity already in doctor_daily_stats instead of losing the purged schedules.
+ *
+ * Metrics: hms.schedule.purged, hms.schedule.purge.batch (timer).
+ */
+@Service
+public class SchedulePurger {
+
+    private final DoctorScheduleRepository scheduleRepository;
+    private final ResourceVersionService resourceVersionService;
+    private final TransactionTemplate transactionTemplate;
+    private final MaintenanceJobRunner maintenanceJobRunner;
+    private final boolean enabled;
+    private final int purgeAfterDays;
+    private final int batchSize;
+    private final long pauseMs;
+
+    private final Counter purged;
+    private final Timer batchTimer;
+
+    public SchedulePurger(DoctorScheduleRepository scheduleRepository,
+                          ResourceVersionService resourceVersionService,
+                          PlatformTransactionManager transactionManager,
+                          MaintenanceJobRunner maintenanceJobRunner,
+                          MeterRegistry meterRegistry,
+                          @Value("${hms.schedule.purge-enabled:false}") boolean enabled,
+                          @Value("${hms.schedule.purge-after-days:30}") int purgeAfterDays,
+                          @Value("${hms.schedule.purge-batch-size:500}") int batchSize,
+                          @Value("${hms.schedule.purge-pause-ms:100}") long pauseMs) {
+        this.scheduleRepository = scheduleRepository;
+        this.resourceVersionService = resourceVersionService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maintenanceJobRunner = maintenanceJobRunner;
+        this.enabled = enabled;
+        this.purgeAfterDays = purgeAfterDays;
+        this.batchSize = batchSize;
+        this.pauseMs = pauseMs;
+
+        this.purged = Counter.builder("hms.schedule.purged")
+                .description("Expired, unbooked doctor schedules deleted")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("hms.schedule.purge.batch").register(meterRegistry);
+    }
+
+    // Batches and pauses add up: run them off the scheduler thread
+    @Scheduled(cron = "${hms.schedule.purge-cron:0 30 3 * * *}")
+    public void purgeScheduled() {
+        if (enabled) {
+            maintenanceJobRunner.submit("Schedule purge", this::purge);
+        }
+    }
+
+    /** Purges everything past the grace period; returns the number of schedules deleted. */
+    public int purge() {
+        LocalDate cutoff = LocalDate.now().minusDays(purgeAfterDays);
+        int total = 0;
+        try {
+            while (true) {
+                long start = System.nanoTime();
+                Integer deleted = transactionTemplate.execute(status -> purgeBatch(cutoff));
+                batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                if (deleted == null || deleted == 0) {
+                    break;
+                }
+                total += deleted;
+                purged.increment(deleted);
+                if (deleted < batchSize) {
+                    break;
+                }
+                Thread.sleep(pauseMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            System.err.println("❌ Schedule purge stopped after " + total + " rows: " + e.getMessage());
+        }
+        System.out.println("🧹 Purged " + total + " unbooked schedules dated before " + cutoff);
+        return total;
+    }
+
+    private int purgeBatch(LocalDate cutoff) {
+        List<DoctorSchedule> schedules = scheduleRepository.lockPurgeable(cutoff, PageRequest.of(0, batchSize));
+        if (schedules.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = schedules.stream().map(DoctorSchedule::getId).toList();
+        // Proxy ids only, the doctors are not loaded
+        Set<Long> doctorIds = new TreeSet<>();
+        schedules.forEach(schedule -> doctorIds.add(schedule.getDoctor().getId()));
+
+        // Bulk delete skips the entity listener, so bump the "all schedules" ETags here
+        scheduleRepository.deleteByIdIn(ids);
+        AfterCommit.run(() -> doctorIds.forEach(resourceVersionService::schedulesChanged));
+        return ids.size();
+    }
+}
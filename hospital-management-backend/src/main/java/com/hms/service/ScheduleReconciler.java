@@ -0,0 +1,225 @@
+package com.hms.service;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.hms.dto.ScheduleReconciliationDTO;
+import com.hms.repository.DoctorScheduleRepository;
+import com.hms.util.AfterCommit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Recomputes DoctorSchedule.currentBookings / isBooked from the live (non-cancelled)
+ * appointments, repairing counters that drifted through paths that bypassed
+ * ScheduleSlotService (older cancellations, manual rollbacks, archived rows).
+ *
+ * - Schedules are walked in id order, hms.schedule.reconcile-chunk-size per transaction.
+ *   Each chunk locks its schedule rows first (the lock a booking takes), then finds and
+ *   fixes the drifted rows with one set-based SELECT and one UPDATE ... JOIN.
+ * - A chunk that loses a deadlock or lock wait is retried whole, up to
+ *   hms.schedule.reconcile-max-attempts times.
+ * - Fixed rows lose their slot_occupancy counters, which are rebuilt on the next booking;
+ *   ETags, availability streams and the utilization rollup are refreshed after commit.
+ * - A dry run reports the drift without locking or writing anything.
+ * - The nightly pass runs on MaintenanceJobRunner, not the scheduler thread.
+ *
+ * Metrics: hms.schedule.reconcile.drifted, hms.schedule.reconcile.fixed,
+ * hms.schedule.reconcile.retries, hms.schedule.reconcile.last.drift (gauge),
+ * hms.schedule.reconcile.chunk (timer).
+ */
+@Service
+public class ScheduleReconciler {
+
+    private record Chunk(long lastId, int scanned, List<ScheduleReconciliationDTO.Drift> drifts, int fixed) {}
+
+    private final DoctorScheduleRepository scheduleRepository;
+    private final ResourceVersionService resourceVersionService;
+    private final SlotAvailabilityBroadcaster slotAvailabilityBroadcaster;
+    private final DoctorStatsService doctorStatsService;
+    private final TransactionTemplate transactionTemplate;
+    private final MaintenanceJobRunner maintenanceJobRunner;
+    private final boolean enabled;
+    private final int chunkSize;
+    private final int maxAttempts;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicReference<ScheduleReconciliationDTO> lastReport = new AtomicReference<>();
+    private final AtomicLong lastDrift = new AtomicLong();
+    private final Counter drifted;
+    private final Counter fixed;
+    private final Counter retries;
+    private final Timer chunkTimer;
+
+    public ScheduleReconciler(DoctorScheduleRepository scheduleRepository,
+                              ResourceVersionService resourceVersionService,
+                              SlotAvailabilityBroadcaster slotAvailabilityBroadcaster,
+                              DoctorStatsService doctorStatsService,
+                              PlatformTransactionManager transactionManager,
+                              MaintenanceJobRunner maintenanceJobRunner,
+                              MeterRegistry meterRegistry,
+                              @Value("${hms.schedule.reconcile-enabled:false}") boolean enabled,
+                              @Value("${hms.schedule.reconcile-chunk-size:500}") int chunkSize,
+                              @Value("${hms.schedule.reconcile-max-attempts:3}") int maxAttempts) {
+        this.scheduleRepository = scheduleRepository;
+        this.resourceVersionService = resourceVersionService;
+        this.slotAvailabilityBroadcaster = slotAvailabilityBroadcaster;
+        this.doctorStatsService = doctorStatsService;
+        // Read-write on purpose: counts must come from the primary, also for dry runs
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maintenanceJobRunner = maintenanceJobRunner;
+        this.enabled = enabled;
+        this.chunkSize = chunkSize;
+        this.maxAttempts = Math.max(1, maxAttempts);
+
+        this.drifted = Counter.builder("hms.schedule.reconcile.drifted")
+                .description("Schedules whose booking counters disagreed with their live appointments")
+                .register(meterRegistry);
+        this.fixed = Counter.builder("hms.schedule.reconcile.fixed").register(meterRegistry);
+        this.retries = Counter.builder("hms.schedule.reconcile.retries").register(meterRegistry);
+        this.chunkTimer = Timer.builder("hms.schedule.reconcile.chunk").register(meterRegistry);
+        Gauge.builder("hms.schedule.reconcile.last.drift", lastDrift, AtomicLong::get)
+                .description("Drifted schedules found by the last completed run")
+                .register(meterRegistry);
+    }
+
+    // A pass walks every schedule: run it off the scheduler thread
+    @Scheduled(cron = "${hms.schedule.reconcile-cron:0 0 4 * * *}")
+    public void reconcileScheduled() {
+        if (enabled) {
+            maintenanceJobRunner.submit("Booking reconciliation", () -> {
+                try {
+                    reconcile(false);
+                } catch (RuntimeException e) {
+                    System.err.println("❌ Scheduled booking reconciliation skipped: " + e.getMessage());
+                }
+            });
+        }
+    }
+
+    public ScheduleReconciliationDTO getLastReport() {
+        return lastReport.get();
+    }
+
+    /** One pass over all schedules; dryRun only measures the drift. */
+    public ScheduleReconciliationDTO reconcile(boolean dryRun) {
+        if (!running.compareAndSet(false, true)) {
+            throw new RuntimeException("Booking reconciliation is already running");
+        }
+        ScheduleReconciliationDTO report = new ScheduleReconciliationDTO(dryRun);
+        long start = System.nanoTime();
+        try {
+            long after = 0;
+            while (true) {
+                Chunk chunk = runChunk(after, dryRun, report);
+                if (chunk.scanned() == 0) {
+                    break;
+                }
+                report.setSchedulesScanned(report.getSchedulesScanned() + chunk.scanned());
+                chunk.drifts().forEach(report::addDrift);
+                report.setFixed(report.getFixed() + chunk.fixed());
+                drifted.increment(chunk.drifts().size());
+                fixed.increment(chunk.fixed());
+                after = chunk.lastId();
+            }
+            report.setStatus("COMPLETED");
+            lastDrift.set(report.getSchedulesDrifted());
+        } catch (Exception e) {
+            report.setStatus("FAILED");
+            report.setError(e.getMessage());
+            System.err.println("❌ Booking reconciliation stopped after " + report.getSchedulesScanned()
+                    + " schedules: " + e.getMessage());
+        } finally {
+            report.setDurationMs(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            lastReport.set(report);
+            running.set(false);
+        }
+        System.out.println("🔧 Booking reconciliation" + (dryRun ? " (dry run)" : "") + ": "
+                + report.getSchedulesDrifted() + " of " + report.getSchedulesScanned() + " schedules drifted, "
+                + report.getFixed() + " fixed in " + report.getDurationMs() + "ms");
+        return report;
+    }
+
+    private Chunk runChunk(long after, boolean dryRun, ScheduleReconciliationDTO report) {
+        for (int attempt = 1; ; attempt++) {
+            long start = System.nanoTime();
+            try {
+                return transactionTemplate.execute(status -> reconcileChunk(after, dryRun));
+            } catch (PessimisticLockingFailureException e) {
+                // Deadlock or lock wait timeout against live bookings: the chunk rolled back whole
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                retries.increment();
+                report.setRetries(report.getRetries() + 1);
+                System.out.println("⚠️ Reconciliation chunk after id " + after + " hit a lock conflict, retrying");
+                sleep(50L * attempt);
+            } finally {
+                chunkTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private Chunk reconcileChunk(long after, boolean dryRun) {
+        List<Long> ids = dryRun
+                ? scheduleRepository.findIdsAfter(after, chunkSize)
+                : scheduleRepository.lockIdsAfter(after, chunkSize);
+        if (ids.isEmpty()) {
+            return new Chunk(after, 0, List.of(), 0);
+        }
+
+        List<ScheduleReconciliationDTO.Drift> drifts = new ArrayList<>();
+        for (Object[] row : scheduleRepository.findDrift(ids)) {
+            drifts.add(new ScheduleReconciliationDTO.Drift(
+                    ((Number) row[0]).longValue(),
+                    ((Number) row[1]).longValue(),
+                    toLocalDate(row[2]),
+                    row[3] != null ? ((Number) row[3]).longValue() : 0,
+                    ((Number) row[4]).longValue()));
+        }
+
+        int updated = 0;
+        if (!dryRun && !drifts.isEmpty()) {
+            updated = scheduleRepository.reconcileBookings(ids);
+            // Native update: no entity listener runs, so notify the same places it would
+            AfterCommit.run(() -> drifts.forEach(drift -> {
+                resourceVersionService.schedulesChanged(drift.getDoctorId());
+                slotAvailabilityBroadcaster.schedulesChanged(drift.getDoctorId());
+                doctorStatsService.markDirty(drift.getDoctorId(), drift.getAvailableDate());
+            }));
+        }
+        return new Chunk(ids.get(ids.size() - 1), ids.size(), drifts, updated);
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        if (value instanceof LocalDate date) {
+            return date;
+        }
+        return value != null ? ((Date) value).toLocalDate() : null;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Reconciliation interrupted");
+        }
+    }
+}
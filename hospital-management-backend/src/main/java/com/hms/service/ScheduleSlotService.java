@@ -0,0 +1,84 @@
+package com.hms.service;
+
+import java.time.LocalTime;
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.hms.entity.Appointment;
+import com.hms.entity.DoctorSchedule;
+import com.hms.repository.AppointmentRepository;
+import com.hms.repository.DoctorScheduleRepository;
+
+/**
+ * Sub-slot bookkeeping for DoctorSchedule. Every change goes through a
+ * PESSIMISTIC_WRITE lock on the schedule row, so two patients can never both take
+ * the last place of a sub-slot. Counters live in DoctorSchedule.slotOccupancy and
+ * are rebuilt from the schedule's live appointments whenever they are missing or
+ * the slot layout (start, end, duration) has changed.
+ */
+@Service
+public class ScheduleSlotService {
+
+    private final DoctorScheduleRepository scheduleRepository;
+    private final AppointmentRepository appointmentRepository;
+
+    public ScheduleSlotService(DoctorScheduleRepository scheduleRepository,
+                               AppointmentRepository appointmentRepository) {
+        this.scheduleRepository = scheduleRepository;
+        this.appointmentRepository = appointmentRepository;
+    }
+
+    @Transactional
+    public DoctorSchedule lock(Long scheduleId) {
+        DoctorSchedule schedule = scheduleRepository.findByIdForUpdate(scheduleId)
+                .orElseThrow(() -> new RuntimeException("Selected time slot is no longer available. Please choose another time."));
+        if (!schedule.hasOccupancy()) {
+            rebuildOccupancy(schedule);
+        }
+        return schedule;
+    }
+
+    /**
+     * Reserve a place on a schedule returned by lock(); returns the booked sub-slot start
+     */
+    @Transactional
+    public LocalTime book(DoctorSchedule schedule, LocalTime requested) {
+        LocalTime time = schedule.bookSubSlot(requested);
+        scheduleRepository.save(schedule);
+        System.out.println("📊 Sub-slot " + time + " booked on schedule " + schedule.getId());
+        return time;
+    }
+
+    // Frees the appointment's place; callers must only call this once per live booking
+    @Transactional
+    public void release(Appointment appointment) {
+        if (appointment.getSchedule() == null) {
+            return;
+        }
+        DoctorSchedule schedule = lock(appointment.getSchedule().getId());
+        schedule.releaseSubSlot(appointment.getAppointmentTime());
+        scheduleRepository.save(schedule);
+        System.out.println("📊 Sub-slot " + appointment.getAppointmentTime() + " released on schedule " + schedule.getId());
+    }
+
+    /**
+     * Recount from the live appointments; bookings whose time no longer fits the
+     * layout are moved to the first sub-slot with room (appointmentTime updated)
+     */
+    @Transactional
+    public void rebuildOccupancy(DoctorSchedule schedule) {
+        List<Appointment> live = appointmentRepository.findLiveByScheduleId(schedule.getId());
+        LocalTime[] placed = schedule.rebuildOccupancy(live.stream().map(Appointment::getAppointmentTime).toList());
+        for (int i = 0; i < placed.length; i++) {
+            Appointment appointment = live.get(i);
+            if (placed[i] != null && !placed[i].equals(appointment.getAppointmentTime())) {
+                appointment.setAppointmentTime(placed[i]);
+            }
+        }
+        scheduleRepository.save(schedule);
+        System.out.println("🔄 Rebuilt sub-slot occupancy for schedule " + schedule.getId() + ": "
+                + live.size() + " bookings over " + schedule.subSlotCount() + " slots");
+    }
+}
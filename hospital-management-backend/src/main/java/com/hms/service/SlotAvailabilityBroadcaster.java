@@ -0,0 +1,109 @@
+package com.hms.service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hms.dto.ScheduleResponseDTO;
+import com.hms.repository.DoctorScheduleRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Pushes a doctor's available schedules to SSE clients whenever one of that doctor's
+ * schedules changes (booking, cancellation, edits), replacing polling of
+ * GET /api/schedules/doctor/{id}/available.
+ *
+ * Changes only mark the doctor dirty. A flush every hms.sse.flush-interval builds
+ * the list once per dirty doctor; delivery, backpressure and the hms.sse.max-streams
+ * cap are handled by SseFanout.
+ *
+ * Streams and change notifications are per instance: writes handled by another
+ * app instance are not pushed here. Clients re-sync on reconnect (the first event
+ * is always the full current list).
+ *
+ * Metrics: hms.sse.* {channel=availability}, see SseFanout.
+ */
+@Service
+public class SlotAvailabilityBroadcaster {
+
+    private final DoctorScheduleRepository scheduleRepository;
+    private final DoctorScheduleService scheduleService;
+    private final ResourceVersionService resourceVersionService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate primaryRead;
+    private final SseFanout fanout;
+
+    public SlotAvailabilityBroadcaster(DoctorScheduleRepository scheduleRepository,
+                                       DoctorScheduleService scheduleService,
+                                       ResourceVersionService resourceVersionService,
+                                       ObjectMapper objectMapper,
+                                       PlatformTransactionManager transactionManager,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${hms.sse.max-streams:2000}") int maxStreams,
+                                       @Value("${hms.sse.send-threads:4}") int sendThreads,
+                                       @Value("${hms.sse.timeout:30m}") Duration streamTimeout) {
+        this.scheduleRepository = scheduleRepository;
+        this.scheduleService = scheduleService;
+        this.resourceVersionService = resourceVersionService;
+        this.objectMapper = objectMapper;
+        // Read-write on purpose: snapshots must come from the primary, not a lagging replica
+        this.primaryRead = new TransactionTemplate(transactionManager);
+        this.fanout = new SseFanout("availability", "availability", meterRegistry,
+                maxStreams, sendThreads, streamTimeout);
+    }
+
+    public SseEmitter subscribe(Long doctorId) {
+        return fanout.open(doctorId, () -> snapshot(doctorId));
+    }
+
+    // Called after commit for every schedule write; cheap, the work happens in flush()
+    public void schedulesChanged(Long doctorId) {
+        fanout.markDirty(doctorId);
+    }
+
+    @Scheduled(fixedDelayString = "${hms.sse.flush-interval:250ms}")
+    public void flush() {
+        fanout.flush(this::snapshot);
+    }
+
+    // Availability starts at today, so yesterday's slots drop off every open stream at midnight
+    @Scheduled(cron = "${hms.sse.rollover-cron:0 0 0 * * *}")
+    public void rollover() {
+        fanout.markAllDirty();
+    }
+
+    @Scheduled(fixedDelayString = "${hms.sse.heartbeat-interval:25s}")
+    public void heartbeat() {
+        fanout.heartbeat();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fanout.shutdown();
+    }
+
+    private SseFanout.Snapshot snapshot(Long doctorId) {
+        String eTag = resourceVersionService.schedulesETag(doctorId);
+        List<ScheduleResponseDTO> schedules = primaryRead.execute(status ->
+                scheduleRepository.findAvailableWithDoctor(doctorId, LocalDate.now()).stream()
+                        .map(scheduleService::toResponseDTO)
+                        .toList());
+        try {
+            return new SseFanout.Snapshot(eTag, objectMapper.writeValueAsString(schedules));
+        } catch (IOException e) {
+            throw new RuntimeException("Could not serialize availability: " + e.getMessage());
+        }
+    }
+}
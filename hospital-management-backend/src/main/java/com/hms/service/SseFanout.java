@@ -0,0 +1,230 @@
+package com.hms.service;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.hms.exception.ServiceBusyException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+
+/**
+ * SSE streams grouped by a key (a doctor id), shared by the live views
+ * (SlotAvailabilityBroadcaster, WaitingRoomService).
+ *
+ * - markDirty() is cheap; flush() builds one snapshot per dirty key and hands the
+ *   same serialized JSON to every stream of that key.
+ * - Backpressure: each stream has at most one send in flight plus one pending
+ *   snapshot. A slow client skips intermediate states instead of buffering them.
+ * - maxStreams caps open streams; beyond that, connects get 503 + Retry-After.
+ *
+ * Metrics are tagged channel=&lt;channel&gt;: hms.sse.streams,
+ * hms.sse.events{result=sent|skipped|failed}, hms.sse.rejected, executor_* {name=hms.sse.&lt;channel&gt;}.
+ */
+final class SseFanout {
+
+    record Snapshot(String id, String json) {}
+
+    private final String channel;
+    private final String eventName;
+    private final ThreadPoolExecutor sendPool;
+    private final int maxStreams;
+    private final long streamTimeoutMs;
+
+    private final ConcurrentHashMap<Long, Set<Stream>> streamsByKey = new ConcurrentHashMap<>();
+    private final Set<Long> dirtyKeys = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger openStreams = new AtomicInteger();
+
+    private final Counter sent;
+    private final Counter skipped;
+    private final Counter failed;
+    private final Counter rejected;
+
+    SseFanout(String channel, String eventName, MeterRegistry meterRegistry,
+              int maxStreams, int sendThreads, Duration streamTimeout) {
+        this.channel = channel;
+        this.eventName = eventName;
+        this.maxStreams = maxStreams;
+        this.streamTimeoutMs = streamTimeout.toMillis();
+
+        AtomicInteger threadCount = new AtomicInteger();
+        // One queued task per stream at most, so the queue never needs more than maxStreams
+        this.sendPool = new ThreadPoolExecutor(sendThreads, sendThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, maxStreams)), runnable -> {
+                    Thread thread = new Thread(runnable, "hms-sse-" + channel + "-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        ExecutorServiceMetrics.monitor(meterRegistry, sendPool, "hms.sse." + channel);
+
+        Gauge.builder("hms.sse.streams", openStreams, AtomicInteger::get)
+                .tag("channel", channel)
+                .description("Open SSE streams")
+                .register(meterRegistry);
+        this.sent = Counter.builder("hms.sse.events").tag("channel", channel).tag("result", "sent").register(meterRegistry);
+        this.skipped = Counter.builder("hms.sse.events").tag("channel", channel).tag("result", "skipped")
+                .description("Snapshots replaced by a newer one before a slow client received them")
+                .register(meterRegistry);
+        this.failed = Counter.builder("hms.sse.events").tag("channel", channel).tag("result", "failed").register(meterRegistry);
+        this.rejected = Counter.builder("hms.sse.rejected").tag("channel", channel)
+                .description("Stream connects refused because the stream cap was reached")
+                .register(meterRegistry);
+    }
+
+    /** Opens a stream for key; its first event is the snapshot from initial. */
+    SseEmitter open(Long key, Supplier<Snapshot> initial) {
+        if (openStreams.incrementAndGet() > maxStreams) {
+            openStreams.decrementAndGet();
+            rejected.increment();
+            throw new ServiceBusyException("Too many live " + channel + " streams, please poll instead", 30);
+        }
+
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        Stream stream = new Stream(key, emitter);
+        streamsByKey.computeIfAbsent(key, id -> ConcurrentHashMap.newKeySet()).add(stream);
+        emitter.onCompletion(() -> remove(stream));
+        emitter.onTimeout(() -> remove(stream));
+        emitter.onError(error -> remove(stream));
+
+        // Initial state, so the client does not need a separate GET
+        try {
+            stream.offer(initial.get());
+        } catch (Exception e) {
+            remove(stream);
+            throw e;
+        }
+        System.out.println("📡 " + channel + " stream opened for " + key + " (" + openStreams.get() + " open)");
+        return emitter;
+    }
+
+    // Only keys someone is watching are worth rebuilding
+    void markDirty(Long key) {
+        if (key != null && streamsByKey.containsKey(key)) {
+            dirtyKeys.add(key);
+        }
+    }
+
+    void markAllDirty() {
+        dirtyKeys.addAll(streamsByKey.keySet());
+    }
+
+    void flush(Function<Long, Snapshot> snapshots) {
+        for (Long key : dirtyKeys) {
+            dirtyKeys.remove(key);
+            Set<Stream> streams = streamsByKey.get(key);
+            if (streams == null || streams.isEmpty()) {
+                continue;
+            }
+            try {
+                Snapshot snapshot = snapshots.apply(key);
+                streams.forEach(stream -> stream.offer(snapshot));
+            } catch (Exception e) {
+                System.err.println("❌ Could not build " + channel + " snapshot for " + key + ": " + e.getMessage());
+            }
+        }
+    }
+
+    // Comment frames keep proxies from closing idle streams and surface dead clients
+    void heartbeat() {
+        streamsByKey.values().forEach(streams -> streams.forEach(Stream::heartbeat));
+    }
+
+    void shutdown() {
+        streamsByKey.values().forEach(streams -> streams.forEach(stream -> stream.emitter.complete()));
+        sendPool.shutdownNow();
+    }
+
+    private void remove(Stream stream) {
+        if (!stream.closed.compareAndSet(false, true)) {
+            return;
+        }
+        openStreams.decrementAndGet();
+        streamsByKey.computeIfPresent(stream.key, (id, streams) -> {
+            streams.remove(stream);
+            return streams.isEmpty() ? null : streams;
+        });
+    }
+
+    private final class Stream {
+        private final Long key;
+        private final SseEmitter emitter;
+        private final AtomicReference<Snapshot> pending = new AtomicReference<>();
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Stream(Long key, SseEmitter emitter) {
+            this.key = key;
+            this.emitter = emitter;
+        }
+
+        private void offer(Snapshot snapshot) {
+            if (pending.getAndSet(snapshot) != null) {
+                skipped.increment();
+            }
+            runExclusive(null);
+        }
+
+        // Busy streams need no heartbeat: the pending send proves liveness
+        private void heartbeat() {
+            runExclusive(SseEmitter.event().comment("keep-alive"));
+        }
+
+        // All writes for a stream go through the pool, one at a time
+        private void runExclusive(SseEmitter.SseEventBuilder first) {
+            if (closed.get() || !sending.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                sendPool.execute(() -> drain(first));
+            } catch (RejectedExecutionException e) {
+                sending.set(false);
+                fail(e);
+            }
+        }
+
+        private void drain(SseEmitter.SseEventBuilder first) {
+            try {
+                if (first != null) {
+                    emitter.send(first);
+                }
+                Snapshot snapshot;
+                while (!closed.get() && (snapshot = pending.getAndSet(null)) != null) {
+                    emitter.send(SseEmitter.event()
+                            .name(eventName)
+                            .id(snapshot.id())
+                            .data(snapshot.json(), MediaType.APPLICATION_JSON));
+                    sent.increment();
+                }
+            } catch (Exception e) {
+                fail(e);
+            } finally {
+                sending.set(false);
+            }
+            // An offer may have landed between the last poll and releasing the flag
+            if (pending.get() != null) {
+                runExclusive(null);
+            }
+        }
+
+        private void fail(Exception e) {
+            failed.increment();
+            remove(this);
+            emitter.completeWithError(e);
+        }
+    }
+}
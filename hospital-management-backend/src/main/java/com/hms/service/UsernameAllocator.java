@@ -0,0 +1,85 @@
+package com.hms.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.stereotype.Service;
+
+import com.hms.repository.UserRepository;
+
+/**
+ * Turns display names into unique usernames ("John Smith" -> johnsmith, johnsmith1, ...).
+ * All taken base* usernames are fetched with a single indexed prefix query and the
+ * smallest free numeric suffix is picked in memory, so registration costs one query
+ * no matter how many people share a name.
+ */
+@Service
+public class UsernameAllocator {
+
+    private static final String FALLBACK_BASE = "user";
+
+    private final UserRepository userRepository;
+
+    public UsernameAllocator(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Lowercase, strip whitespace and anything that isn't a letter or digit
+     */
+    public String baseUsername(String name) {
+        String base = name == null ? "" : name.toLowerCase().replaceAll("[^a-z0-9]", "");
+        return base.isEmpty() ? FALLBACK_BASE : base;
+    }
+
+    /**
+     * Unique username for a display name
+     */
+    public String allocate(String name) {
+        String base = baseUsername(name);
+        return firstFree(base, takenUsernames(base));
+    }
+
+    /**
+     * Unique usernames for a batch of names (bulk import). One prefix query per distinct
+     * base; names allocated earlier in the same batch are treated as taken.
+     */
+    public List<String> allocateAll(List<String> names) {
+        Map<String, Set<String>> takenByBase = new HashMap<>();
+        List<String> result = new ArrayList<>(names.size());
+        for (String name : names) {
+            String base = baseUsername(name);
+            Set<String> taken = takenByBase.computeIfAbsent(base, this::takenUsernames);
+            String username = firstFree(base, taken);
+            taken.add(username);
+            result.add(username);
+        }
+        return result;
+    }
+
+    // Lower-cased: the LIKE scan is case-insensitive under the MySQL collation, and so is
+    // findByUsername, so an existing "JohnSmith" must block "johnsmith"
+    private Set<String> takenUsernames(String base) {
+        Set<String> taken = new HashSet<>();
+        for (String username : userRepository.findUsernamesStartingWith(base)) {
+            taken.add(username.toLowerCase());
+        }
+        return taken;
+    }
+
+    private String firstFree(String base, Set<String> taken) {
+        if (!taken.contains(base)) {
+            return base;
+        }
+        // Same numbering as before: base1, base2, ... taking the first gap
+        int counter = 1;
+        while (taken.contains(base + counter)) {
+            counter++;
+        }
+        return base + counter;
+    }
+}
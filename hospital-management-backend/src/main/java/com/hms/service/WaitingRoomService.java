@@ -0,0 +1,211 @@
+package com.hms.service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hms.dto.QueueEntryDTO;
+import com.hms.dto.WaitingRoomDTO;
+import com.hms.repository.AppointmentRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Today's waiting room per doctor: checked-in SCHEDULED appointments in arrival order,
+ * pushed to the doctor's board over SSE instead of reloading the appointment list.
+ *
+ * - Queues are in memory and lock-free (ConcurrentLinkedQueue per doctor). Callers
+ *   update them after commit; appointment.checked_in_at is the durable record, and the
+ *   queues are rebuilt from it on startup, before the web server takes requests.
+ * - A removal can overtake the check-in it cancels (both run after commit, on different
+ *   threads), so removed ids are remembered for the day and a late add backs itself out.
+ * - All state for a day hangs off one Day object; the first event of a new date (or the
+ *   midnight rollover) swaps in an empty one.
+ *
+ * Queues and streams are per instance, like SlotAvailabilityBroadcaster.
+ *
+ * Metrics: hms.queue.waiting, hms.queue.checkins, hms.sse.* {channel=queue}.
+ */
+@Service
+public class WaitingRoomService implements SmartInitializingSingleton {
+
+    private record Day(LocalDate date,
+                       ConcurrentHashMap<Long, ConcurrentLinkedQueue<QueueEntryDTO>> queues,
+                       Set<Long> departed) {
+        Day(LocalDate date) {
+            this(date, new ConcurrentHashMap<>(), ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    private final AppointmentRepository appointmentRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate primaryRead;
+    private final SseFanout fanout;
+    private final AtomicReference<Day> current = new AtomicReference<>(new Day(LocalDate.now()));
+    // Event ids for the stream; any change anywhere bumps it
+    private final AtomicLong changes = new AtomicLong();
+    private final Counter checkIns;
+
+    public WaitingRoomService(AppointmentRepository appointmentRepository,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${hms.queue.max-streams:500}") int maxStreams,
+                              @Value("${hms.queue.send-threads:2}") int sendThreads,
+                              @Value("${hms.sse.timeout:30m}") Duration streamTimeout) {
+        this.appointmentRepository = appointmentRepository;
+        this.objectMapper = objectMapper;
+        // Read-write on purpose: the rebuild must see the primary, not a lagging replica
+        this.primaryRead = new TransactionTemplate(transactionManager);
+        this.fanout = new SseFanout("queue", "queue", meterRegistry, maxStreams, sendThreads, streamTimeout);
+
+        Gauge.builder("hms.queue.waiting", current, day -> day.get().queues().values().stream()
+                        .mapToInt(ConcurrentLinkedQueue::size).sum())
+                .description("Checked-in patients waiting across all doctors today")
+                .register(meterRegistry);
+        this.checkIns = Counter.builder("hms.queue.checkins").register(meterRegistry);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    /** Reloads today's queues from appointment.checked_in_at. */
+    public void rebuild() {
+        Day day = new Day(LocalDate.now());
+        try {
+            List<QueueEntryDTO> entries = primaryRead.execute(status ->
+                    appointmentRepository.findCheckedInForDate(day.date()));
+            for (QueueEntryDTO entry : entries) {
+                day.queues().computeIfAbsent(entry.getDoctorId(), id -> new ConcurrentLinkedQueue<>()).add(entry);
+            }
+            current.set(day);
+            changes.incrementAndGet();
+            fanout.markAllDirty();
+            System.out.println("🪑 Waiting rooms rebuilt: " + entries.size() + " checked-in patients across "
+                    + day.queues().size() + " doctors");
+        } catch (Exception e) {
+            System.err.println("❌ Could not rebuild waiting rooms: " + e.getMessage());
+        }
+    }
+
+    // Called after the check-in commits
+    public void checkedIn(QueueEntryDTO entry, LocalDate date) {
+        Day day = dayOf(date);
+        if (day == null) {
+            return;
+        }
+        ConcurrentLinkedQueue<QueueEntryDTO> queue =
+                day.queues().computeIfAbsent(entry.getDoctorId(), id -> new ConcurrentLinkedQueue<>());
+        queue.add(entry);
+        if (day.departed().contains(entry.getAppointmentId())) {
+            // Completed or cancelled before this add ran
+            queue.remove(entry);
+        }
+        checkIns.increment();
+        changed(entry.getDoctorId());
+    }
+
+    // Called after an appointment leaves SCHEDULED (completed, cancelled, deleted)
+    public void left(Long doctorId, Long appointmentId, LocalDate date) {
+        Day day = dayOf(date);
+        if (day == null) {
+            return;
+        }
+        day.departed().add(appointmentId);
+        ConcurrentLinkedQueue<QueueEntryDTO> queue = day.queues().get(doctorId);
+        if (queue != null && queue.removeIf(entry -> appointmentId.equals(entry.getAppointmentId()))) {
+            changed(doctorId);
+        }
+    }
+
+    public WaitingRoomDTO getWaitingRoom(Long doctorId) {
+        Day day = dayOf(LocalDate.now());
+        if (day == null) {
+            day = current.get();
+        }
+        ConcurrentLinkedQueue<QueueEntryDTO> queue = day.queues().get(doctorId);
+        return new WaitingRoomDTO(doctorId, day.date(), queue == null ? List.of() : List.copyOf(queue));
+    }
+
+    public SseEmitter subscribe(Long doctorId) {
+        return fanout.open(doctorId, () -> snapshot(doctorId));
+    }
+
+    // Yesterday's boards empty out at midnight even if nobody checks in
+    @Scheduled(cron = "${hms.queue.rollover-cron:0 0 0 * * *}")
+    public void rollover() {
+        dayOf(LocalDate.now());
+        changes.incrementAndGet();
+        fanout.markAllDirty();
+    }
+
+    @Scheduled(fixedDelayString = "${hms.queue.flush-interval:250ms}")
+    public void flush() {
+        fanout.flush(this::snapshot);
+    }
+
+    @Scheduled(fixedDelayString = "${hms.sse.heartbeat-interval:25s}")
+    public void heartbeat() {
+        fanout.heartbeat();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fanout.shutdown();
+    }
+
+    /**
+     * The Day holding date, rolling over to a fresh one when date is today and the
+     * current Day is older. Returns null for any other date (an event for a past or
+     * future day has no board).
+     */
+    private Day dayOf(LocalDate date) {
+        while (true) {
+            Day day = current.get();
+            if (day.date().equals(date)) {
+                return day;
+            }
+            if (!date.equals(LocalDate.now()) || !date.isAfter(day.date())) {
+                return null;
+            }
+            if (current.compareAndSet(day, new Day(date))) {
+                System.out.println("🪑 Waiting rooms rolled over to " + date);
+            }
+        }
+    }
+
+    private void changed(Long doctorId) {
+        changes.incrementAndGet();
+        fanout.markDirty(doctorId);
+    }
+
+    private SseFanout.Snapshot snapshot(Long doctorId) {
+        String id = String.valueOf(changes.get());
+        try {
+            return new SseFanout.Snapshot(id, objectMapper.writeValueAsString(getWaitingRoom(doctorId)));
+        } catch (IOException e) {
+            throw new RuntimeException("Could not serialize waiting room: " + e.getMessage());
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.hms.util;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -22,6 +24,8 @@ import io.jsonwebtoken.security.Keys;
 @Component
 public class JwtUtil {
 
+    public static final String ROLE_MASK_CLAIM = "rm";
+
     @Value("${jwt.secret}")
     private String SECRET_STRING;
 
@@ -38,6 +42,11 @@ public class JwtUtil {
         return claims.get("roles", List.class);
     }
 
+    // ✅ ADDED: Role bitmask ("rm"), null for tokens issued before the claim existed
+    public Integer extractRoleMask(String token) {
+        return extractAllClaims(token).get(ROLE_MASK_CLAIM, Integer.class);
+    }
+
     public Date extractExpiration(String token) {
         return extractClaim(token, Claims::getExpiration);
     }
@@ -72,6 +81,15 @@ public class JwtUtil {
         return createToken(claims, userDetails.getUsername());
     }
 
+    // ✅ ADDED: Token straight from an already loaded user, no UserDetails round trip.
+    // "roles" stays for the frontend; the filter authorizes from the "rm" bitmask.
+    public String generateToken(String username, Collection<String> roles, int roleMask) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("roles", new ArrayList<>(roles));
+        claims.put(ROLE_MASK_CLAIM, roleMask);
+        return createToken(claims, username);
+    }
+
     private String createToken(Map<String, Object> claims, String subject) {
         long expirationTimeMs = 1000 * 60 * 60 * 10; // 10 hours
 
@@ -0,0 +1,163 @@
+package com.hms.entity;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class DoctorScheduleTest {
+
+    private static final LocalTime NINE = LocalTime.of(9, 0);
+    private static final LocalTime NINE_THIRTY = LocalTime.of(9, 30);
+    private static final LocalTime TEN = LocalTime.of(10, 0);
+
+    // 09:00-10:00 in 30-minute sub-slots
+    private static DoctorSchedule schedule(int maxPatients) {
+        DoctorSchedule schedule = new DoctorSchedule(new Doctor(), LocalDate.now().plusDays(1),
+                NINE, TEN, "DOCTOR", 30, maxPatients);
+        schedule.rebuildOccupancy(List.of());
+        return schedule;
+    }
+
+    @Test
+    void capacityIsSpreadOverSubSlotsRoundingUp() {
+        assertEquals(2, schedule(3).subSlotCount());
+        assertEquals(2, schedule(3).subSlotCapacity());
+        assertEquals(1, schedule(2).subSlotCapacity());
+        assertEquals(0, schedule(0).subSlotCapacity());
+    }
+
+    @Test
+    void subSlotCountIsCapped() {
+        DoctorSchedule schedule = new DoctorSchedule(new Doctor(), LocalDate.now(), LocalTime.MIN, LocalTime.MAX,
+                "DOCTOR", 1, 3);
+        assertEquals(DoctorSchedule.MAX_SUB_SLOTS, schedule.subSlotCount());
+    }
+
+    @Test
+    void bookSubSlotFillsRequestedSlotUntilItsCapacity() {
+        DoctorSchedule schedule = schedule(4);
+
+        assertEquals(NINE, schedule.bookSubSlot(NINE));
+        assertEquals(NINE, schedule.bookSubSlot(NINE));
+        assertThrows(RuntimeException.class, () -> schedule.bookSubSlot(NINE));
+
+        assertEquals(List.of(NINE_THIRTY), schedule.freeSlotTimes());
+        assertEquals(2, schedule.getCurrentBookings());
+        assertTrue(schedule.isAvailable());
+    }
+
+    @Test
+    void bookSubSlotWithoutTimeTakesEarliestFree() {
+        DoctorSchedule schedule = schedule(2);
+
+        assertEquals(NINE, schedule.bookSubSlot(null));
+        assertEquals(NINE_THIRTY, schedule.bookSubSlot(null));
+        assertTrue(schedule.getIsBooked());
+        assertFalse(schedule.isAvailable());
+        assertThrows(RuntimeException.class, () -> schedule.bookSubSlot(null));
+    }
+
+    @Test
+    void bookSubSlotRejectsTimesOffTheGrid() {
+        DoctorSchedule schedule = schedule(2);
+
+        assertThrows(RuntimeException.class, () -> schedule.bookSubSlot(LocalTime.of(9, 15)));
+        assertThrows(RuntimeException.class, () -> schedule.bookSubSlot(TEN));
+        assertEquals(0, schedule.getCurrentBookings());
+    }
+
+    @Test
+    void releaseSubSlotGivesThePlaceBack() {
+        DoctorSchedule schedule = schedule(2);
+        schedule.bookSubSlot(NINE);
+        schedule.bookSubSlot(NINE_THIRTY);
+
+        schedule.releaseSubSlot(NINE);
+
+        assertFalse(schedule.getIsBooked());
+        assertEquals(1, schedule.getCurrentBookings());
+        assertEquals(List.of(NINE), schedule.freeSlotTimes());
+        assertEquals(NINE, schedule.bookSubSlot(NINE));
+    }
+
+    @Test
+    void releaseSubSlotOutsideTheLayoutDropsTheCounters() {
+        DoctorSchedule schedule = schedule(2);
+        schedule.bookSubSlot(NINE);
+
+        schedule.releaseSubSlot(LocalTime.of(11, 0));
+
+        assertEquals(0, schedule.getCurrentBookings());
+        assertFalse(schedule.hasOccupancy());
+        assertEquals(List.of(NINE, NINE_THIRTY), schedule.freeSlotTimes());
+    }
+
+    @Test
+    void releaseSubSlotOfAnEmptySubSlotDropsTheCounters() {
+        DoctorSchedule schedule = schedule(2);
+        schedule.bookSubSlot(NINE);
+
+        schedule.releaseSubSlot(NINE_THIRTY);
+
+        assertEquals(0, schedule.getCurrentBookings());
+        assertFalse(schedule.hasOccupancy());
+    }
+
+    @Test
+    void layoutChangeInvalidatesTheCounters() {
+        DoctorSchedule schedule = schedule(2);
+        assertTrue(schedule.hasOccupancy());
+
+        schedule.setSlotDuration(15);
+
+        assertFalse(schedule.hasOccupancy());
+        assertEquals(List.of(NINE, LocalTime.of(9, 15), NINE_THIRTY, LocalTime.of(9, 45)), schedule.freeSlotTimes());
+    }
+
+    @Test
+    void rebuildOccupancyMovesBookingsThatNoLongerFit() {
+        DoctorSchedule schedule = schedule(4);
+        schedule.setSlotDuration(20); // 09:00, 09:20, 09:40; capacity 2 each
+
+        LocalTime[] placed = schedule.rebuildOccupancy(List.of(NINE, NINE_THIRTY, NINE, NINE));
+
+        // 09:30 is off the new grid, the third 09:00 is over that sub-slot's capacity
+        assertArrayEquals(new LocalTime[] { NINE, LocalTime.of(9, 20), NINE, LocalTime.of(9, 20) }, placed);
+        assertArrayEquals(new byte[] { 2, 2, 0 }, schedule.getSlotOccupancy());
+        assertEquals(4, schedule.getCurrentBookings());
+        assertTrue(schedule.getIsBooked());
+    }
+
+    @Test
+    void rebuildOccupancyKeepsOverbookingsCounted() {
+        DoctorSchedule schedule = schedule(2);
+
+        LocalTime[] placed = schedule.rebuildOccupancy(List.of(NINE, NINE, NINE));
+
+        assertArrayEquals(new LocalTime[] { NINE, NINE_THIRTY, NINE }, placed);
+        assertArrayEquals(new byte[] { 2, 1 }, schedule.getSlotOccupancy());
+        assertEquals(3, schedule.getCurrentBookings());
+        assertTrue(schedule.getIsBooked());
+    }
+
+    @Test
+    void closedScheduleTakesNoBookingsEvenWithFreePlaces() {
+        DoctorSchedule schedule = schedule(2);
+        schedule.bookSubSlot(NINE);
+        schedule.setClosed(true);
+
+        schedule.releaseSubSlot(NINE);
+
+        assertFalse(schedule.isAvailable());
+        assertTrue(schedule.freeSlotTimes().isEmpty());
+        assertThrows(RuntimeException.class, () -> schedule.bookSubSlot(NINE));
+    }
+}
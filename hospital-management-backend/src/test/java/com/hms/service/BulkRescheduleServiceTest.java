@@ -0,0 +1,222 @@
+package com.hms.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import com.hms.dto.RescheduleReportDTO;
+import com.hms.dto.RescheduleRequestDTO;
+import com.hms.entity.Appointment;
+import com.hms.entity.Doctor;
+import com.hms.entity.DoctorSchedule;
+import com.hms.entity.Patient;
+import com.hms.repository.AppointmentRepository;
+import com.hms.repository.DoctorRepository;
+import com.hms.repository.DoctorScheduleRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class BulkRescheduleServiceTest {
+
+    private static final Long DOCTOR_ID = 1L;
+    private static final Long PATIENT_ID = 7L;
+    private static final LocalTime NINE = LocalTime.of(9, 0);
+    private static final LocalTime NINE_THIRTY = LocalTime.of(9, 30);
+
+    private final LocalDate leaveDay = LocalDate.now().plusDays(2);
+    private final LocalDate firstOpenDay = leaveDay.plusDays(3);
+
+    private AppointmentRepository appointmentRepository;
+    private DoctorScheduleRepository scheduleRepository;
+    private DomainEventPublisher domainEventPublisher;
+    private BulkRescheduleService service;
+
+    private Doctor doctor;
+    private DoctorSchedule leave;
+    private Appointment appointment;
+    private final List<Object[]> patientSlots = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        appointmentRepository = mock(AppointmentRepository.class);
+        scheduleRepository = mock(DoctorScheduleRepository.class);
+        DoctorRepository doctorRepository = mock(DoctorRepository.class);
+        domainEventPublisher = mock(DomainEventPublisher.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+        service = new BulkRescheduleService(appointmentRepository, scheduleRepository, doctorRepository,
+                mock(ScheduleSlotService.class), domainEventPublisher, transactionManager,
+                new SimpleMeterRegistry(), 30, 31, 500, 2000);
+
+        doctor = new Doctor();
+        doctor.setId(DOCTOR_ID);
+        doctor.setSpecialization("Cardiology");
+        when(doctorRepository.findById(DOCTOR_ID)).thenReturn(Optional.of(doctor));
+
+        leave = schedule(10L, leaveDay);
+        Patient patient = new Patient();
+        patient.setId(PATIENT_ID);
+        appointment = new Appointment(patient, doctor, leave, "Checkup");
+        appointment.setId(100L);
+        appointment.setAppointmentTime(leave.bookSubSlot(NINE));
+
+        when(appointmentRepository.findReschedulable(DOCTOR_ID, leaveDay, leaveDay))
+                .thenReturn(List.<Object[]>of(new Object[] { 100L, 10L }));
+        when(appointmentRepository.findWithPatientByIdIn(any())).thenReturn(List.of(appointment));
+        when(appointmentRepository.findLiveSlotsForPatients(any(), any(), any())).thenReturn(patientSlots);
+        patientSlots.add(new Object[] { PATIENT_ID, 100L, leaveDay, NINE, 30 });
+        when(scheduleRepository.findIdsByDoctorBetween(DOCTOR_ID, leaveDay, leaveDay)).thenReturn(List.of(10L));
+    }
+
+    // 09:00-10:00 in 30-minute sub-slots, one place each
+    private DoctorSchedule schedule(Long id, LocalDate date) {
+        DoctorSchedule schedule = new DoctorSchedule(doctor, date, NINE, LocalTime.of(10, 0), "DOCTOR", 30, 2);
+        schedule.setId(id);
+        schedule.rebuildOccupancy(List.of());
+        return schedule;
+    }
+
+    private void targets(DoctorSchedule... targets) {
+        List<Long> ids = new ArrayList<>();
+        List<DoctorSchedule> locked = new ArrayList<>(List.of(leave));
+        for (DoctorSchedule target : targets) {
+            ids.add(target.getId());
+            locked.add(target);
+        }
+        when(scheduleRepository.findRescheduleTargets(anyLong(), any(), any(), any(), anyBoolean(), any(), any()))
+                .thenReturn(ids);
+        when(scheduleRepository.lockAllByIdIn(any())).thenReturn(locked);
+        when(scheduleRepository.findAllByIdIn(any())).thenReturn(locked);
+    }
+
+    private RescheduleReportDTO apply() {
+        return run(false);
+    }
+
+    private RescheduleReportDTO run(boolean dryRun) {
+        RescheduleRequestDTO request = new RescheduleRequestDTO();
+        request.setDoctorId(DOCTOR_ID);
+        request.setFromDate(leaveDay);
+        request.setToDate(leaveDay);
+        request.setDryRun(dryRun);
+        return service.reschedule(request);
+    }
+
+    @Test
+    void movesToTheOriginalTimeWhenThePatientIsFree() {
+        DoctorSchedule target = schedule(20L, firstOpenDay);
+        targets(target);
+
+        RescheduleReportDTO report = apply();
+
+        assertEquals(1, report.getMoves().size());
+        assertEquals(NINE, report.getMoves().get(0).getToTime());
+        assertEquals(target, appointment.getSchedule());
+        assertEquals(firstOpenDay, appointment.getAppointmentDate());
+        assertEquals(1, target.getCurrentBookings());
+        assertEquals(0, leave.getCurrentBookings());
+        verify(domainEventPublisher).appointmentRescheduled(any(), any(), any());
+    }
+
+    @Test
+    void dryRunPlansTheSameMovesWithoutLocksOrEvents() {
+        targets(schedule(20L, firstOpenDay));
+
+        RescheduleReportDTO report = run(true);
+
+        assertTrue(report.isDryRun());
+        assertEquals(1, report.getMoves().size());
+        assertEquals(NINE, report.getMoves().get(0).getToTime());
+        verify(scheduleRepository, never()).lockAllByIdIn(any());
+        verifyNoInteractions(domainEventPublisher);
+    }
+
+    @Test
+    void skipsSubSlotsOverlappingAnotherBookingOfThePatient() {
+        DoctorSchedule target = schedule(20L, firstOpenDay);
+        targets(target);
+        patientSlots.add(new Object[] { PATIENT_ID, 200L, firstOpenDay, NINE, 30 });
+
+        RescheduleReportDTO report = apply();
+
+        assertEquals(1, report.getMoves().size());
+        assertEquals(NINE_THIRTY, report.getMoves().get(0).getToTime());
+        assertEquals(NINE_THIRTY, appointment.getAppointmentTime());
+    }
+
+    @Test
+    void longerBookingOfThePatientBlocksEveryOverlappingSubSlot() {
+        DoctorSchedule blocked = schedule(20L, firstOpenDay);
+        DoctorSchedule next = schedule(30L, firstOpenDay.plusDays(1));
+        targets(blocked, next);
+        // A one-hour slot elsewhere covers both 30-minute sub-slots of the first target
+        patientSlots.add(new Object[] { PATIENT_ID, 200L, firstOpenDay, NINE, 60 });
+
+        RescheduleReportDTO report = apply();
+
+        assertEquals(1, report.getMoves().size());
+        assertEquals(30L, report.getMoves().get(0).getToScheduleId());
+        assertEquals(0, blocked.getCurrentBookings());
+        assertEquals(1, next.getCurrentBookings());
+    }
+
+    @Test
+    void ownBookingOnTheLeaveDayIsNotAnOverlap() {
+        // Same date and time as the booking being moved: only the appointment itself sits there
+        DoctorSchedule sameDay = schedule(20L, leaveDay);
+        sameDay.setDoctor(new Doctor());
+        sameDay.getDoctor().setId(2L);
+        targets(sameDay);
+
+        RescheduleReportDTO report = apply();
+
+        assertEquals(1, report.getMoves().size());
+        assertEquals(NINE, report.getMoves().get(0).getToTime());
+    }
+
+    @Test
+    void unmatchedWhenEveryFreeSubSlotOverlaps() {
+        DoctorSchedule target = schedule(20L, firstOpenDay);
+        targets(target);
+        patientSlots.add(new Object[] { PATIENT_ID, 200L, firstOpenDay, NINE, 60 });
+
+        RescheduleReportDTO report = apply();
+
+        assertTrue(report.getMoves().isEmpty());
+        assertEquals(1, report.getUnmatched().size());
+        assertEquals(leave, appointment.getSchedule());
+        assertEquals(1, leave.getCurrentBookings());
+    }
+
+    @Test
+    void leaveSchedulesAreClosedAfterTheMoves() {
+        targets(schedule(20L, firstOpenDay));
+
+        RescheduleReportDTO report = apply();
+
+        assertEquals(1, report.getClosedSchedules());
+        assertTrue(leave.getClosed());
+        assertFalse(leave.isAvailable());
+        assertTrue(leave.freeSlotTimes().isEmpty());
+    }
+}